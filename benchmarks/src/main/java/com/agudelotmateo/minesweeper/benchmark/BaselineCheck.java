@@ -0,0 +1,173 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the results of a benchmark run against a baseline, both in JMH's CSV
+ * format ({@code -rf csv}), and fails if any benchmark got slower than the
+ * allowed threshold. Every benchmark mode is compared, higher being better only
+ * for throughput. A change is only a regression if it is also larger than the
+ * two runs' score errors combined, so noisy benchmarks do not fail the check on
+ * noise alone. Auxiliary event counters, whose unit is {@code #}, are listed but
+ * not compared since they count results rather than time. Benchmarks missing
+ * from either file are reported but do not fail the check.
+ * <p>
+ * Usage: {@code BaselineCheck <baseline.csv> <results.csv> [threshold]}, where
+ * the threshold is the allowed relative slowdown (0.25 by default).
+ *
+ * @author Mateo Agudelo Toro
+ */
+public final class BaselineCheck {
+    private static final double DEFAULT_THRESHOLD = 0.25;
+
+    private static final String THROUGHPUT = "thrpt";
+    private static final String EVENTS = "#";
+
+    // Does not make sense to instantiate this class
+    private BaselineCheck() { }
+
+    /**
+     * A benchmark's score along with its error margin, as reported by JMH.
+     */
+    static final class Score {
+        final double value;
+        final double error;
+        final boolean higherIsBetter;
+        final boolean counter;
+
+        /**
+         * Creates a new score.
+         *
+         * @param value          the score
+         * @param error          the score's error margin, 0 if JMH did not report
+         *                       one
+         * @param higherIsBetter whether a higher score is an improvement
+         * @param counter        whether the score counts events instead of
+         *                       measuring time
+         */
+        Score(double value, double error, boolean higherIsBetter, boolean counter) {
+            this.value = value;
+            this.error = error;
+            this.higherIsBetter = higherIsBetter;
+            this.counter = counter;
+        }
+    }
+
+    /**
+     * Reads the scores of a JMH CSV results file, keyed by the benchmark's name
+     * followed by its mode and parameters.
+     *
+     * @param path path of the results file
+     * @return the scores, keyed by benchmark, mode and parameters
+     * @throws IOException if the file cannot be read
+     */
+    static Map<String, Score> readScores(String path) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        String[] header = split(lines.get(0));
+        int mode = indexOf(header, "Mode");
+        int score = indexOf(header, "Score");
+        int error = indexOf(header, "Score Error (99.9%)");
+        int unit = indexOf(header, "Unit");
+
+        // Every row is a benchmark and its parameters come in the trailing columns
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] values = split(line);
+            if (values.length < header.length)
+                continue;
+            StringBuilder key = new StringBuilder(values[0]).append(' ').append(values[mode]);
+            for (int i = 0; i < header.length; ++i)
+                if (header[i].startsWith("Param: ") && !values[i].isEmpty())
+                    key.append(' ').append(header[i].substring(7)).append('=').append(values[i]);
+            double margin = Double.parseDouble(values[error]);
+            scores.put(key.toString(), new Score(Double.parseDouble(values[score]), Double.isNaN(margin) ? 0 : margin,
+                    values[mode].equals(THROUGHPUT), values[unit].equals(EVENTS)));
+        }
+        return scores;
+    }
+
+    /**
+     * Splits a CSV line written by JMH, which quotes text but never escapes
+     * commas.
+     *
+     * @param line the line to split
+     * @return the unquoted values
+     */
+    private static String[] split(String line) {
+        String[] values = line.split(",", -1);
+        for (int i = 0; i < values.length; ++i)
+            values[i] = values[i].replace("\"", "").trim();
+        return values;
+    }
+
+    /**
+     * Finds a column by its name.
+     *
+     * @param header the header's values
+     * @param name   the column's name
+     * @return the index of the column
+     * @throws IllegalArgumentException if there is no such column
+     */
+    private static int indexOf(String[] header, String name) {
+        for (int i = 0; i < header.length; ++i)
+            if (header[i].equals(name))
+                return i;
+        throw new IllegalArgumentException("missing column " + name);
+    }
+
+    /**
+     * Runs the check, printing every comparison and exiting with status 1 if any
+     * benchmark regressed.
+     *
+     * @param args baseline path, results path and optional threshold
+     * @throws IOException if either file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.csv> <results.csv> [threshold]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = readScores(args[0]);
+        Map<String, Score> results = readScores(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        // Compare every benchmark in the results against its baseline
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score result = entry.getValue();
+            Score expected = baseline.get(entry.getKey());
+            if (result.counter) {
+                System.out.printf("COUNTER    %s: %.0f%n", entry.getKey(), result.value);
+                continue;
+            }
+            if (expected == null) {
+                System.out.printf("NEW        %s: %.3f%n", entry.getKey(), result.value);
+                continue;
+            }
+
+            // A slowdown must exceed both the threshold and the noise of both runs
+            double slowdown = result.higherIsBetter ? expected.value - result.value : result.value - expected.value;
+            double change = slowdown / expected.value;
+            boolean regressed = change > threshold && slowdown > expected.error + result.error;
+            if (regressed)
+                ++regressions;
+            System.out.printf("%-10s %s: %.3f +/- %.3f -> %.3f +/- %.3f (%+.1f%%)%n", regressed ? "REGRESSED" : "OK",
+                    entry.getKey(), expected.value, expected.error, result.value, result.error,
+                    100 * (result.value / expected.value - 1));
+        }
+        for (String missing : baseline.keySet())
+            if (!results.containsKey(missing))
+                System.out.printf("MISSING    %s%n", missing);
+
+        // Fail if anything got slower than allowed
+        System.out.printf("%d regression(s) above %.0f%%%n", regressions, 100 * threshold);
+        if (regressions > 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,160 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.BitBoard;
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.ConcurrentBoard;
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bit plane board against the packed boards on whole games:
+ * creating a board, counters included, and playing a game from scratch by
+ * uncovering the safe cells in random order until it is won, flood fills
+ * included. Square boards of 99, 1000 and 3000 cells per side are played with
+ * 5% of the cells holding bombs, where most moves flood fill large regions, and
+ * with 15%, where most moves uncover a single cell. {@link Board} cannot hold
+ * more than 99x99, so the larger ones are compared against
+ * {@link ConcurrentBoard}, the other board holding all of its cells at once.
+ * Both boards of every game get the same seed and moves, and are checked to
+ * uncover the same amount of cells before measuring.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitBoardBenchmark {
+    // Amount of games played in turn, a power of two
+    private static final int GAMES = 1 << 2;
+
+    @Param({ "99", "1000", "3000" })
+    private int side;
+
+    @Param({ "0.05", "0.15" })
+    private double density;
+
+    private int bombs;
+    private long[] seeds;
+    private int[][] moves;
+    private int[] buffer;
+    private int game;
+
+    /**
+     * Draws the games' seeds and lists their safe cells in random order, then
+     * checks that both boards agree on every game.
+     */
+    @Setup
+    public void setUp() throws InvalidActivityException {
+        int cells = this.side * this.side;
+        this.bombs = (int) (cells * this.density);
+        this.seeds = new long[GAMES];
+        this.moves = new int[GAMES][];
+        this.buffer = this.side < Board.MAX_ROWS_EXCLUSIVE ? new int[cells] : null;
+        this.game = 0;
+        SplittableRandom random = new SplittableRandom(0);
+        for (int i = 0; i < GAMES; ++i) {
+            // The boards place the bombs where sampling from the seed puts them
+            this.seeds[i] = random.nextLong();
+            boolean[] bomb = new boolean[cells];
+            for (int location : Random.sampleUniqueInts(this.bombs, 0, cells, new SplittableRandom(this.seeds[i])))
+                bomb[location] = true;
+            this.moves[i] = new int[cells - this.bombs];
+            int count = 0;
+            for (int location = 0; location < cells; ++location)
+                if (!bomb[location])
+                    this.moves[i][count++] = location;
+            Random.shuffle(this.moves[i], random);
+        }
+
+        for (int i = 0; i < GAMES; ++i) {
+            this.game = i;
+            long expected = playReference();
+            this.game = i;
+            long uncovered = playBits();
+            if (uncovered != expected)
+                throw new IllegalStateException("boards disagree: " + expected + " cells uncovered by the "
+                        + "reference, " + uncovered + " by the bit planes");
+        }
+    }
+
+    /**
+     * Creates the reference board of the next game.
+     *
+     * @return the state of the first cell
+     */
+    @Benchmark
+    public int createReference() {
+        long seed = this.seeds[this.game++ & (GAMES - 1)];
+        if (this.buffer != null)
+            return new Board(this.side, this.side, this.bombs, seed).visibleCell(0, 0);
+        return new ConcurrentBoard(this.side, this.side, this.bombs, seed).visibleCell(0, 0);
+    }
+
+    /**
+     * Creates the bit plane board of the next game.
+     *
+     * @return the state of the first cell
+     */
+    @Benchmark
+    public int createBits() {
+        long seed = this.seeds[this.game++ & (GAMES - 1)];
+        return new BitBoard(this.side, this.side, this.bombs, seed).visibleCell(0, 0);
+    }
+
+    /**
+     * Creates the reference board of the next game and plays it until it is won.
+     *
+     * @return the amount of cells uncovered
+     */
+    @Benchmark
+    public long playReference() throws InvalidActivityException {
+        int next = this.game++ & (GAMES - 1);
+        int[] moves = this.moves[next];
+        long uncovered = 0;
+        if (this.buffer != null) {
+            Board board = new Board(this.side, this.side, this.bombs, this.seeds[next]);
+            for (int i = 0; i < moves.length && !board.isGameOver(); ++i)
+                uncovered += board.uncoverCell(moves[i] / this.side, moves[i] % this.side, this.buffer);
+        } else {
+            ConcurrentBoard board = new ConcurrentBoard(this.side, this.side, this.bombs, this.seeds[next]);
+            for (int i = 0; i < moves.length && !board.isGameOver(); ++i)
+                uncovered += board.uncoverCell(moves[i] / this.side, moves[i] % this.side);
+        }
+        return uncovered;
+    }
+
+    /**
+     * Creates the bit plane board of the next game and plays it until it is won.
+     *
+     * @return the amount of cells uncovered
+     */
+    @Benchmark
+    public long playBits() throws InvalidActivityException {
+        int next = this.game++ & (GAMES - 1);
+        int[] moves = this.moves[next];
+        BitBoard board = new BitBoard(this.side, this.side, this.bombs, this.seeds[next]);
+        long uncovered = 0;
+        for (int i = 0; i < moves.length && !board.isGameOver(); ++i)
+            uncovered += board.uncoverCell(moves[i] / this.side, moves[i] % this.side);
+        return uncovered;
+    }
+}
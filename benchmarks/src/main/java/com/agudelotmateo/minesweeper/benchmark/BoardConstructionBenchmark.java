@@ -0,0 +1,56 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.agudelotmateo.minesweeper.model.Board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long creating a board takes across sizes and bomb densities.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardConstructionBenchmark {
+    @Param({ "9", "30", "99" })
+    private int size;
+
+    @Param({ "0.12", "0.2" })
+    private double density;
+
+    private int bombs;
+
+    /**
+     * Computes the amount of bombs for the current parameters.
+     */
+    @Setup
+    public void setUp() {
+        this.bombs = Math.max(1, (int) (this.size * this.size * this.density));
+    }
+
+    /**
+     * Creates a randomly seeded board.
+     *
+     * @return the new board
+     */
+    @Benchmark
+    public Board construct() {
+        return new Board(this.size, this.size, this.bombs);
+    }
+}
@@ -0,0 +1,84 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the moves on the largest boards: uncovering a board that floods
+ * completely, which is the worst case of the flood fill, and toggling flags on a
+ * dense board, which runs the win check every time.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardMoveBenchmark {
+    private static final int SIZE = Board.MAX_ROWS_EXCLUSIVE - 1;
+
+    private long emptySeed;
+    private Board empty;
+    private Board dense;
+
+    /**
+     * Finds a seed for a single-bomb board that floods completely from the top
+     * left corner, and creates the dense board.
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() throws InvalidActivityException {
+        for (long seed = 0;; ++seed)
+            if (new Board(SIZE, SIZE, 1, seed).uncoverCell(0, 0).length == SIZE * SIZE) {
+                this.emptySeed = seed;
+                break;
+            }
+        this.dense = new Board(SIZE, SIZE, SIZE * SIZE / 5, 1);
+    }
+
+    /**
+     * Creates a fresh single-bomb board before every uncover.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.empty = new Board(SIZE, SIZE, 1, this.emptySeed);
+    }
+
+    /**
+     * Uncovers a corner of a board that floods completely.
+     *
+     * @return the uncovered locations
+     */
+    @Benchmark
+    public int[] uncoverEmptyBoard() throws InvalidActivityException {
+        return this.empty.uncoverCell(0, 0);
+    }
+
+    /**
+     * Flags and unflags a cell of a dense board.
+     *
+     * @return whether the game is over, which it never is
+     */
+    @Benchmark
+    public boolean toggleCellFlag() throws InvalidActivityException {
+        this.dense.toggleCellFlag(SIZE / 2, SIZE / 2);
+        this.dense.toggleCellFlag(SIZE / 2, SIZE / 2);
+        return this.dense.isGameOver();
+    }
+}
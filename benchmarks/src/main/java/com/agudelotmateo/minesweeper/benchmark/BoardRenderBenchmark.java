@@ -0,0 +1,75 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a board halfway through a game.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardRenderBenchmark {
+    @Param({ "9", "30", "99" })
+    private int size;
+
+    private Board board;
+    private BoardRenderer renderer;
+
+    /**
+     * Creates a board with part of it uncovered, by uncovering its center on the
+     * first seed that does not lose, and flags its first row.
+     */
+    @Setup
+    public void setUp() throws InvalidActivityException {
+        int bombs = Math.max(1, this.size * this.size / 8);
+        for (long seed = 0; this.board == null || this.board.isGameOver(); ++seed) {
+            this.board = new Board(this.size, this.size, bombs, seed);
+            this.board.uncoverCell(this.size / 2, this.size / 2);
+        }
+        for (int j = 0; j < this.size; ++j)
+            this.board.toggleCellFlag(0, j);
+        this.renderer = new BoardRenderer(this.board);
+    }
+
+    /**
+     * Renders the whole board into a new string.
+     *
+     * @return the rendered board
+     */
+    @Benchmark
+    public String render() {
+        return this.board.toString();
+    }
+
+    /**
+     * Renders the whole board into the renderer's reusable frame.
+     *
+     * @return the rendered frame
+     */
+    @Benchmark
+    public byte[] renderFrame() {
+        return this.renderer.render();
+    }
+}
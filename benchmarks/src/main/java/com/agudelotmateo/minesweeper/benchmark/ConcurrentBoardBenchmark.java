@@ -0,0 +1,167 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.ConcurrentBoard;
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Measures how a shared board scales with the amount of players: every
+ * iteration plays a fixed amount of moves per thread on a new 2000x2000 board
+ * with 16% of the cells holding bombs, by one thread and by four. Every thread
+ * moves on random cells of its own band of rows, as players spread over the
+ * board would, flagging the bombs and uncovering the safe cells so that the
+ * game keeps going. After every iteration it checks that no move got lost: the
+ * cells uncovered by all the threads must add up to the cells the board has
+ * uncovered.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentBoardBenchmark {
+    private static final int ROWS = 2000;
+    private static final int COLUMNS = 2000;
+    private static final int BOMBS = 640_000;
+    private static final int MOVES = 1 << 20;
+
+    /**
+     * The board shared by every thread, new on every iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        private ConcurrentBoard board;
+        private boolean[] bombs;
+        private final AtomicLong uncovered = new AtomicLong();
+        private long seed;
+
+        /**
+         * Places the bombs of a new board, remembering where they are.
+         */
+        @Setup(Level.Iteration)
+        public void setUp() {
+            ++this.seed;
+            int[] locations = Random.sampleUniqueInts(BOMBS, 0, ROWS * COLUMNS, new SplittableRandom(this.seed));
+            this.board = new ConcurrentBoard(ROWS, COLUMNS, locations);
+            this.bombs = new boolean[ROWS * COLUMNS];
+            for (int location : locations)
+                this.bombs[location] = true;
+            this.uncovered.set(0);
+        }
+
+        /**
+         * Checks that every uncovered cell was counted by exactly one move.
+         */
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            long counted = 0;
+            for (int i = 0; i < ROWS; ++i)
+                for (int j = 0; j < COLUMNS; ++j) {
+                    int cell = this.board.visibleCell(i, j);
+                    if (cell != Board.VISIBLE_COVERED && cell != Board.VISIBLE_FLAGGED)
+                        ++counted;
+                }
+            if (counted != this.uncovered.get())
+                throw new IllegalStateException("lost updates: " + counted + " cells uncovered, "
+                        + this.uncovered.get() + " counted by the moves");
+        }
+    }
+
+    /**
+     * The band of rows a thread plays on.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        private SplittableRandom random;
+        private int firstRow;
+        private int rows;
+
+        /**
+         * Picks the thread's band of rows and its moves for the iteration.
+         *
+         * @param shared  the shared board
+         * @param threads the thread's index and the amount of threads
+         */
+        @Setup(Level.Iteration)
+        public void setUp(Shared shared, ThreadParams threads) {
+            int band = Math.max(1, ROWS / threads.getThreadCount());
+            this.random = new SplittableRandom(Random.derivedSeed(shared.seed, threads.getThreadIndex()));
+            this.firstRow = Math.min(threads.getThreadIndex() * band, ROWS - 1);
+            this.rows = Math.min(band, ROWS - this.firstRow);
+        }
+    }
+
+    /**
+     * Makes the thread's moves on the shared board.
+     *
+     * @param shared the shared board
+     * @param player the thread's band of rows
+     * @return the amount of cells uncovered by the thread
+     */
+    private static long play(Shared shared, Player player) throws InvalidActivityException {
+        ConcurrentBoard board = shared.board;
+        long uncovered = 0;
+        for (int i = 0; i < MOVES && !board.isGameOver(); ++i) {
+            int row = player.firstRow + player.random.nextInt(player.rows);
+            int column = player.random.nextInt(COLUMNS);
+            if (shared.bombs[row * COLUMNS + column])
+                board.toggleCellFlag(row, column);
+            else
+                uncovered += board.uncoverCell(row, column);
+        }
+        shared.uncovered.addAndGet(uncovered);
+        return uncovered;
+    }
+
+    /**
+     * Plays the board alone.
+     *
+     * @param shared the shared board
+     * @param player the thread's band of rows
+     * @return the amount of cells uncovered
+     */
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    @Threads(1)
+    public long oneThread(Shared shared, Player player) throws InvalidActivityException {
+        return play(shared, player);
+    }
+
+    /**
+     * Plays the board along with three other threads.
+     *
+     * @param shared the shared board
+     * @param player the thread's band of rows
+     * @return the amount of cells uncovered by the thread
+     */
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    @Threads(4)
+    public long fourThreads(Shared shared, Player player) throws InvalidActivityException {
+        return play(shared, player);
+    }
+}
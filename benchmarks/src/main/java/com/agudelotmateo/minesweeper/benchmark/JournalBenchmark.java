@@ -0,0 +1,146 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.journal.GameJournal;
+import com.agudelotmateo.minesweeper.model.Board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures moves through the journal on local disk, both appending only and
+ * waiting for every move to be durable through group commit. Every thread
+ * plays expert games (16x30 with 99 bombs) one after the other, flagging or
+ * unflagging nine random cells for every random cell it uncovers. Durable moves
+ * are played by several threads, so that every force to disk is shared.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+    private static final int ROWS = 16;
+    private static final int COLUMNS = 30;
+    private static final int BOMBS = 99;
+    private static final int FLAGS_PER_UNCOVER = 9;
+
+    /**
+     * The journal shared by every thread, in a temporary directory.
+     */
+    @State(Scope.Benchmark)
+    public static class Journal {
+        private Path directory;
+        private GameJournal journal;
+        private final AtomicLong seeds = new AtomicLong();
+
+        /**
+         * Opens the journal in a new directory.
+         */
+        @Setup
+        public void setUp() throws IOException {
+            this.directory = Files.createTempDirectory("journal");
+            this.journal = new GameJournal(this.directory);
+        }
+
+        /**
+         * Closes the journal and deletes its files.
+         */
+        @TearDown
+        public void tearDown() throws IOException {
+            this.journal.close();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+                for (Path file : files)
+                    Files.delete(file);
+            }
+            Files.delete(this.directory);
+        }
+    }
+
+    /**
+     * The game a thread is playing.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        private SplittableRandom random;
+        private int game;
+
+        /**
+         * Starts the thread's first game.
+         *
+         * @param journal the shared journal
+         */
+        @Setup
+        public void setUp(Journal journal) throws IOException {
+            this.random = new SplittableRandom(journal.seeds.incrementAndGet());
+            this.game = journal.journal.start(Board.firstClickSafe(ROWS, COLUMNS, BOMBS, this.random.nextLong()));
+        }
+
+        /**
+         * Makes the next move of the thread's game, starting a new game once it
+         * is over.
+         *
+         * @param journal the shared journal
+         * @return the move's ticket
+         */
+        long move(Journal journal) throws InvalidActivityException, IOException {
+            GameJournal games = journal.journal;
+            if (games.getGame(this.game).isGameOver()) {
+                games.finish(this.game);
+                this.game = games.start(Board.firstClickSafe(ROWS, COLUMNS, BOMBS, this.random.nextLong()));
+            }
+            int row = this.random.nextInt(ROWS);
+            int column = this.random.nextInt(COLUMNS);
+            return this.random.nextInt(FLAGS_PER_UNCOVER + 1) == 0 ? games.uncoverCell(this.game, row, column)
+                    : games.toggleCellFlag(this.game, row, column);
+        }
+    }
+
+    /**
+     * Appends a move without waiting for it to be durable.
+     *
+     * @param journal the shared journal
+     * @param player  the thread's game
+     * @return the move's ticket
+     */
+    @Benchmark
+    public long append(Journal journal, Player player) throws InvalidActivityException, IOException {
+        return player.move(journal);
+    }
+
+    /**
+     * Appends a move and waits until it is durable.
+     *
+     * @param journal the shared journal
+     * @param player  the thread's game
+     * @return the move's ticket
+     */
+    @Benchmark
+    @Threads(8)
+    public long durable(Journal journal, Player player) throws InvalidActivityException, IOException {
+        long ticket = player.move(journal);
+        journal.journal.awaitDurable(ticket);
+        return ticket;
+    }
+}
@@ -0,0 +1,89 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardSnapshot;
+import com.agudelotmateo.minesweeper.solver.ProbabilityEngine;
+import com.agudelotmateo.minesweeper.solver.Solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long hints take on large boards: 99x99 games with 1960 bombs,
+ * the density of expert boards, are played by the solver as far as it can go
+ * without guessing, and then by taking the hint of the probability engine every
+ * time it gets stuck. Every position the solver got stuck on is kept, from the
+ * first moves to the end of the games, and the hints are timed on those in
+ * turn.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProbabilityBenchmark {
+    private static final int ROWS = 99;
+    private static final int COLUMNS = 99;
+    private static final int BOMBS = 1960;
+
+    // Amount of positions hinted in turn, a power of two
+    private static final int POSITIONS = 1 << 6;
+
+    private Board[] positions;
+    private ProbabilityEngine engine;
+    private int position;
+
+    /**
+     * Plays games until enough positions the solver gets stuck on are kept.
+     */
+    @Setup
+    public void setUp() throws InvalidActivityException {
+        this.positions = new Board[POSITIONS];
+        this.engine = new ProbabilityEngine();
+        this.position = 0;
+        Solver solver = new Solver();
+        SplittableRandom random = new SplittableRandom(0);
+        ByteBuffer buffer = ByteBuffer.allocate(BoardSnapshot.size(ROWS, COLUMNS));
+        int kept = 0;
+        while (kept < POSITIONS) {
+            Board board = Board.firstClickSafe(ROWS, COLUMNS, BOMBS, random.nextLong());
+            board.uncoverCell(ROWS / 2, COLUMNS / 2);
+            while (kept < POSITIONS && !board.isGameOver() && !solver.solveWithoutGuessing(board)) {
+                // Keep a copy of the position, and take the hint to go on
+                buffer.clear();
+                BoardSnapshot.write(board, buffer);
+                buffer.flip();
+                this.positions[kept++] = BoardSnapshot.read(buffer);
+                int hint = this.engine.hint(board);
+                board.uncoverCell(hint / COLUMNS, hint % COLUMNS);
+            }
+        }
+    }
+
+    /**
+     * Takes the hint of the next position.
+     *
+     * @return the hinted cell's location
+     */
+    @Benchmark
+    public int hint() {
+        return this.engine.hint(this.positions[this.position++ & (POSITIONS - 1)]);
+    }
+}
@@ -0,0 +1,57 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares shuffling the whole range against Floyd's sampling when generating
+ * unique values, as done to place bombs.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomBenchmark {
+    @Param({ "10", "1960" })
+    private int n;
+
+    @Param({ "9801", "1000000" })
+    private int bound;
+
+    /**
+     * Shuffles the whole range and keeps the first n values.
+     *
+     * @return the generated values
+     */
+    @Benchmark
+    public Set<Integer> nUniqueIntsInRange() {
+        return Random.nUniqueIntsInRange(this.n, 0, this.bound);
+    }
+
+    /**
+     * Samples n values with Floyd's algorithm.
+     *
+     * @return the generated values
+     */
+    @Benchmark
+    public int[] sampleUniqueInts() {
+        return Random.sampleUniqueInts(this.n, 0, this.bound);
+    }
+}
@@ -0,0 +1,172 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures saving and restoring expert games (16x30 with 99 bombs), each one
+ * played for a few random moves first: through a heap buffer, through a file
+ * channel one game at a time, and through a memory-mapped file in bulk. Every
+ * invocation goes through the same batch of games, and the scores are per game.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final int ROWS = 16;
+    private static final int COLUMNS = 30;
+    private static final int BOMBS = 99;
+    private static final int GAMES = 1024;
+    private static final int MOVES_PER_GAME = 5;
+
+    private Board[] boards;
+    private ByteBuffer buffer;
+    private ByteBuffer saved;
+    private Board restored;
+    private Path file;
+    private FileChannel channel;
+
+    /**
+     * Plays the games, and saves them once so that there is something to restore
+     * from the start.
+     */
+    @Setup
+    public void setUp() throws IOException, InvalidActivityException {
+        SplittableRandom random = new SplittableRandom(0);
+        this.boards = new Board[GAMES];
+        for (int i = 0; i < GAMES; ++i) {
+            this.boards[i] = Board.firstClickSafe(ROWS, COLUMNS, BOMBS, random.nextLong());
+            for (int move = 0; move < MOVES_PER_GAME && !this.boards[i].isGameOver(); ++move)
+                this.boards[i].uncoverCell(random.nextInt(ROWS), random.nextInt(COLUMNS));
+        }
+
+        this.buffer = ByteBuffer.allocate(GAMES * BoardSnapshot.size(ROWS, COLUMNS));
+        this.saved = ByteBuffer.allocate(this.buffer.capacity());
+        for (Board board : this.boards)
+            BoardSnapshot.write(board, this.saved);
+        this.restored = new Board(ROWS, COLUMNS, BOMBS);
+
+        this.file = Files.createTempFile("snapshots", ".bin");
+        this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BoardSnapshot.writeMapped(this.boards, this.channel);
+    }
+
+    /**
+     * Closes and deletes the file.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        this.channel.close();
+        Files.delete(this.file);
+    }
+
+    /**
+     * Saves every game into a heap buffer.
+     *
+     * @return the buffer
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public ByteBuffer writeBuffer() {
+        this.buffer.clear();
+        for (Board board : this.boards)
+            BoardSnapshot.write(board, this.buffer);
+        return this.buffer;
+    }
+
+    /**
+     * Restores every game from a heap buffer into a reused board.
+     *
+     * @return the last game restored
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public Board readBuffer() {
+        this.saved.rewind();
+        for (int i = 0; i < GAMES; ++i)
+            BoardSnapshot.read(this.saved, this.restored);
+        return this.restored;
+    }
+
+    /**
+     * Saves every game through the file channel, one at a time.
+     *
+     * @return the channel's position after the last game
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public long writeChannel() throws IOException {
+        this.channel.position(0);
+        for (Board board : this.boards)
+            BoardSnapshot.write(board, this.channel);
+        return this.channel.position();
+    }
+
+    /**
+     * Restores every game through the file channel, one at a time.
+     *
+     * @return the last game restored
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public Board readChannel() throws IOException {
+        this.channel.position(0);
+        Board board = null;
+        for (int i = 0; i < GAMES; ++i)
+            board = BoardSnapshot.read(this.channel);
+        return board;
+    }
+
+    /**
+     * Saves every game through memory-mapped regions of the file.
+     *
+     * @return the amount of bytes written
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public long writeMapped() throws IOException {
+        this.channel.position(0);
+        return BoardSnapshot.writeMapped(this.boards, this.channel);
+    }
+
+    /**
+     * Restores every game through memory-mapped regions of the file.
+     *
+     * @return the games restored
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public Board[] readMapped() throws IOException {
+        this.channel.position(0);
+        return BoardSnapshot.readMapped(this.channel, GAMES);
+    }
+}
@@ -0,0 +1,106 @@
+package com.agudelotmateo.minesweeper.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.solver.Solver;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the solver playing expert-sized (16x30) boards until the game is
+ * over, guessing whenever the deductions run out, for a few bomb densities.
+ * Every game resets a reused board to the next of a fixed series of seeds, so
+ * that quick losses and long wins average out the same way on every run.
+ * <p>
+ * The {@code games} and {@code wins} counters report how many games were
+ * played and won over the measurement iterations, so the win rate at each
+ * density is {@code wins / games}.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    private static final int ROWS = 16;
+    private static final int COLUMNS = 30;
+
+    // Amount of seeds played in turn, a power of two
+    private static final int SEEDS = 1 << 10;
+
+    @Param({ "0.1", "0.15", "0.2" })
+    private double density;
+
+    private int bombs;
+    private Board board;
+    private Solver solver;
+    private SplittableRandom random;
+    private int game;
+
+    /**
+     * Counts the games played and won in each iteration, which JMH adds up over
+     * the measurement iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Games {
+        public long games;
+        public long wins;
+
+        /**
+         * Clears the counters before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void clear() {
+            this.games = 0;
+            this.wins = 0;
+        }
+    }
+
+    /**
+     * Creates the reused board and solver.
+     */
+    @Setup
+    public void setUp() {
+        this.bombs = (int) Math.round(this.density * ROWS * COLUMNS);
+        this.board = new Board(ROWS, COLUMNS, this.bombs, 0);
+        this.solver = new Solver();
+        this.random = new SplittableRandom(0);
+        this.game = 0;
+    }
+
+    /**
+     * Resets the board to the next seed and plays it until the game is over.
+     *
+     * @param games counters of the games played and won
+     * @return whether the game was won
+     */
+    @Benchmark
+    public boolean solve(Games games) throws InvalidActivityException {
+        this.board.reset(ROWS, COLUMNS, this.bombs, this.game++ & (SEEDS - 1));
+        boolean won = this.solver.solve(this.board, this.random);
+        ++games.games;
+        if (won)
+            ++games.wins;
+        return won;
+    }
+}
@@ -1,15 +1,66 @@
 package com.agudelotmateo.minesweeper;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import com.agudelotmateo.minesweeper.controller.Driver;
+import com.agudelotmateo.minesweeper.metrics.Metrics;
+import com.agudelotmateo.minesweeper.server.GameServer;
+import com.agudelotmateo.minesweeper.server.LoadGenerator;
 
 /**
- * Minesweeper's entry point.
- * 
+ * Minesweeper's entry point. Without arguments it runs a single interactive
+ * game; {@code server [port]} hosts many games over local TCP connections and
+ * {@code load <host> <port> <clients> <games per client>} measures a running
+ * server. {@code batch [render every]} plays a game scripted through the
+ * standard input, writing the board only every so many commands, and reports
+ * the commands per second to the standard error. Running with
+ * {@code -Dminesweeper.metrics=true} collects metrics and exposes them through
+ * JMX, and running with {@code -Dminesweeper.firstClickSafe=true} keeps the
+ * bombs away from the first cell uncovered in every mode.
+ *
  * @author Mateo Agudelo Toro
  */
 public class App {
-    public static void main(String[] args) {
-        Driver game = new Driver();
+    // Opts into first-click-safe boards
+    public static final String FIRST_CLICK_SAFE_PROPERTY = "minesweeper.firstClickSafe";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Expose the metrics if they are being collected
+        if (Metrics.isEnabled())
+            Metrics.register();
+        boolean firstClickSafe = Boolean.getBoolean(FIRST_CLICK_SAFE_PROPERTY);
+
+        // Server mode
+        if (args.length > 0 && args[0].equals("server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+            try (GameServer server = new GameServer(port, GameServer.DEFAULT_IDLE_TIMEOUT_MILLIS, firstClickSafe)) {
+                System.out.println("Listening on port " + server.getPort());
+                server.run();
+            }
+            return;
+        }
+
+        // Load generator mode
+        if (args.length > 0 && args[0].equals("load")) {
+            LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Batch mode
+        if (args.length > 0 && args[0].equals("batch")) {
+            int renderEvery = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+            long start = System.nanoTime();
+            long commands = new Driver(firstClickSafe).playBatch(System.in, System.out, renderEvery);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%d commands in %.3f s, %.0f commands/s%n", commands, seconds, commands / seconds);
+            if (Metrics.isEnabled())
+                System.err.print(Metrics.dump());
+            return;
+        }
+
+        // Interactive mode
+        Driver game = new Driver(firstClickSafe);
         game.welcomeUser();
         game.createBoardFromStandardInput();
         game.playGame();
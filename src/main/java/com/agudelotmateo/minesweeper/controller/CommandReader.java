@@ -0,0 +1,127 @@
+package com.agudelotmateo.minesweeper.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads whitespace-separated tokens straight from the bytes of a stream, for
+ * scripted input where {@link java.util.Scanner} is too slow: bytes are read in
+ * large blocks, numbers are parsed as the tokens are read and nothing is
+ * allocated per token.
+ *
+ * @author Mateo Agudelo Toro
+ */
+class CommandReader {
+    // Value of tokens that are not numbers
+    static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+    // Operation code of tokens that are not one
+    private static final String UNKNOWN_OPERATION = "";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Bytes read from the stream, and the ones not consumed yet
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    // Current token: its length, its value if it is a number, and its first byte
+    private int length;
+    private int number;
+    private byte first;
+
+    /**
+     * Creates a reader over a stream.
+     *
+     * @param in the stream to read from, which is not closed by the reader
+     */
+    CommandReader(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Gets the next byte of the stream.
+     *
+     * @return the byte, or -1 at the end of the stream
+     * @throws IOException if the stream fails
+     */
+    private int read() throws IOException {
+        if (this.position == this.limit) {
+            this.limit = this.in.read(this.buffer, 0, this.buffer.length);
+            this.position = 0;
+            if (this.limit <= 0) {
+                this.limit = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.position++] & 0xFF;
+    }
+
+    /**
+     * Reads the next token, skipping the whitespace before it.
+     *
+     * @return whether there was a token, false at the end of the stream
+     * @throws IOException if the stream fails
+     */
+    boolean nextToken() throws IOException {
+        int b = read();
+        while (b >= 0 && b <= ' ')
+            b = read();
+        if (b < 0)
+            return false;
+
+        // Parse the digits, with an optional sign, as they come
+        this.first = (byte) b;
+        this.length = 0;
+        boolean negative = b == '-';
+        boolean digits = false;
+        boolean valid = true;
+        long value = 0;
+        do {
+            if (this.length > 0 || (b != '-' && b != '+')) {
+                if (b >= '0' && b <= '9' && value <= Integer.MAX_VALUE) {
+                    value = value * 10 + (b - '0');
+                    digits = true;
+                } else
+                    valid = false;
+            }
+            ++this.length;
+            b = read();
+        } while (b > ' ');
+        if (negative)
+            value = -value;
+        this.number = valid && digits && value >= -Integer.MAX_VALUE && value <= Integer.MAX_VALUE ? (int) value
+                : NOT_A_NUMBER;
+        return true;
+    }
+
+    /**
+     * Gets the current token as a number.
+     *
+     * @return the number, or {@link #NOT_A_NUMBER} if the token is not one
+     */
+    int number() {
+        return this.number;
+    }
+
+    /**
+     * Gets the current token as an operation code, reusing the codes' constants.
+     *
+     * @return the operation code, or an empty code if the token is not one
+     */
+    String operation() {
+        if (this.length != 1)
+            return UNKNOWN_OPERATION;
+        if (this.first == Session.FLAG.charAt(0))
+            return Session.FLAG;
+        if (this.first == Session.UNCOVER.charAt(0))
+            return Session.UNCOVER;
+        if (this.first == Session.CHORD.charAt(0))
+            return Session.CHORD;
+        return UNKNOWN_OPERATION;
+    }
+}
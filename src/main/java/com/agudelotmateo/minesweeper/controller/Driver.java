@@ -1,10 +1,15 @@
 package com.agudelotmateo.minesweeper.controller;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
-import javax.activity.InvalidActivityException;
-
+import com.agudelotmateo.minesweeper.metrics.Metrics;
 import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardRenderer;
 
 /**
  * Controls the execution of the game.
@@ -12,14 +17,34 @@ import com.agudelotmateo.minesweeper.model.Board;
  * @author Mateo Agudelo Toro
  */
 public class Driver {
+    // Size of the output buffer of batch mode
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+
+    private final boolean firstClickSafe;
     private Board gameboard;
+    private BoardRenderer renderer;
+    private int[] uncovered;
     private Scanner scanner;
 
     /**
-     * Creates a new game driver.
+     * Creates a new game driver, whose bombs are placed as soon as the board is
+     * created.
      */
     public Driver() {
+        this(false);
+    }
+
+    /**
+     * Creates a new game driver.
+     *
+     * @param firstClickSafe whether the board keeps its bombs away from the first
+     *                       cell uncovered
+     */
+    public Driver(boolean firstClickSafe) {
+        this.firstClickSafe = firstClickSafe;
         this.gameboard = null;
+        this.renderer = null;
+        this.uncovered = null;
         this.scanner = new Scanner(System.in);
     }
 
@@ -29,14 +54,47 @@ public class Driver {
      * @param exception the actual error
      */
     private void printError(Exception exception) {
-        System.out.println("Error: " + exception.getMessage() + ". Please try again:");
+        System.out.println(Session.errorMessage(exception));
+    }
+
+    /**
+     * Prints the current state of the gameboard.
+     */
+    private void printBoard() {
+        byte[] frame = this.renderer.render();
+        System.out.write(frame, 0, frame.length);
+        System.out.println();
+    }
+
+    /**
+     * Writes a line of text.
+     *
+     * @param out  where to write
+     * @param text the line's text
+     * @throws IOException if writing fails
+     */
+    private static void println(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+        out.write('\n');
+    }
+
+    /**
+     * Writes the current state of the gameboard followed by an empty line.
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    private void printBoard(OutputStream out) throws IOException {
+        byte[] frame = this.renderer.render();
+        out.write(frame, 0, frame.length);
+        out.write('\n');
     }
 
     /**
      * Welcomes the user to the new game session.
      */
     public void welcomeUser() {
-        System.out.println("Welcome to Minesweeper!");
+        System.out.println(Session.WELCOME);
     }
 
     /**
@@ -45,8 +103,7 @@ public class Driver {
      */
     public void createBoardFromStandardInput() {
         // Print the instructions to the user
-        System.out.println("Please input three space-separated numbers indicating the board's"
-                + " height, width and number of mines respectively: ");
+        System.out.println(Session.INSTRUCTIONS);
 
         // Keep reading until properly built
         while (gameboard == null) {
@@ -54,14 +111,17 @@ public class Driver {
             int columns = this.scanner.nextInt();
             int bombs = this.scanner.nextInt();
             try {
-                this.gameboard = new Board(rows, columns, bombs);
+                this.gameboard = this.firstClickSafe ? Board.firstClickSafe(rows, columns, bombs)
+                        : new Board(rows, columns, bombs);
             } catch (IllegalArgumentException e) {
                 printError(e);
             }
         }
 
         // Print the result
-        System.out.println(this.gameboard);
+        this.renderer = new BoardRenderer(this.gameboard);
+        this.uncovered = new int[this.gameboard.getRows() * this.gameboard.getColumns()];
+        printBoard();
     }
 
     /**
@@ -71,7 +131,7 @@ public class Driver {
         // Loop until game ends
         while (!this.gameboard.isGameOver()) {
             // Print current state and ask for new input
-            System.out.println("Enter command: ");
+            System.out.println(Session.PROMPT);
             int row = -1;
             int column = -1;
             String operation = null;
@@ -80,29 +140,14 @@ public class Driver {
                 column = this.scanner.nextInt() - 1;
                 operation = this.scanner.next();
             } catch (NumberFormatException e) {
-                System.out.println("Error: invalid coordinates. Please try again:");
+                System.out.println(Session.INVALID_COORDINATES);
             }
 
             // Perform the new action accordingly if valid
-            if (operation == null)
-                System.out.println("Error: invalid operation. Please try again:");
-            // Mark/Flag (toggle)
-            else if (operation.equals("M"))
-                try {
-                    this.gameboard.toggleCellFlag(row, column);
-                } catch (InvalidActivityException | IllegalArgumentException e) {
-                    printError(e);
-                }
-            // Uncover
-            else if (operation.equals("U"))
-                try {
-                    this.gameboard.uncoverCell(row, column);
-                } catch (InvalidActivityException | IllegalArgumentException e) {
-                    printError(e);
-                }
-            else
-                System.out.println("Invalid operation code. Please try again:");
-            System.out.println(this.gameboard);
+            String error = Session.apply(this.gameboard, row, column, operation, this.uncovered);
+            if (error != null)
+                System.out.println(error);
+            printBoard();
         }
 
         // Close user input
@@ -110,13 +155,86 @@ public class Driver {
     }
 
     /**
-     * Tells the user whether he won and says bye
+     * Plays a whole game from scripted input, for replays and other programs
+     * sending thousands of commands. The input is the same as in the interactive
+     * game: the board's specification followed by the commands. Commands are
+     * applied in order until the game ends or the input runs out, writing only
+     * their errors, the board every given amount of commands and at the end, and
+     * the farewell if the game ended. Prompts are not written.
+     *
+     * @param input       where to read the specification and the commands from
+     * @param output      where to write, flushed when done
+     * @param renderEvery amount of commands between boards, or 0 to only write the
+     *                    board at the end
+     * @return the amount of commands read
+     * @throws IOException if reading or writing fails
+     */
+    public long playBatch(InputStream input, OutputStream output, int renderEvery) throws IOException {
+        CommandReader reader = new CommandReader(input);
+        OutputStream out = new BufferedOutputStream(output, BATCH_BUFFER_SIZE);
+
+        // Keep reading until properly built
+        int[] specification = new int[3];
+        while (this.gameboard == null) {
+            for (int i = 0; i < specification.length; ++i) {
+                if (!reader.nextToken()) {
+                    out.flush();
+                    return 0;
+                }
+                specification[i] = reader.number();
+            }
+            try {
+                this.gameboard = this.firstClickSafe
+                        ? Board.firstClickSafe(specification[0], specification[1], specification[2])
+                        : new Board(specification[0], specification[1], specification[2]);
+            } catch (IllegalArgumentException e) {
+                println(out, Session.errorMessage(e));
+            }
+        }
+        this.renderer = new BoardRenderer(this.gameboard);
+        this.uncovered = new int[this.gameboard.getRows() * this.gameboard.getColumns()];
+
+        // Apply the commands, writing the board only every so often
+        long commands = 0;
+        int unrendered = 0;
+        while (!this.gameboard.isGameOver() && reader.nextToken()) {
+            int row = reader.number();
+            int column = reader.nextToken() ? reader.number() : CommandReader.NOT_A_NUMBER;
+            String operation = reader.nextToken() ? reader.operation() : null;
+            ++commands;
+            String error = row == CommandReader.NOT_A_NUMBER || column == CommandReader.NOT_A_NUMBER
+                    ? Session.INVALID_COORDINATES
+                    : Session.apply(this.gameboard, row - 1, column - 1, operation, this.uncovered);
+            if (error != null)
+                println(out, error);
+            if (++unrendered == renderEvery) {
+                printBoard(out);
+                unrendered = 0;
+            }
+        }
+        if (unrendered > 0 || commands == 0)
+            printBoard(out);
+
+        // Say bye if the game ended
+        if (this.gameboard.isGameOver()) {
+            println(out, this.gameboard.isGameWon() ? Session.WON : Session.LOST);
+            println(out, Session.THANKS);
+        }
+        out.flush();
+        return commands;
+    }
+
+    /**
+     * Tells the user whether he won and says bye, followed by the metrics if they
+     * are being collected
      */
     public void thankUser() {
         if (this.gameboard.isGameWon())
-            System.out.println("CONGRATULATIONS!!! You win!");
+            System.out.println(Session.WON);
         else
-            System.out.println("Well, you just lost...");
-        System.out.println("Thanks for playing Minesweeper! Please come back soon =)");
+            System.out.println(Session.LOST);
+        System.out.println(Session.THANKS);
+        if (Metrics.isEnabled())
+            System.out.print(Metrics.dump());
     }
 }
@@ -0,0 +1,205 @@
+package com.agudelotmateo.minesweeper.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardRenderer;
+
+/**
+ * Runs the game's text protocol for a single player, one input line at a time,
+ * without doing any I/O itself: every line produces the text the player should
+ * see next. The first line holds the board's height, width and number of mines,
+ * and every other line a command made of a row, a column and an operation code.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class Session {
+    // Operation codes
+    public static final String FLAG = "M";
+    public static final String UNCOVER = "U";
+    public static final String CHORD = "C";
+
+    // Messages shown to the player
+    public static final String WELCOME = "Welcome to Minesweeper!";
+    public static final String INSTRUCTIONS = "Please input three space-separated numbers indicating the board's"
+            + " height, width and number of mines respectively: ";
+    public static final String PROMPT = "Enter command: ";
+    public static final String INVALID_COORDINATES = "Error: invalid coordinates. Please try again:";
+    public static final String INVALID_OPERATION = "Error: invalid operation. Please try again:";
+    public static final String INVALID_OPERATION_CODE = "Invalid operation code. Please try again:";
+    public static final String WON = "CONGRATULATIONS!!! You win!";
+    public static final String LOST = "Well, you just lost...";
+    public static final String THANKS = "Thanks for playing Minesweeper! Please come back soon =)";
+
+    // Game state
+    private final boolean firstClickSafe;
+    private Board gameboard;
+    private BoardRenderer renderer;
+    private int[] uncovered;
+    private boolean finished;
+
+    /**
+     * Creates a new session waiting for the board's specification, whose bombs
+     * are placed as soon as the board is created.
+     */
+    public Session() {
+        this(false);
+    }
+
+    /**
+     * Creates a new session waiting for the board's specification.
+     *
+     * @param firstClickSafe whether the board keeps its bombs away from the first
+     *                       cell uncovered
+     */
+    public Session(boolean firstClickSafe) {
+        this.firstClickSafe = firstClickSafe;
+        this.gameboard = null;
+        this.renderer = null;
+        this.uncovered = null;
+        this.finished = false;
+    }
+
+    /**
+     * Builds the message shown when an operation fails.
+     *
+     * @param exception the actual error
+     * @return the message to show
+     */
+    static String errorMessage(Exception exception) {
+        return "Error: " + exception.getMessage() + ". Please try again:";
+    }
+
+    /**
+     * Applies a command to the board.
+     *
+     * @param board     the board to play on
+     * @param row       cell's row (y-value), zero-based
+     * @param column    cells's column (x-value), zero-based
+     * @param operation the operation code
+     * @param uncovered where moves write the cells they uncover, able to hold
+     *                  every cell of the board
+     * @return the error message to show, or null if the command was applied
+     */
+    static String apply(Board board, int row, int column, String operation, int[] uncovered) {
+        try {
+            if (operation == null)
+                return INVALID_OPERATION;
+            // Mark/Flag (toggle)
+            else if (operation.equals(FLAG))
+                board.toggleCellFlag(row, column);
+            // Uncover
+            else if (operation.equals(UNCOVER))
+                board.uncoverCell(row, column, uncovered);
+            // Chord (uncover the neighbours of a number with its flags placed)
+            else if (operation.equals(CHORD))
+                board.chordCell(row, column, uncovered);
+            else
+                return INVALID_OPERATION_CODE;
+        } catch (InvalidActivityException | IllegalArgumentException e) {
+            return errorMessage(e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes a line of text.
+     *
+     * @param out  where to write
+     * @param text the line's text
+     */
+    private static void println(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        out.write(bytes, 0, bytes.length);
+        out.write('\n');
+    }
+
+    /**
+     * Writes the current state of the board followed by an empty line.
+     *
+     * @param out where to write
+     */
+    private void printBoard(ByteArrayOutputStream out) {
+        byte[] frame = this.renderer.render();
+        out.write(frame, 0, frame.length);
+        out.write('\n');
+    }
+
+    /**
+     * Writes the greeting and the instructions to create the board.
+     *
+     * @param out where to write
+     */
+    public void start(ByteArrayOutputStream out) {
+        println(out, WELCOME);
+        println(out, INSTRUCTIONS);
+    }
+
+    /**
+     * Handles a line of input, writing the response. Once the game is over, the
+     * response ends with the farewell and the session is finished.
+     *
+     * @param line the line of input, without its terminator
+     * @param out  where to write the response
+     */
+    public void handleLine(String line, ByteArrayOutputStream out) {
+        // Nothing else to do after the game is over
+        if (this.finished)
+            return;
+
+        // Split the input into its (three) tokens
+        String[] tokens = line.trim().split("\\s+");
+        int[] numbers = new int[2];
+        for (int i = 0; i < 2; ++i)
+            try {
+                numbers[i] = tokens.length > i ? Integer.parseInt(tokens[i]) : -1;
+            } catch (NumberFormatException e) {
+                numbers[i] = -1;
+            }
+
+        // The first valid line creates the board
+        if (this.gameboard == null) {
+            try {
+                int bombs = tokens.length > 2 ? Integer.parseInt(tokens[2]) : 0;
+                this.gameboard = this.firstClickSafe ? Board.firstClickSafe(numbers[0], numbers[1], bombs)
+                        : new Board(numbers[0], numbers[1], bombs);
+            } catch (IllegalArgumentException e) {
+                println(out, errorMessage(e));
+                return;
+            }
+            this.renderer = new BoardRenderer(this.gameboard);
+            this.uncovered = new int[this.gameboard.getRows() * this.gameboard.getColumns()];
+            printBoard(out);
+            println(out, PROMPT);
+            return;
+        }
+
+        // Every other line is a command
+        String error = tokens.length < 3 ? INVALID_OPERATION
+                : apply(this.gameboard, numbers[0] - 1, numbers[1] - 1, tokens[2], this.uncovered);
+        if (error != null)
+            println(out, error);
+        printBoard(out);
+
+        // Either ask for the next command or say bye
+        if (!this.gameboard.isGameOver()) {
+            println(out, PROMPT);
+            return;
+        }
+        println(out, this.gameboard.isGameWon() ? WON : LOST);
+        println(out, THANKS);
+        this.finished = true;
+    }
+
+    /**
+     * Checks if the game is over and the farewell was already written.
+     *
+     * @return whether the session is finished
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+}
@@ -0,0 +1,698 @@
+package com.agudelotmateo.minesweeper.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardSnapshot;
+import com.agudelotmateo.minesweeper.model.Topology;
+
+/**
+ * Write-ahead journal of the moves of many games, so that games in progress
+ * survive crashes. Games are played through the journal, which checks every
+ * move, appends it to the log and only then applies it to the board.
+ * <p>
+ * The log is a directory of fixed-size segments, each one memory-mapped while
+ * it is appended to, holding fixed-width records of 16 bytes: the game's
+ * identifier as an {@code int} (never zero, so a zeroed record marks the end of
+ * the log), a word with the record's type in its lower three bits and the
+ * move's location (row * columns + column) or the board's specification above
+ * them, and a {@code long} holding the seed of new games. The identifier is
+ * written last, so a record torn by a crash reads as the end of the log. Every
+ * segment starts with a header record of its own.
+ * <p>
+ * Appending only writes to memory. A move is durable once the segment is forced
+ * to disk, which {@link #awaitDurable(long)} does with group commit: the first
+ * thread to wait forces everything appended so far, and the threads that arrive
+ * meanwhile wait for the next force, so a single force covers the moves of every
+ * thread that got in before it.
+ * <p>
+ * Every so many records, and whenever {@link #checkpoint()} is called, the
+ * journal saves the snapshots of every game in a checkpoint file and deletes the
+ * segments and checkpoints it no longer needs. Opening a journal restores the
+ * last checkpoint and replays the records appended after it.
+ * <p>
+ * Boards must be created from a seed, like {@link Board#Board(int, int, int, long)}
+ * or {@link Board#firstClickSafe(int, int, int, long)} do, so that replaying
+ * their records rebuilds them; boards created from explicit bomb locations are
+ * refused, and so are boards with any topology other than
+ * {@link Topology#grid(int, int)}. Safe to use from any thread, as long as every
+ * game is played through the journal only.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class GameJournal implements Closeable {
+    // Default configuration
+    public static final int DEFAULT_SEGMENT_BYTES = 16 << 20;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1 << 20;
+
+    // Record layout
+    private static final int RECORD_BYTES = 16;
+    private static final int WORD_OFFSET = Integer.BYTES;
+    private static final int PAYLOAD_OFFSET = 2 * Integer.BYTES;
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int UNCOVER = 0;
+    private static final int FLAG = 1;
+    private static final int START = 2;
+    private static final int END = 3;
+    private static final int CHORD = 4;
+
+    // Specification of new games, packed above the record's type
+    private static final int BOMBS_SHIFT = TYPE_BITS;
+    private static final int BOMBS_MASK = (1 << 14) - 1;
+    private static final int COLUMNS_SHIFT = 17;
+    private static final int ROWS_SHIFT = 24;
+    private static final int DIMENSION_MASK = (1 << 7) - 1;
+    private static final int FIRST_CLICK_SAFE = 1 << 31;
+
+    // Files
+    private static final int SEGMENT_MAGIC = 0x4D534A4C;
+    private static final int CHECKPOINT_MAGIC = 0x4D534350;
+    private static final int VERSION = 2;
+    private static final int CHECKPOINT_HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".snap";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    // IllegalArgumentException messages
+    private static final String INVALID_SEGMENT_BYTES = "segment size must be a multiple of 16 and hold two records";
+    private static final String INVALID_INTERVAL = "checkpoint interval must be positive";
+    private static final String UNKNOWN_GAME = "unknown game";
+    private static final String PLAYED_BOARD = "only boards that were not played yet can be journaled";
+    private static final String SEEDLESS_BOARD = "only boards placed from a seed can be journaled";
+    private static final String NOT_GRID = "only grid boards can be journaled";
+    private static final String INVALID_CELL = "invalid cell coordinates";
+
+    // Other messages
+    private static final String GAME_OVER = "game already finished";
+    private static final String CLOSED = "journal closed";
+    private static final String CORRUPT = "corrupt journal";
+
+    // Configuration
+    private final Path directory;
+    private final int segmentBytes;
+    private final int checkpointInterval;
+
+    // Games being played, by identifier
+    private final HashMap<Integer, Board> games;
+    private int nextGame;
+
+    // Where moves write the cells they uncover, grown for bigger boards
+    private int[] uncovered;
+
+    // Segment being appended to
+    private long segment;
+    private MappedByteBuffer buffer;
+    private long appended;
+    private long sinceCheckpoint;
+    private boolean closed;
+
+    // Group commit
+    private final ReentrantLock commitLock;
+    private final Condition committed;
+    private long durable;
+    private boolean forcing;
+
+    /**
+     * Opens the journal in the given directory with the default configuration,
+     * recovering the games it holds.
+     *
+     * @param directory where the journal's files are, created if needed
+     * @throws IOException if the files cannot be used or are corrupt
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Opens the journal in the given directory, recovering the games it holds
+     * from its last checkpoint and the records appended after it.
+     *
+     * @param directory          where the journal's files are, created if needed
+     * @param segmentBytes       size of new segments, a multiple of 16 bytes
+     *                           holding at least two records
+     * @param checkpointInterval amount of records appended between automatic
+     *                           checkpoints
+     * @throws IOException              if the files cannot be used or are
+     *                                  corrupt
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    public GameJournal(Path directory, int segmentBytes, int checkpointInterval) throws IOException {
+        // Check for input validity
+        if (segmentBytes < 2 * RECORD_BYTES || segmentBytes % RECORD_BYTES != 0)
+            throw new IllegalArgumentException(INVALID_SEGMENT_BYTES);
+        if (checkpointInterval <= 0)
+            throw new IllegalArgumentException(INVALID_INTERVAL);
+
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.checkpointInterval = checkpointInterval;
+        this.games = new HashMap<>();
+        this.nextGame = 1;
+        this.uncovered = new int[0];
+        this.appended = 0;
+        this.sinceCheckpoint = 0;
+        this.closed = false;
+        this.commitLock = new ReentrantLock();
+        this.committed = this.commitLock.newCondition();
+        this.durable = 0;
+        this.forcing = false;
+        recover();
+    }
+
+    /**
+     * Lists the indexes of the files with the given prefix and suffix, whose
+     * names carry a hexadecimal index in between.
+     *
+     * @param prefix files' prefix
+     * @param suffix files' suffix
+     * @return the indexes, in ascending order
+     * @throws IOException if the directory cannot be listed
+     */
+    private List<Long> list(String prefix, String suffix) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                indexes.add(Long.parseUnsignedLong(name.substring(prefix.length(), name.length() - suffix.length()),
+                        16));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException(CORRUPT, e);
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * Gets the path of a file with the given prefix, index and suffix.
+     *
+     * @param prefix file's prefix
+     * @param index  file's index
+     * @param suffix file's suffix
+     * @return the file's path
+     */
+    private Path path(String prefix, long index, String suffix) {
+        return this.directory.resolve(String.format("%s%016x%s", prefix, index, suffix));
+    }
+
+    /**
+     * Restores the last checkpoint, replays the records appended after it and
+     * gets ready to keep appending after the last one.
+     *
+     * @throws IOException if the files cannot be used or are corrupt
+     */
+    private void recover() throws IOException {
+        // Restore the last checkpoint, which tells where to start replaying
+        long segment = 0;
+        int offset = RECORD_BYTES;
+        List<Long> checkpoints = list(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        if (!checkpoints.isEmpty()) {
+            long position = checkpoints.get(checkpoints.size() - 1);
+            ByteBuffer checkpoint = ByteBuffer
+                    .wrap(Files.readAllBytes(path(CHECKPOINT_PREFIX, position, CHECKPOINT_SUFFIX)));
+            try {
+                if (checkpoint.getInt() != CHECKPOINT_MAGIC || checkpoint.getInt() != VERSION)
+                    throw new IOException(CORRUPT);
+                segment = checkpoint.getLong();
+                offset = checkpoint.getInt();
+                this.nextGame = checkpoint.getInt();
+                int count = checkpoint.getInt();
+                for (int i = 0; i < count; ++i)
+                    this.games.put(checkpoint.getInt(), BoardSnapshot.read(checkpoint));
+            } catch (RuntimeException e) {
+                throw new IOException(CORRUPT, e);
+            }
+        }
+
+        // Replay every segment from there on, keeping the last one to append to
+        List<Long> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); ++i) {
+            long index = segments.get(i);
+            if (index < segment)
+                continue;
+            boolean last = i == segments.size() - 1;
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path(SEGMENT_PREFIX, index, SEGMENT_SUFFIX),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            if (buffer.capacity() < RECORD_BYTES || buffer.capacity() % RECORD_BYTES != 0)
+                throw new IOException(CORRUPT);
+
+            // A segment created right before a crash may lack its header
+            if (buffer.getInt(0) == 0 && last)
+                writeHeader(buffer, index);
+            else if (buffer.getInt(0) != SEGMENT_MAGIC || buffer.getInt(WORD_OFFSET) != VERSION
+                    || buffer.getLong(PAYLOAD_OFFSET) != index)
+                throw new IOException(CORRUPT);
+
+            int position = index == segment ? offset : RECORD_BYTES;
+            while (position < buffer.capacity() && buffer.getInt(position) != 0) {
+                replay(buffer.getInt(position), buffer.getInt(position + WORD_OFFSET),
+                        buffer.getLong(position + PAYLOAD_OFFSET));
+                position += RECORD_BYTES;
+            }
+            if (last) {
+                buffer.position(position);
+                this.buffer = buffer;
+                this.segment = index;
+            }
+        }
+
+        // Start a new log if there was none left
+        if (this.buffer == null)
+            openSegment(segment);
+    }
+
+    /**
+     * Applies a record read back from the log.
+     *
+     * @param game    the game's identifier
+     * @param word    the record's type and data
+     * @param payload the record's payload
+     * @throws IOException if the record does not fit the games recovered so far
+     */
+    private void replay(int game, int word, long payload) throws IOException {
+        int type = word & TYPE_MASK;
+        if (type == START) {
+            int rows = word >>> ROWS_SHIFT & DIMENSION_MASK;
+            int columns = word >>> COLUMNS_SHIFT & DIMENSION_MASK;
+            int bombs = word >>> BOMBS_SHIFT & BOMBS_MASK;
+            try {
+                this.games.put(game, (word & FIRST_CLICK_SAFE) != 0
+                        ? Board.firstClickSafe(rows, columns, bombs, payload)
+                        : new Board(rows, columns, bombs, payload));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(CORRUPT, e);
+            }
+            this.nextGame = Math.max(this.nextGame, game + 1);
+            return;
+        }
+
+        Board board = this.games.get(game);
+        if (board == null)
+            throw new IOException(CORRUPT);
+        if (type == END) {
+            this.games.remove(game);
+            return;
+        }
+        int location = word >>> TYPE_BITS;
+        try {
+            if (type == FLAG)
+                board.toggleCellFlag(location / board.getColumns(), location % board.getColumns());
+            else if (type == CHORD)
+                board.chordCell(location / board.getColumns(), location % board.getColumns(), uncovered(board));
+            else if (type == UNCOVER)
+                board.uncoverCell(location / board.getColumns(), location % board.getColumns(), uncovered(board));
+            else
+                throw new IOException(CORRUPT);
+        } catch (InvalidActivityException | IllegalArgumentException e) {
+            throw new IOException(CORRUPT, e);
+        }
+    }
+
+    /**
+     * Writes the header record of a segment.
+     *
+     * @param buffer the segment
+     * @param index  the segment's index
+     */
+    private static void writeHeader(MappedByteBuffer buffer, long index) {
+        buffer.putInt(0, SEGMENT_MAGIC).putInt(WORD_OFFSET, VERSION).putLong(PAYLOAD_OFFSET, index);
+    }
+
+    /**
+     * Creates a new segment and starts appending to it.
+     *
+     * @param index the segment's index
+     * @throws IOException if the segment cannot be created
+     */
+    private void openSegment(long index) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(SEGMENT_PREFIX, index, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentBytes);
+            writeHeader(buffer, index);
+            buffer.position(RECORD_BYTES);
+            this.buffer = buffer;
+            this.segment = index;
+        }
+    }
+
+    /**
+     * Appends a record, moving on to a new segment when the current one is full.
+     * The caller must hold this journal's lock.
+     *
+     * @param game    the game's identifier
+     * @param word    the record's type and data
+     * @param payload the record's payload
+     * @return the record's ticket, to wait for it to be durable
+     * @throws IOException if a new segment cannot be created
+     */
+    private long append(int game, int word, long payload) throws IOException {
+        if (this.closed)
+            throw new IllegalStateException(CLOSED);
+
+        // Everything in a full segment is made durable before moving on, so that
+        // forcing the current segment covers every record appended so far
+        if (!this.buffer.hasRemaining()) {
+            this.buffer.force();
+            openSegment(this.segment + 1);
+        }
+
+        // The identifier goes last, so a torn record reads as the end of the log
+        int position = this.buffer.position();
+        this.buffer.putInt(position + WORD_OFFSET, word).putLong(position + PAYLOAD_OFFSET, payload);
+        this.buffer.putInt(position, game);
+        this.buffer.position(position + RECORD_BYTES);
+        ++this.sinceCheckpoint;
+        return ++this.appended;
+    }
+
+    /**
+     * Takes a checkpoint if enough records were appended since the last one. The
+     * caller must hold this journal's lock.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    private void checkpointIfDue() throws IOException {
+        if (this.sinceCheckpoint >= this.checkpointInterval)
+            checkpoint();
+    }
+
+    /**
+     * Gets a game being played.
+     *
+     * @param game the game's identifier
+     * @return the game's board
+     * @throws IllegalArgumentException if there is no such game
+     */
+    private Board game(int game) {
+        Board board = this.games.get(game);
+        if (board == null)
+            throw new IllegalArgumentException(UNKNOWN_GAME);
+        return board;
+    }
+
+    /**
+     * Starts journaling a new game. Call {@link #sync()} to make it durable.
+     *
+     * @param board the game's board, a grid created from a seed and not played
+     *              yet. It must only be played through this journal from now on
+     * @return the game's identifier
+     * @throws IOException              if a new segment or a checkpoint cannot
+     *                                  be written
+     * @throws IllegalArgumentException if the board is not a grid, was not
+     *                                  created from a seed or was already played
+     */
+    public synchronized int start(Board board) throws IOException {
+        // Check for input validity
+        if (board.getTopology().getKind() != Topology.Kind.GRID)
+            throw new IllegalArgumentException(NOT_GRID);
+        if (!board.isSeeded())
+            throw new IllegalArgumentException(SEEDLESS_BOARD);
+        if (board.isGameOver())
+            throw new IllegalArgumentException(PLAYED_BOARD);
+        for (int i = 0; i < board.getRows(); ++i)
+            for (int j = 0; j < board.getColumns(); ++j)
+                if (board.visibleCell(i, j) != Board.VISIBLE_COVERED)
+                    throw new IllegalArgumentException(PLAYED_BOARD);
+
+        int game = this.nextGame++;
+        append(game, (board.isFirstClickSafe() ? FIRST_CLICK_SAFE : 0) | board.getRows() << ROWS_SHIFT
+                | board.getColumns() << COLUMNS_SHIFT | board.getBombs() << BOMBS_SHIFT | START, board.getSeed());
+        this.games.put(game, board);
+        checkpointIfDue();
+        return game;
+    }
+
+    /**
+     * Uncovers a cell of a game, appending the move before applying it.
+     *
+     * @param game   the game's identifier
+     * @param row    cell's row (y-value)
+     * @param column cell's column (x-value)
+     * @return the move's ticket, to wait for it to be durable
+     * @throws InvalidActivityException if the game is already over
+     * @throws IOException              if a new segment or a checkpoint cannot
+     *                                  be written
+     * @throws IllegalArgumentException if there is no such game or cell
+     */
+    public synchronized long uncoverCell(int game, int row, int column) throws InvalidActivityException, IOException {
+        Board board = move(game, row, column);
+        long ticket = append(game, (row * board.getColumns() + column) << TYPE_BITS | UNCOVER, 0);
+        board.uncoverCell(row, column, uncovered(board));
+        checkpointIfDue();
+        return ticket;
+    }
+
+    /**
+     * Flags or unflags a cell of a game, appending the move before applying it.
+     *
+     * @param game   the game's identifier
+     * @param row    cell's row (y-value)
+     * @param column cell's column (x-value)
+     * @return the move's ticket, to wait for it to be durable
+     * @throws InvalidActivityException if the game is already over
+     * @throws IOException              if a new segment or a checkpoint cannot
+     *                                  be written
+     * @throws IllegalArgumentException if there is no such game or cell
+     */
+    public synchronized long toggleCellFlag(int game, int row, int column)
+            throws InvalidActivityException, IOException {
+        Board board = move(game, row, column);
+        long ticket = append(game, (row * board.getColumns() + column) << TYPE_BITS | FLAG, 0);
+        board.toggleCellFlag(row, column);
+        checkpointIfDue();
+        return ticket;
+    }
+
+    /**
+     * Chords a cell of a game, appending the move before applying it.
+     *
+     * @param game   the game's identifier
+     * @param row    cell's row (y-value)
+     * @param column cell's column (x-value)
+     * @return the move's ticket, to wait for it to be durable
+     * @throws InvalidActivityException if the game is already over
+     * @throws IOException              if a new segment or a checkpoint cannot
+     *                                  be written
+     * @throws IllegalArgumentException if there is no such game or cell
+     */
+    public synchronized long chordCell(int game, int row, int column) throws InvalidActivityException, IOException {
+        Board board = move(game, row, column);
+        long ticket = append(game, (row * board.getColumns() + column) << TYPE_BITS | CHORD, 0);
+        board.chordCell(row, column, uncovered(board));
+        checkpointIfDue();
+        return ticket;
+    }
+
+    /**
+     * Gets the buffer moves write the cells they uncover into, growing it if it
+     * cannot hold every cell of the given board.
+     *
+     * @param board the board the move is applied on
+     * @return a buffer able to hold every cell of the board
+     */
+    private int[] uncovered(Board board) {
+        int cells = board.getRows() * board.getColumns();
+        if (this.uncovered.length < cells)
+            this.uncovered = new int[cells];
+        return this.uncovered;
+    }
+
+    /**
+     * Checks that a move can be applied before it is appended.
+     *
+     * @param game   the game's identifier
+     * @param row    cell's row (y-value)
+     * @param column cell's column (x-value)
+     * @return the game's board
+     * @throws InvalidActivityException if the game is already over
+     * @throws IllegalArgumentException if there is no such game or cell
+     */
+    private Board move(int game, int row, int column) throws InvalidActivityException {
+        Board board = game(game);
+        if (board.isGameOver())
+            throw new InvalidActivityException(GAME_OVER);
+        if (row < 0 || column < 0 || row >= board.getRows() || column >= board.getColumns())
+            throw new IllegalArgumentException(INVALID_CELL);
+        return board;
+    }
+
+    /**
+     * Stops journaling a game, which will not be recovered anymore.
+     *
+     * @param game the game's identifier
+     * @return the record's ticket, to wait for it to be durable
+     * @throws IOException              if a new segment or a checkpoint cannot
+     *                                  be written
+     * @throws IllegalArgumentException if there is no such game
+     */
+    public synchronized long finish(int game) throws IOException {
+        game(game);
+        long ticket = append(game, END, 0);
+        this.games.remove(game);
+        checkpointIfDue();
+        return ticket;
+    }
+
+    /**
+     * Blocks until the record with the given ticket, and every one before it, is
+     * durable. Threads waiting at the same time share the forces to disk.
+     *
+     * @param ticket the record's ticket
+     */
+    public void awaitDurable(long ticket) {
+        this.commitLock.lock();
+        try {
+            while (this.durable < ticket) {
+                // Someone else is forcing: their force may already cover this record
+                if (this.forcing) {
+                    this.committed.awaitUninterruptibly();
+                    continue;
+                }
+
+                // Force everything appended so far on behalf of every waiting thread
+                this.forcing = true;
+                this.commitLock.unlock();
+                long forced = 0;
+                try {
+                    forced = force();
+                } finally {
+                    this.commitLock.lock();
+                    this.forcing = false;
+                    this.durable = Math.max(this.durable, forced);
+                    this.committed.signalAll();
+                }
+            }
+        } finally {
+            this.commitLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the segment being appended to, which holds every record that is not
+     * durable yet.
+     *
+     * @return the ticket of the last record forced
+     */
+    private long force() {
+        MappedByteBuffer buffer;
+        long appended;
+        synchronized (this) {
+            buffer = this.buffer;
+            appended = this.appended;
+        }
+        buffer.force();
+        return appended;
+    }
+
+    /**
+     * Blocks until every record appended so far is durable.
+     */
+    public void sync() {
+        long appended;
+        synchronized (this) {
+            appended = this.appended;
+        }
+        awaitDurable(appended);
+    }
+
+    /**
+     * Saves the snapshots of every game in a new checkpoint, then deletes the
+     * segments and checkpoints that recovery no longer needs.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (this.closed)
+            throw new IllegalStateException(CLOSED);
+
+        // Lay out the checkpoint
+        int size = CHECKPOINT_HEADER_BYTES;
+        for (Board board : this.games.values())
+            size += Integer.BYTES + BoardSnapshot.size(board);
+        ByteBuffer checkpoint = ByteBuffer.allocate(size);
+        checkpoint.putInt(CHECKPOINT_MAGIC).putInt(VERSION).putLong(this.segment).putInt(this.buffer.position());
+        checkpoint.putInt(this.nextGame).putInt(this.games.size());
+        for (Map.Entry<Integer, Board> game : this.games.entrySet()) {
+            checkpoint.putInt(game.getKey());
+            BoardSnapshot.write(game.getValue(), checkpoint);
+        }
+        checkpoint.flip();
+
+        // Write it durably under a temporary name, then move it in place at once
+        long position = this.segment << 32 | this.buffer.position();
+        Path path = path(CHECKPOINT_PREFIX, position, CHECKPOINT_SUFFIX);
+        Path temporary = path(CHECKPOINT_PREFIX, position, TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (checkpoint.hasRemaining())
+                channel.write(checkpoint);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.sinceCheckpoint = 0;
+
+        // Older files are not needed anymore
+        for (long older : list(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX))
+            if (older < position)
+                Files.deleteIfExists(path(CHECKPOINT_PREFIX, older, CHECKPOINT_SUFFIX));
+        for (long older : list(SEGMENT_PREFIX, SEGMENT_SUFFIX))
+            if (older < this.segment)
+                Files.deleteIfExists(path(SEGMENT_PREFIX, older, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Gets a game being played, to look at it. It must only be played through
+     * this journal.
+     *
+     * @param game the game's identifier
+     * @return the game's board, or null if there is no such game
+     */
+    public synchronized Board getGame(int game) {
+        return this.games.get(game);
+    }
+
+    /**
+     * Gets every game being played, to look at them. They must only be played
+     * through this journal.
+     *
+     * @return the games' boards, by identifier
+     */
+    public synchronized Map<Integer, Board> getGames() {
+        return new HashMap<>(this.games);
+    }
+
+    /**
+     * Makes every record appended so far durable and stops appending.
+     */
+    @Override
+    public void close() {
+        sync();
+        synchronized (this) {
+            this.closed = true;
+        }
+    }
+}
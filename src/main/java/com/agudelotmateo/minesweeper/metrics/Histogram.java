@@ -0,0 +1,169 @@
+package com.agudelotmateo.minesweeper.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many recorded values fall in every bucket of a log-linear scale, as
+ * HdrHistogram does: values below 64 get a bucket each, and every power of two
+ * above is split into 32 buckets, so any value is known within about 3% with a
+ * fixed amount of memory (under 16 KiB) for the whole range of {@code long}.
+ * Recording is a few shifts and atomic increments and never allocates. Safe to
+ * use from any thread; reads taken while values are being recorded may be off by
+ * the values in flight.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class Histogram implements HistogramMXBean {
+    // Scale: 2^SUB_BUCKET_BITS buckets per power of two, exact below twice that
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_BOUND = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + SUB_BUCKETS;
+
+    // IllegalArgumentException messages
+    private static final String BAD_PERCENTILE = "percentile must be between 0 and 100";
+
+    // Recorded values
+    private final String unit;
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final AtomicLong max;
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param unit unit of the recorded values, as shown in dumps
+     */
+    public Histogram(String unit) {
+        this.unit = unit;
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value the value, not negative
+     * @return the index of its bucket
+     */
+    private static int bucketOf(long value) {
+        if (value < EXACT_BOUND)
+            return (int) value;
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the largest value that falls in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return its largest value
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < EXACT_BOUND)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.count.increment();
+        this.total.add(value);
+        long max = this.max.get();
+        while (value > max && !this.max.compareAndSet(max, value))
+            max = this.max.get();
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values fall,
+     * rounded up to the largest value of its bucket.
+     *
+     * @param percentile the percentage, between 0 and 100
+     * @return the value at the percentile, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException(BAD_PERCENTILE);
+
+        // Walk the buckets until enough values are behind
+        long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; ++i)
+            recorded += counts[i] = this.buckets.get(i);
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(highestValueOf(i), this.max.get());
+        }
+        return 0;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i)
+            this.buckets.set(i, 0);
+        this.count.reset();
+        this.total.reset();
+        this.max.set(0);
+    }
+
+    @Override
+    public String getUnit() {
+        return this.unit;
+    }
+
+    @Override
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    @Override
+    public double getMean() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : (double) this.total.sum() / count;
+    }
+
+    @Override
+    public long getMax() {
+        return this.max.get();
+    }
+
+    @Override
+    public long getMedian() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long get90thPercentile() {
+        return getValueAtPercentile(90);
+    }
+
+    @Override
+    public long get99thPercentile() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long get999thPercentile() {
+        return getValueAtPercentile(99.9);
+    }
+}
@@ -0,0 +1,65 @@
+package com.agudelotmateo.minesweeper.metrics;
+
+/**
+ * Management view of a histogram, as shown by JMX consoles.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public interface HistogramMXBean {
+
+    /**
+     * Gets the unit of the recorded values.
+     *
+     * @return the unit of the recorded values
+     */
+    String getUnit();
+
+    /**
+     * Gets the amount of recorded values.
+     *
+     * @return the amount of recorded values
+     */
+    long getCount();
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    double getMean();
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return the largest recorded value, or 0 if nothing was recorded
+     */
+    long getMax();
+
+    /**
+     * Gets the median of the recorded values.
+     *
+     * @return the 50th percentile
+     */
+    long getMedian();
+
+    /**
+     * Gets the 90th percentile of the recorded values.
+     *
+     * @return the 90th percentile
+     */
+    long get90thPercentile();
+
+    /**
+     * Gets the 99th percentile of the recorded values.
+     *
+     * @return the 99th percentile
+     */
+    long get99thPercentile();
+
+    /**
+     * Gets the 99.9th percentile of the recorded values.
+     *
+     * @return the 99.9th percentile
+     */
+    long get999thPercentile();
+}
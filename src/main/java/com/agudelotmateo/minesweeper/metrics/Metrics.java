@@ -0,0 +1,298 @@
+package com.agudelotmateo.minesweeper.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Collects how long the game's operations take and how games go: latency
+ * histograms of board creation, uncovering, flagging and rendering, the sizes of
+ * the flood fills, and the amount of games created, won and lost. Everything can
+ * be read through JMX, once {@link #register()} is called, or as plain text
+ * through {@link #dump()}.
+ * <p>
+ * Collection is off unless the {@value #PROPERTY} system property is
+ * {@code true}, and can be switched at any time. While off, every operation only
+ * reads a volatile flag. Operations are timed as
+ * {@code long start = Metrics.start(); ...; Metrics.recordUncover(start);}, so
+ * that switching in the middle of one does not record a bogus latency.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public final class Metrics {
+    // Where the metrics are registered
+    public static final String DOMAIN = "com.agudelotmateo.minesweeper";
+    public static final String PROPERTY = "minesweeper.metrics";
+
+    // Start time of operations that are not timed
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    // Latencies, in nanoseconds
+    public static final Histogram CREATE = new Histogram("ns");
+    public static final Histogram UNCOVER = new Histogram("ns");
+    public static final Histogram FLAG = new Histogram("ns");
+    public static final Histogram RENDER = new Histogram("ns");
+
+    // Cells uncovered by every flood fill
+    public static final Histogram FLOOD_FILL = new Histogram("cells");
+
+    // Names and histograms, in the order they are dumped
+    private static final String[] NAMES = { "create", "uncover", "flag", "render", "flood fill" };
+    private static final Histogram[] HISTOGRAMS = { CREATE, UNCOVER, FLAG, RENDER, FLOOD_FILL };
+
+    // Games
+    private static final LongAdder GAMES_CREATED = new LongAdder();
+    private static final LongAdder GAMES_WON = new LongAdder();
+    private static final LongAdder GAMES_LOST = new LongAdder();
+
+    private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    /**
+     * Management view of the metrics.
+     */
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getGamesCreated() {
+            return Metrics.getGamesCreated();
+        }
+
+        @Override
+        public long getGamesWon() {
+            return Metrics.getGamesWon();
+        }
+
+        @Override
+        public long getGamesLost() {
+            return Metrics.getGamesLost();
+        }
+
+        @Override
+        public String dump() {
+            return Metrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+
+    // Does not make sense to instantiate this class
+    private Metrics() { }
+
+    /**
+     * Checks if metrics are being collected.
+     *
+     * @return whether metrics are being collected
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops collecting metrics.
+     *
+     * @param enabled whether to collect metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return the start time to pass to the matching record method
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the creation of a game, whether a new board or a reset one.
+     *
+     * @param start what {@link #start()} returned before creating it
+     */
+    public static void recordCreate(long start) {
+        if (start == NOT_TIMED)
+            return;
+        CREATE.record(System.nanoTime() - start);
+        GAMES_CREATED.increment();
+    }
+
+    /**
+     * Records an uncover move.
+     *
+     * @param start what {@link #start()} returned before the move
+     */
+    public static void recordUncover(long start) {
+        if (start != NOT_TIMED)
+            UNCOVER.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records a flag move.
+     *
+     * @param start what {@link #start()} returned before the move
+     */
+    public static void recordFlag(long start) {
+        if (start != NOT_TIMED)
+            FLAG.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the rendering of a board.
+     *
+     * @param start what {@link #start()} returned before rendering
+     */
+    public static void recordRender(long start) {
+        if (start != NOT_TIMED)
+            RENDER.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the size of a flood fill.
+     *
+     * @param cells amount of cells it uncovered
+     */
+    public static void recordFloodFill(int cells) {
+        if (enabled)
+            FLOOD_FILL.record(cells);
+    }
+
+    /**
+     * Records the end of a game.
+     *
+     * @param won whether the game was won
+     */
+    public static void recordGameEnded(boolean won) {
+        if (enabled)
+            (won ? GAMES_WON : GAMES_LOST).increment();
+    }
+
+    /**
+     * Gets the amount of games created, boards reset for a new game included.
+     *
+     * @return the amount of games created
+     */
+    public static long getGamesCreated() {
+        return GAMES_CREATED.sum();
+    }
+
+    /**
+     * Gets the amount of games won.
+     *
+     * @return the amount of games won
+     */
+    public static long getGamesWon() {
+        return GAMES_WON.sum();
+    }
+
+    /**
+     * Gets the amount of games lost.
+     *
+     * @return the amount of games lost
+     */
+    public static long getGamesLost() {
+        return GAMES_LOST.sum();
+    }
+
+    /**
+     * Forgets everything collected so far.
+     */
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS)
+            histogram.reset();
+        GAMES_CREATED.reset();
+        GAMES_WON.reset();
+        GAMES_LOST.reset();
+    }
+
+    /**
+     * Gets every metric as plain text: a line with the games, then a line per
+     * histogram with its count, mean, percentiles and maximum.
+     *
+     * @return the text dump
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("metrics %s, games created %d, won %d, lost %d%n", enabled ? "enabled" : "disabled",
+                getGamesCreated(), getGamesWon(), getGamesLost()));
+        text.append(String.format("%-10s %6s %10s %12s %10s %10s %10s %10s %10s%n", "operation", "unit", "count",
+                "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (int i = 0; i < HISTOGRAMS.length; ++i) {
+            Histogram histogram = HISTOGRAMS[i];
+            text.append(String.format("%-10s %6s %10d %12.1f %10d %10d %10d %10d %10d%n", NAMES[i],
+                    histogram.getUnit(), histogram.getCount(), histogram.getMean(), histogram.getMedian(),
+                    histogram.get90thPercentile(), histogram.get99thPercentile(), histogram.get999thPercentile(),
+                    histogram.getMax()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Builds a name in the domain of the game.
+     *
+     * @param properties the name's key properties
+     * @return the name
+     */
+    private static ObjectName objectName(String properties) {
+        try {
+            return new ObjectName(DOMAIN + ":" + properties);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Gets the name the metrics are registered under in JMX.
+     *
+     * @return the name of the metrics' bean
+     */
+    public static ObjectName objectName() {
+        return objectName("type=Metrics");
+    }
+
+    /**
+     * Gets the name a histogram is registered under in JMX.
+     *
+     * @param name the histogram's name, as shown in dumps
+     * @return the name of the histogram's bean
+     */
+    public static ObjectName histogramName(String name) {
+        return objectName("type=Histogram,name=" + name);
+    }
+
+    /**
+     * Registers the metrics and every histogram with the platform's MBean server,
+     * unless already there.
+     *
+     * @throws IllegalStateException if the server refuses them
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new Bean(), objectName());
+            for (int i = 0; i < HISTOGRAMS.length; ++i)
+                server.registerMBean(HISTOGRAMS[i], histogramName(NAMES[i]));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered before
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.agudelotmateo.minesweeper.metrics;
+
+/**
+ * Management view of the game's metrics, as shown by JMX consoles. The
+ * histograms of every operation are registered as beans of their own.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Checks if metrics are being collected.
+     *
+     * @return whether metrics are being collected
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops collecting metrics.
+     *
+     * @param enabled whether to collect metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets the amount of games created, boards reset for a new game included.
+     *
+     * @return the amount of games created
+     */
+    long getGamesCreated();
+
+    /**
+     * Gets the amount of games won.
+     *
+     * @return the amount of games won
+     */
+    long getGamesWon();
+
+    /**
+     * Gets the amount of games lost.
+     *
+     * @return the amount of games lost
+     */
+    long getGamesLost();
+
+    /**
+     * Gets every metric as plain text.
+     *
+     * @return the text dump
+     */
+    String dump();
+
+    /**
+     * Forgets everything collected so far.
+     */
+    void reset();
+}
@@ -1,10 +1,12 @@
 package com.agudelotmateo.minesweeper.model;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.activity.InvalidActivityException;
 
+import com.agudelotmateo.minesweeper.metrics.Metrics;
 import com.agudelotmateo.minesweeper.util.Random;
 
 /**
@@ -17,6 +19,12 @@ public class Board {
     public static final int MAX_ROWS_EXCLUSIVE = 100;
     public static final int MAX_COLUMNS_EXCLUSIVE = 100;
 
+    // Cell states as seen by the player, besides the adjacent counters (0 to 8)
+    // of uncovered cells
+    public static final int VISIBLE_COVERED = -1;
+    public static final int VISIBLE_FLAGGED = -2;
+    public static final int VISIBLE_BOMB = -3;
+
     // IllegalArgumentException messages
     private static final String TOO_FEW_ROWS = "rows must be positive";
     private static final String TOO_FEW_COLUMNS = "columns must be positive";
@@ -25,21 +33,41 @@ public class Board {
     private static final String TOO_MANY_COLUMNS = "columns must be less than 100";
     private static final String TOO_MANY_BOMBS = "bombs cannot be greater than the total number of cells";
     private static final String INVALID_CELL = "invalid cell coordinates";
+    private static final String REPEATED_BOMB = "bomb locations must be unique";
+    private static final String SMALL_BUFFER = "buffer cannot hold every cell";
     private static final String GAME_OVER = "game already finished";
 
-    // Define the valid displacements
-    private static final int NUMBER_OF_DISPLACEMENTS = 8;
-    private static final int[] ROW_DISPLACEMENTS = { -1, -1, -1, 0, 0, 1, 1, 1 };
-    private static final int[] COLUMN_DISPLACEMENTS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+    // Returned when a move does not uncover anything
+    private static final int[] NO_CELLS = {};
+
+    // Packed cell layout: one byte per cell holding the adjacent counter in the
+    // lower nibble and the cell's flags in the upper bits. A zeroed byte is a
+    // covered, non-flagged and bomb-free cell with no adjacent bombs
+    static final int COUNT_MASK = 0x0F;
+    static final int BOMB = 0x10;
+    static final int FLAGGED = 0x20;
+    static final int UNCOVERED = 0x40;
 
     // Board state
-    private Cell[][] cells;
+    private byte[] cells;
     private int rows;
     private int columns;
+    private int bombs;
+    private long seed;
+    private boolean seeded;
+    private boolean firstClickSafe;
+    private boolean bombsPlaced;
     private boolean gameOver;
     private boolean gameWon;
-    private Set<Integer> bombLocations;
-    private Set<Integer> flaggedLocations;
+    private int correctFlags;
+    private int wrongFlags;
+    private int coveredSafeCells;
+    private int[] queue;
+    private int[] excluded;
+    private BoardListener[] listeners;
+    private int[] states;
+    private BoardRenderer renderer;
+    private Topology topology;
 
     /**
      * Creates a new game board given the exact specifications.
@@ -54,7 +82,276 @@ public class Board {
      *                                  followed
      */
     public Board(int rows, int columns, int bombs) {
-        // Check for input validity (no upper bound for rows/columns right now)
+        this(rows, columns, bombs, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a new game board given the exact specifications, placing the bombs
+     * from the given seed. Boards created with the same specifications and seed
+     * are identical.
+     * 
+     * @param rows    board's height. Must be positive, and no upper limit is
+     *                enforced
+     * @param columns board's width. Must be positive, and no upper limit is
+     *                enforced
+     * @param bombs   amount of bombs to randomly place on the board. Must be
+     *                positive and fit in the board
+     * @param seed    seed the bomb locations are generated from
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public Board(int rows, int columns, int bombs, long seed) {
+        this(rows, columns, bombs, seed, false);
+    }
+
+    /**
+     * Creates a new game board given the exact specifications, either placing the
+     * bombs right away or waiting for the first cell to be uncovered.
+     * 
+     * @param rows           board's height
+     * @param columns        board's width
+     * @param bombs          amount of bombs to randomly place on the board
+     * @param seed           seed the bomb locations are generated from
+     * @param firstClickSafe whether to delay placing the bombs until the first
+     *                       cell is uncovered, keeping them away from it
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    private Board(int rows, int columns, int bombs, long seed, boolean firstClickSafe) {
+        this(null, rows, columns, bombs, seed, firstClickSafe);
+    }
+
+    /**
+     * Creates a new game board given the exact specifications and the way its
+     * cells touch each other.
+     * 
+     * @param topology       the board's topology, or null for the classic grid
+     * @param rows           board's height
+     * @param columns        board's width
+     * @param bombs          amount of bombs to randomly place on the board
+     * @param seed           seed the bomb locations are generated from
+     * @param firstClickSafe whether to delay placing the bombs until the first
+     *                       cell is uncovered, keeping them away from it
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    private Board(Topology topology, int rows, int columns, int bombs, long seed, boolean firstClickSafe) {
+        this.topology = topology;
+        this.firstClickSafe = firstClickSafe;
+        reset(rows, columns, bombs, seed);
+    }
+
+    /**
+     * Creates a new game board with the given topology, e.g. one wrapping around
+     * the edges, and shape.
+     * 
+     * @param topology the board's topology, whose shape must be less than
+     *                 {@link #MAX_ROWS_EXCLUSIVE} by {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs    amount of bombs to randomly place on the board. Must be
+     *                 positive and fit in the board
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public Board(Topology topology, int bombs) {
+        this(topology, bombs, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a new game board with the given topology and shape, placing the
+     * bombs from the given seed.
+     * 
+     * @param topology the board's topology, whose shape must be less than
+     *                 {@link #MAX_ROWS_EXCLUSIVE} by {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs    amount of bombs to randomly place on the board. Must be
+     *                 positive and fit in the board
+     * @param seed     seed the bomb locations are generated from
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public Board(Topology topology, int bombs, long seed) {
+        this(topology, topology.getRows(), topology.getColumns(), bombs, seed, false);
+    }
+
+    /**
+     * Creates a new game board whose first uncovered cell is guaranteed to be
+     * safe. The bombs are only placed once the first cell is uncovered, away from
+     * it and its neighbours, so creating the board is almost free.
+     * 
+     * @param rows    board's height. Must be positive and less than
+     *                {@link #MAX_ROWS_EXCLUSIVE}
+     * @param columns board's width. Must be positive and less than
+     *                {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs   amount of bombs to randomly place on the board. Must be
+     *                positive and fit in the board
+     * @return the new board
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public static Board firstClickSafe(int rows, int columns, int bombs) {
+        return firstClickSafe(rows, columns, bombs, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a new game board whose first uncovered cell is guaranteed to be
+     * safe, placing the bombs from the given seed. Boards created with the same
+     * specifications and seed are identical once the same first cell is
+     * uncovered.
+     * 
+     * @param rows    board's height. Must be positive and less than
+     *                {@link #MAX_ROWS_EXCLUSIVE}
+     * @param columns board's width. Must be positive and less than
+     *                {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs   amount of bombs to randomly place on the board. Must be
+     *                positive and fit in the board
+     * @param seed    seed the bomb locations are generated from
+     * @return the new board
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public static Board firstClickSafe(int rows, int columns, int bombs, long seed) {
+        return new Board(rows, columns, bombs, seed, true);
+    }
+
+    /**
+     * Creates a new game board with the given topology and shape whose first
+     * uncovered cell is guaranteed to be safe, like
+     * {@link #firstClickSafe(int, int, int, long)}.
+     * 
+     * @param topology the board's topology, whose shape must be less than
+     *                 {@link #MAX_ROWS_EXCLUSIVE} by {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs    amount of bombs to randomly place on the board. Must be
+     *                 positive and fit in the board
+     * @param seed     seed the bomb locations are generated from
+     * @return the new board
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public static Board firstClickSafe(Topology topology, int bombs, long seed) {
+        return new Board(topology, topology.getRows(), topology.getColumns(), bombs, seed, true);
+    }
+
+    /**
+     * Starts a new game on this board with the given specifications, keeping
+     * whether the first click is safe and the kind of topology. The storage of
+     * the previous game is reused when the amount of cells does not change, so a
+     * board can be recycled across games without allocating.
+     * 
+     * @param rows    board's height. Must be positive and less than
+     *                {@link #MAX_ROWS_EXCLUSIVE}
+     * @param columns board's width. Must be positive and less than
+     *                {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs   amount of bombs to randomly place on the board. Must be
+     *                positive and fit in the board
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public void reset(int rows, int columns, int bombs) {
+        reset(rows, columns, bombs, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Starts a new game on this board with the given specifications, placing the
+     * bombs from the given seed and keeping whether the first click is safe and
+     * the kind of topology. The storage of the previous game is reused when the
+     * amount of cells does not change. The result is identical to a new board
+     * created with the same specifications and seed.
+     * 
+     * @param rows    board's height. Must be positive and less than
+     *                {@link #MAX_ROWS_EXCLUSIVE}
+     * @param columns board's width. Must be positive and less than
+     *                {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombs   amount of bombs to randomly place on the board. Must be
+     *                positive and fit in the board
+     * @param seed    seed the bomb locations are generated from
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public void reset(int rows, int columns, int bombs, long seed) {
+        long start = Metrics.start();
+        prepare(rows, columns, bombs, seed);
+
+        // Unless waiting for the first click, place the bombs right away
+        if (!this.firstClickSafe)
+            placeBombs(-1);
+        Metrics.recordCreate(start);
+    }
+
+    /**
+     * Creates an empty board, for a saved game to be restored into.
+     */
+    Board() {
+    }
+
+    /**
+     * Restores a saved game on this board, reusing its storage like
+     * {@link #reset(int, int, int, long)}. The board is left without any bomb,
+     * flag or uncovered cell, which are restored afterwards one cell at a time
+     * through {@link #restoreCell(int, boolean, boolean, boolean)}.
+     * 
+     * @param rows           board's height
+     * @param columns        board's width
+     * @param bombs          amount of bombs in the board
+     * @param seed           seed the bomb locations were generated from
+     * @param seeded         whether the bombs were placed from the seed
+     * @param firstClickSafe whether the bombs are kept away from the first
+     *                       uncovered cell
+     * @param bombsPlaced    whether the bombs were already placed
+     * @param gameOver       whether the game already finished
+     * @param gameWon        whether the game was won
+     * @throws IllegalArgumentException if the board's specification is invalid
+     */
+    void restore(int rows, int columns, int bombs, long seed, boolean seeded, boolean firstClickSafe,
+            boolean bombsPlaced, boolean gameOver, boolean gameWon) {
+        // Snapshots only hold grids
+        this.topology = null;
+        prepare(rows, columns, bombs, seed);
+        this.seeded = seeded;
+        this.firstClickSafe = firstClickSafe;
+        this.bombsPlaced = bombsPlaced;
+        this.gameOver = gameOver;
+        this.gameWon = gameWon;
+    }
+
+    /**
+     * Restores a cell of a saved game, counting its bomb and flag like playing
+     * would have.
+     * 
+     * @param location  the cell's location (row * columns + column)
+     * @param bomb      whether the cell holds a bomb
+     * @param flagged   whether the cell is flagged
+     * @param uncovered whether the cell is uncovered
+     */
+    void restoreCell(int location, boolean bomb, boolean flagged, boolean uncovered) {
+        if (bomb)
+            placeBomb(location);
+        if (flagged) {
+            this.cells[location] |= FLAGGED;
+            if (bomb)
+                ++this.correctFlags;
+            else
+                ++this.wrongFlags;
+        }
+        if (uncovered) {
+            this.cells[location] |= UNCOVERED;
+            if (!bomb)
+                --this.coveredSafeCells;
+        }
+    }
+
+    /**
+     * Checks the specification of a new game, then gets this board ready for it
+     * without placing any bomb. The cells and the work queue are reused if they
+     * still fit exactly, and the renderer's frame and the topology if the
+     * dimensions did not change.
+     * 
+     * @param rows    board's height
+     * @param columns board's width
+     * @param bombs   amount of bombs in the board
+     * @param seed    seed the bomb locations are generated from
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    private void prepare(int rows, int columns, int bombs, long seed) {
+        // Check for input validity
         if (rows <= 0)
             throw new IllegalArgumentException(TOO_FEW_ROWS);
         if (columns <= 0)
@@ -68,19 +365,121 @@ public class Board {
         if (bombs > rows * columns)
             throw new IllegalArgumentException(TOO_MANY_BOMBS);
 
-        // Generate bomb locations in the board randomly and populate accordingly
-        this.bombLocations = Random.nUniqueIntsInRange(bombs, 0, rows * columns);
-        this.cells = new Cell[rows][columns];
-        for (int i = 0; i < rows; ++i)
-            for (int j = 0; j < columns; ++j)
-                this.cells[i][j] = new Cell(this.bombLocations.contains(i * columns + j));
+        // Reuse the storage of the previous game if possible
+        if (this.cells == null || this.cells.length != rows * columns) {
+            this.cells = new byte[rows * columns];
+            this.queue = null;
+        } else
+            Arrays.fill(this.cells, (byte) 0);
+        if (rows != this.rows || columns != this.columns)
+            this.renderer = null;
+        this.topology = this.topology == null ? Topology.grid(rows, columns) : this.topology.withShape(rows, columns);
 
         // Initialize board state
         this.rows = rows;
         this.columns = columns;
+        this.bombs = bombs;
+        this.seed = seed;
+        this.seeded = true;
+        this.bombsPlaced = false;
         this.gameOver = false;
         this.gameWon = false;
-        this.flaggedLocations = new HashSet<>();
+        this.correctFlags = 0;
+        this.wrongFlags = 0;
+        this.coveredSafeCells = rows * columns - bombs;
+    }
+
+    /**
+     * Creates a new game board with bombs at the given locations, for layouts
+     * that are not purely random (e.g. the ones guaranteed to be solvable without
+     * guessing). Such boards cannot be regenerated from a seed, so their seed is
+     * always 0 and they are not {@link #isSeeded() seeded}.
+     * 
+     * @param rows          board's height. Must be positive and less than
+     *                      {@link #MAX_ROWS_EXCLUSIVE}
+     * @param columns       board's width. Must be positive and less than
+     *                      {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombLocations the unique locations (row * columns + column) of the
+     *                      bombs. There must be at least one
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public Board(int rows, int columns, int[] bombLocations) {
+        this(grid(rows, columns), bombLocations);
+    }
+
+    /**
+     * Creates a new game board with the given topology and shape, and bombs at
+     * the given locations, like {@link #Board(int, int, int[])}.
+     * 
+     * @param topology      the board's topology, whose shape must be less than
+     *                      {@link #MAX_ROWS_EXCLUSIVE} by
+     *                      {@link #MAX_COLUMNS_EXCLUSIVE}
+     * @param bombLocations the unique locations (row * columns + column) of the
+     *                      bombs. There must be at least one
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public Board(Topology topology, int[] bombLocations) {
+        // Check for input validity
+        int rows = topology.getRows();
+        int columns = topology.getColumns();
+        if (bombLocations.length <= 0)
+            throw new IllegalArgumentException(TOO_FEW_BOMBS);
+        if (rows >= MAX_ROWS_EXCLUSIVE)
+            throw new IllegalArgumentException(TOO_MANY_ROWS);
+        if (columns >= MAX_COLUMNS_EXCLUSIVE)
+            throw new IllegalArgumentException(TOO_MANY_COLUMNS);
+        if (bombLocations.length > rows * columns)
+            throw new IllegalArgumentException(TOO_MANY_BOMBS);
+        long start = Metrics.start();
+
+        // Initialize board state
+        this.topology = topology;
+        this.cells = new byte[rows * columns];
+        this.rows = rows;
+        this.columns = columns;
+        this.bombs = bombLocations.length;
+        this.seed = 0;
+        this.seeded = false;
+        this.firstClickSafe = false;
+        this.bombsPlaced = true;
+        this.gameOver = false;
+        this.gameWon = false;
+        this.correctFlags = 0;
+        this.wrongFlags = 0;
+        this.coveredSafeCells = rows * columns - this.bombs;
+
+        // Populate the given locations
+        for (int bomb1D : bombLocations) {
+            if (bomb1D < 0 || bomb1D >= this.cells.length)
+                throw new IllegalArgumentException(INVALID_CELL);
+            if ((this.cells[bomb1D] & BOMB) != 0)
+                throw new IllegalArgumentException(REPEATED_BOMB);
+            placeBomb(bomb1D);
+        }
+        Metrics.recordCreate(start);
+    }
+
+    /**
+     * Gets the classic topology of a shape, checking the shape first so that no
+     * table is built for boards that cannot exist.
+     * 
+     * @param rows    board's height
+     * @param columns board's width
+     * @return the shared grid topology of that shape
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    private static Topology grid(int rows, int columns) {
+        if (rows <= 0)
+            throw new IllegalArgumentException(TOO_FEW_ROWS);
+        if (columns <= 0)
+            throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+        if (rows >= MAX_ROWS_EXCLUSIVE)
+            throw new IllegalArgumentException(TOO_MANY_ROWS);
+        if (columns >= MAX_COLUMNS_EXCLUSIVE)
+            throw new IllegalArgumentException(TOO_MANY_COLUMNS);
+        return Topology.grid(rows, columns);
     }
 
     /**
@@ -91,51 +490,218 @@ public class Board {
      * @return whether the given position is valid
      */
     private boolean validPosition(int row, int column) {
-        return row >= 0 && column >= 0 && row < this.cells.length && column < this.cells[row].length;
+        return row >= 0 && column >= 0 && row < this.rows && column < this.columns;
     }
 
     /**
-     * Counts the number of bombs adjacent to the cell at the position specified by
-     * the given coordinates (row, column).
+     * Gets the packed state of the cell at the position specified by the given
+     * coordinates (row, column).
      * 
      * @param row    cell's row (y-value)
      * @param column cells's column (x-value)
-     * @return the amount of adjacent cells that contain bombs.
-     */
-    private int countAdjacentBombs(int row, int column) {
-        // Iterate throught all of the valid possibilities
-        int counter = 0;
-        for (int i = 0; i < NUMBER_OF_DISPLACEMENTS; ++i) {
-            int tmpRow = row + ROW_DISPLACEMENTS[i];
-            int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
-            if (validPosition(tmpRow, tmpColumn) && this.cells[tmpRow][tmpColumn].hasBomb())
-                ++counter;
+     * @return the packed state of the cell
+     */
+    int cellAt(int row, int column) {
+        return this.cells[row * this.columns + column];
+    }
+
+    /**
+     * Lists the cells the bombs must be kept away from when the given cell is the
+     * first one uncovered: the cell and its neighbours if the bombs still fit
+     * elsewhere, otherwise only the cell if possible. They are written to the
+     * scratch array of this board, which is allocated on first use.
+     * 
+     * @param firstClick location (row * columns + column) of the first uncovered
+     *                   cell, or -1 if there is none
+     * @return the amount of excluded locations, in ascending order at the
+     *         beginning of the scratch array
+     */
+    private int excludedCells(int firstClick) {
+        if (firstClick < 0 || this.bombs == this.cells.length)
+            return 0;
+        if (this.excluded == null || this.excluded.length <= this.topology.getMaxDegree())
+            this.excluded = new int[this.topology.getMaxDegree() + 1];
+
+        // Merge the cell into its neighbours, which are already sorted
+        int[] offsets = this.topology.offsets;
+        int[] neighbours = this.topology.neighbours;
+        int count = 0;
+        boolean merged = false;
+        for (int k = offsets[firstClick]; k < offsets[firstClick + 1]; ++k) {
+            if (!merged && neighbours[k] > firstClick) {
+                this.excluded[count++] = firstClick;
+                merged = true;
+            }
+            this.excluded[count++] = neighbours[k];
         }
+        if (!merged)
+            this.excluded[count++] = firstClick;
+        if (this.bombs <= this.cells.length - count)
+            return count;
+        this.excluded[0] = firstClick;
+        return 1;
+    }
 
-        // Return the final count
-        return counter;
+    /**
+     * Maps an index among the cells that are not excluded to its location, by
+     * skipping over the excluded ones.
+     * 
+     * @param index    index among the cells that are not excluded
+     * @param excluded amount of excluded locations in the scratch array
+     * @return the location (row * columns + column) of the cell
+     */
+    private int skipExcluded(int index, int excluded) {
+        for (int i = 0; i < excluded; ++i)
+            if (this.excluded[i] <= index)
+                ++index;
+        return index;
+    }
+
+    /**
+     * Places the bombs, away from the first uncovered cell if given, and counts
+     * the adjacent bombs of every cell. Cells flagged before the bombs were placed
+     * keep their flags, which are counted as correct or wrong from then on.
+     * <p>
+     * The locations are drawn with Floyd's sampling algorithm exactly as
+     * {@link Random#sampleUniqueInts(int, int, int, SplittableRandom)} draws them,
+     * so the same seed keeps producing the same board, but the cells themselves
+     * remember which locations were taken and nothing is allocated besides the
+     * generator.
+     * 
+     * @param firstClick location (row * columns + column) of the first uncovered
+     *                   cell, or -1 to place the bombs anywhere
+     */
+    private void placeBombs(int firstClick) {
+        // Sample among the cells that are not excluded, then skip over the excluded
+        // ones to get the actual locations
+        int excluded = excludedCells(firstClick);
+        int size = this.cells.length - excluded;
+        SplittableRandom random = new SplittableRandom(this.seed);
+        for (int j = size - this.bombs; j < size; ++j) {
+            int bomb1D = skipExcluded(random.nextInt(j + 1), excluded);
+            if ((this.cells[bomb1D] & BOMB) != 0)
+                bomb1D = skipExcluded(j, excluded);
+            placeBomb(bomb1D);
+            if ((this.cells[bomb1D] & FLAGGED) != 0) {
+                ++this.correctFlags;
+                --this.wrongFlags;
+            }
+        }
+        this.bombsPlaced = true;
+    }
+
+    /**
+     * Places a bomb at the given location and increments the adjacent counter of
+     * its neighbours, so that uncovering is a lookup.
+     * 
+     * @param bomb1D the location (row * columns + column) of the bomb
+     */
+    private void placeBomb(int bomb1D) {
+        this.cells[bomb1D] |= BOMB;
+        int[] neighbours = this.topology.neighbours;
+        for (int k = this.topology.offsets[bomb1D], end = this.topology.offsets[bomb1D + 1]; k < end; ++k)
+            ++this.cells[neighbours[k]];
     }
 
     /**
      * Marks all the cells in the board that contain bombs as uncovered, effectively
-     * uncovering all bombs in the board.
+     * uncovering all bombs in the board. The locations of the bombs that were
+     * still covered are appended to the work queue.
+     * 
+     * @param tail amount of locations already in the work queue
+     * @return the amount of locations in the work queue afterwards
      */
-    private void uncoverAllBombs() {
-        for (int bomb1D : this.bombLocations)
-            this.cells[bomb1D / this.columns][bomb1D % this.columns].uncover();
+    private int uncoverAllBombs(int tail) {
+        int[] queue = workQueue();
+        for (int i = 0; i < this.cells.length; ++i)
+            if ((this.cells[i] & (BOMB | UNCOVERED)) == BOMB) {
+                this.cells[i] |= UNCOVERED;
+                queue[tail++] = i;
+            }
+        return tail;
     }
 
     /**
-     * Uncovers the cell at the position specified by the given coordinates (row,
-     * column). If the now uncovered cell does not have any adjacent bombs, the
-     * adjacent cells are recursively uncovered automatically.
+     * Gets the work queue shared by all the flood fills of this board, allocating
+     * it on first use. Every cell is enqueued at most once per fill, so it never
+     * needs to grow.
+     * 
+     * @return the work queue of this board
+     */
+    private int[] workQueue() {
+        if (this.queue == null)
+            this.queue = new int[this.cells.length];
+        return this.queue;
+    }
+
+    /**
+     * Uncovers the covered, non-flagged and bomb-free cell at the given location
+     * and, while the uncovered cells do not have any adjacent bombs, keeps
+     * uncovering their neighbours breadth-first. The uncovered locations are left
+     * at the beginning of the work queue, in the order they were uncovered.
+     * 
+     * @param start location (row * columns + column) of the first cell
+     * @return the amount of cells that were uncovered
+     */
+    private int floodFill(int start) {
+        this.cells[start] |= UNCOVERED;
+        workQueue()[0] = start;
+        return floodFill(0, 1);
+    }
+
+    /**
+     * Keeps uncovering the neighbours of the cells in the work queue without
+     * adjacent bombs, breadth-first, like {@link #floodFill(int)} but starting
+     * from every cell already in the queue, which must be uncovered and bomb-free.
+     * 
+     * @param head position in the work queue of the first cell to spread from
+     * @param tail amount of locations already in the work queue
+     * @return the amount of locations in the work queue afterwards
+     */
+    private int floodFill(int head, int tail) {
+        int[] queue = workQueue();
+        int[] offsets = this.topology.offsets;
+        int[] neighbours = this.topology.neighbours;
+        while (head < tail) {
+            // Only cells without adjacent bombs spread the fill
+            int location = queue[head++];
+            if ((this.cells[location] & COUNT_MASK) != 0)
+                continue;
+
+            // No adjacent bombs, so every covered and non-flagged neighbour is safe
+            for (int k = offsets[location], end = offsets[location + 1]; k < end; ++k) {
+                int neighbour = neighbours[k];
+                if ((this.cells[neighbour] & (UNCOVERED | FLAGGED)) == 0) {
+                    this.cells[neighbour] |= UNCOVERED;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Checks whether the board has been cleared, either by flagging exactly the
+     * cells that contain bombs or by uncovering every cell that does not. Runs in
+     * constant time thanks to the counters kept up to date by every move.
+     * 
+     * @return whether the board has been cleared
+     */
+    private boolean isCleared() {
+        return this.coveredSafeCells == 0 || (this.correctFlags == this.bombs && this.wrongFlags == 0);
+    }
+
+    /**
+     * Uncovers the cell at the given location, leaving the locations of every
+     * cell uncovered by the move at the beginning of the work queue.
      * 
      * @param row    cell's row (y-value)
      * @param column cells's column (x-value
+     * @return the amount of cells uncovered
      * @throws InvalidActivityException if the game already ended
      * @throws IllegalArgumentException if the specified position is invalid
      */
-    public void uncoverCell(int row, int column) throws InvalidActivityException {
+    private int uncover(int row, int column) throws InvalidActivityException {
         // Check if game is not already finished
         if (this.gameOver)
             throw new InvalidActivityException(GAME_OVER);
@@ -145,33 +711,277 @@ public class Board {
             throw new IllegalArgumentException(INVALID_CELL);
 
         // Only uncovered and non-flagged cells can be uncovered
-        Cell cell = this.cells[row][column];
-        if (!cell.isCovered() || cell.isFlagged())
-            return;
+        int location = row * this.columns + column;
+        if ((this.cells[location] & (UNCOVERED | FLAGGED)) != 0)
+            return 0;
 
-        // Uncover the cell
-        cell.uncover();
+        // Place the bombs away from the first uncovered cell if still pending
+        if (!this.bombsPlaced)
+            placeBombs(location);
+        int cell = this.cells[location];
 
         // If the game is now lost, uncover all the bombs and quit
-        if (cell.hasBomb()) {
+        if ((cell & BOMB) != 0) {
             this.gameOver = true;
             this.gameWon = false;
-            uncoverAllBombs();
-            return;
+            Metrics.recordGameEnded(false);
+            return notifyListeners(uncoverAllBombs(0));
+        }
+
+        // Uncover the cell and, if no adjacent bombs, the region around it
+        int uncovered = floodFill(location);
+        this.coveredSafeCells -= uncovered;
+        Metrics.recordFloodFill(uncovered);
+
+        // If the game is now won, uncover all the bombs as well
+        if (isCleared()) {
+            this.gameOver = true;
+            this.gameWon = true;
+            Metrics.recordGameEnded(true);
+            uncovered = uncoverAllBombs(uncovered);
         }
+        return notifyListeners(uncovered);
+    }
 
-        // Count the number of adjacent bombs
-        int bombCounter = countAdjacentBombs(row, column);
-        cell.setAdjacentCounter(bombCounter);
-
-        // If no adjacent bombs, recursively uncover the adjacent cells
-        if (bombCounter == 0)
-            for (int i = 0; i < NUMBER_OF_DISPLACEMENTS; ++i) {
-                int tmpRow = row + ROW_DISPLACEMENTS[i];
-                int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
-                if (validPosition(tmpRow, tmpColumn))
-                    uncoverCell(tmpRow, tmpColumn);
+    /**
+     * Chords the cell at the given location: if it is an uncovered number with as
+     * many flags around it, uncovers all of its covered and non-flagged neighbours
+     * in a single flood fill, leaving the locations of every cell uncovered by the
+     * move at the beginning of the work queue. If any of them is a bomb, because
+     * of a wrong flag, the game is lost as if that bomb was uncovered.
+     * 
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value
+     * @return the amount of cells uncovered
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    private int chord(int row, int column) throws InvalidActivityException {
+        // Check if game is not already finished
+        if (this.gameOver)
+            throw new InvalidActivityException(GAME_OVER);
+
+        // Check if the input cell is valid
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+
+        // Only uncovered numbers can be chorded
+        int location = row * this.columns + column;
+        int cell = this.cells[location];
+        int count = cell & COUNT_MASK;
+        if ((cell & (UNCOVERED | BOMB)) != UNCOVERED || count == 0)
+            return 0;
+
+        // Find the neighbours to uncover, and check the flags around match
+        int[] queue = workQueue();
+        int tail = 0;
+        int flags = 0;
+        boolean bomb = false;
+        int[] neighbours = this.topology.neighbours;
+        for (int k = this.topology.offsets[location], end = this.topology.offsets[location + 1]; k < end; ++k) {
+            int neighbour = neighbours[k];
+            int state = this.cells[neighbour];
+            if ((state & FLAGGED) != 0)
+                ++flags;
+            else if ((state & UNCOVERED) == 0) {
+                queue[tail++] = neighbour;
+                bomb |= (state & BOMB) != 0;
             }
+        }
+        if (flags != count || tail == 0)
+            return 0;
+
+        // If a flag was wrong, the game is now lost
+        if (bomb) {
+            this.gameOver = true;
+            this.gameWon = false;
+            Metrics.recordGameEnded(false);
+            return notifyListeners(uncoverAllBombs(0));
+        }
+
+        // Uncover the neighbours and, from the ones without adjacent bombs, the
+        // regions around them
+        for (int i = 0; i < tail; ++i)
+            this.cells[queue[i]] |= UNCOVERED;
+        int uncovered = floodFill(0, tail);
+        this.coveredSafeCells -= uncovered;
+        Metrics.recordFloodFill(uncovered);
+
+        // If the game is now won, uncover all the bombs as well
+        if (isCleared()) {
+            this.gameOver = true;
+            this.gameWon = true;
+            Metrics.recordGameEnded(true);
+            uncovered = uncoverAllBombs(uncovered);
+        }
+        return notifyListeners(uncovered);
+    }
+
+    /**
+     * Tells the listeners about the cells the last move changed, which are at the
+     * beginning of the work queue, and about the end of the game if the move
+     * ended it.
+     * 
+     * @param changed amount of cells the move changed
+     * @return the amount of cells the move changed
+     */
+    private int notifyListeners(int changed) {
+        if (this.listeners == null)
+            return changed;
+
+        // Pair every changed location with its new state
+        if (this.states == null || this.states.length != this.cells.length)
+            this.states = new int[this.cells.length];
+        for (int i = 0; i < changed; ++i)
+            this.states[i] = visibleState(this.queue[i]);
+        for (BoardListener listener : this.listeners) {
+            if (changed > 0)
+                listener.cellsChanged(this, this.queue, this.states, changed);
+            if (this.gameOver)
+                listener.gameEnded(this, this.gameWon);
+        }
+        return changed;
+    }
+
+    /**
+     * Starts telling the given listener about the changes every move makes. The
+     * listener is kept when the board is reset.
+     * 
+     * @param listener the listener
+     */
+    public void addListener(BoardListener listener) {
+        BoardListener[] listeners = this.listeners == null ? new BoardListener[1]
+                : Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Stops telling the given listener about the changes, if it was added.
+     * 
+     * @param listener the listener
+     */
+    public void removeListener(BoardListener listener) {
+        if (this.listeners == null)
+            return;
+        for (int i = 0; i < this.listeners.length; ++i)
+            if (this.listeners[i] == listener) {
+                if (this.listeners.length == 1) {
+                    this.listeners = null;
+                    return;
+                }
+                BoardListener[] listeners = new BoardListener[this.listeners.length - 1];
+                System.arraycopy(this.listeners, 0, listeners, 0, i);
+                System.arraycopy(this.listeners, i + 1, listeners, i, listeners.length - i);
+                this.listeners = listeners;
+                return;
+            }
+    }
+
+    /**
+     * Stops telling every listener about the changes.
+     */
+    public void removeAllListeners() {
+        this.listeners = null;
+    }
+
+    /**
+     * Uncovers the cell at the position specified by the given coordinates (row,
+     * column). If the now uncovered cell does not have any adjacent bombs, the
+     * adjacent cells are uncovered automatically, and so on. The locations of the
+     * uncovered cells are written into the given buffer, so that a buffer reused
+     * across moves does not allocate anything.
+     * 
+     * @param row       cell's row (y-value)
+     * @param column    cells's column (x-value
+     * @param uncovered where to write the locations (row * columns + column) of
+     *                  all the cells uncovered by this move, including the bombs
+     *                  uncovered when the move ends the game. Must be able to
+     *                  hold every cell
+     * @return the amount of cells uncovered by this move, 0 if the cell could not
+     *         be uncovered
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid or the
+     *                                  buffer is too small
+     */
+    public int uncoverCell(int row, int column, int[] uncovered) throws InvalidActivityException {
+        if (uncovered.length < this.cells.length)
+            throw new IllegalArgumentException(SMALL_BUFFER);
+        long start = Metrics.start();
+        int amount = uncover(row, column);
+        Metrics.recordUncover(start);
+        if (amount > 0)
+            System.arraycopy(this.queue, 0, uncovered, 0, amount);
+        return amount;
+    }
+
+    /**
+     * Uncovers the cell at the position specified by the given coordinates (row,
+     * column) just like {@link #uncoverCell(int, int, int[])}, but allocates a new
+     * array for the locations of the uncovered cells on every move. Callers making
+     * many moves should reuse a buffer instead.
+     * 
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value
+     * @return the locations (row * columns + column) of all the cells uncovered by
+     *         this move, including the bombs uncovered when the move ends the
+     *         game. Empty if the cell could not be uncovered
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public int[] uncoverCell(int row, int column) throws InvalidActivityException {
+        long start = Metrics.start();
+        int uncovered = uncover(row, column);
+        Metrics.recordUncover(start);
+        return uncovered == 0 ? NO_CELLS : Arrays.copyOf(this.queue, uncovered);
+    }
+
+    /**
+     * Chords the cell at the position specified by the given coordinates (row,
+     * column), as a middle click does: if the cell is an uncovered number with
+     * exactly that many flagged neighbours, all of its other covered neighbours
+     * are uncovered at once, and so are the regions around the ones without
+     * adjacent bombs. Does nothing otherwise. If a flag was wrong, one of the
+     * uncovered neighbours is a bomb and the game is lost.
+     * 
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value
+     * @return the locations (row * columns + column) of all the cells uncovered by
+     *         this move, including the bombs uncovered when the move ends the
+     *         game. Empty if nothing could be uncovered
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public int[] chordCell(int row, int column) throws InvalidActivityException {
+        long start = Metrics.start();
+        int uncovered = chord(row, column);
+        Metrics.recordUncover(start);
+        return uncovered == 0 ? NO_CELLS : Arrays.copyOf(this.queue, uncovered);
+    }
+
+    /**
+     * Chords the cell at the position specified by the given coordinates (row,
+     * column) just like {@link #chordCell(int, int)}, but writes the locations of
+     * the uncovered cells into the given buffer instead of allocating a new array.
+     * 
+     * @param row       cell's row (y-value)
+     * @param column    cells's column (x-value
+     * @param uncovered where to write the locations (row * columns + column) of
+     *                  the uncovered cells. Must be able to hold every cell
+     * @return the amount of cells uncovered by this move
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid or the
+     *                                  buffer is too small
+     */
+    public int chordCell(int row, int column, int[] uncovered) throws InvalidActivityException {
+        if (uncovered.length < this.cells.length)
+            throw new IllegalArgumentException(SMALL_BUFFER);
+        long start = Metrics.start();
+        int amount = chord(row, column);
+        Metrics.recordUncover(start);
+        if (amount > 0)
+            System.arraycopy(this.queue, 0, uncovered, 0, amount);
+        return amount;
     }
 
     /**
@@ -193,21 +1003,59 @@ public class Board {
         if (!validPosition(row, column))
             throw new IllegalArgumentException(INVALID_CELL);
 
-        // Toggle the flag
-        Cell cell = this.cells[row][column];
+        // Toggle the flag and keep track of how many flags are (in)correct
+        long start = Metrics.start();
         int location = row * this.columns + column;
-        cell.toggleFlag();
-        if (cell.isFlagged())
-            this.flaggedLocations.add(location);
+        int cell = this.cells[location] ^= FLAGGED;
+        int delta = (cell & FLAGGED) != 0 ? 1 : -1;
+        if ((cell & BOMB) != 0)
+            this.correctFlags += delta;
         else
-            this.flaggedLocations.remove(location);
+            this.wrongFlags += delta;
 
-        // If the game is now won, uncover all the bombs and quit
-        if (this.flaggedLocations.equals(this.bombLocations)) {
+        // If the game is now won, uncover all the bombs too
+        workQueue()[0] = location;
+        int changed = 1;
+        if (isCleared()) {
             this.gameOver = true;
             this.gameWon = true;
-            uncoverAllBombs();
+            // A flagged bomb is listed again once uncovered
+            Metrics.recordGameEnded(true);
+            changed = uncoverAllBombs((cell & BOMB) != 0 ? 0 : changed);
         }
+        notifyListeners(changed);
+        Metrics.recordFlag(start);
+    }
+
+    /**
+     * Gets the state of the cell at the position specified by the given
+     * coordinates (row, column) as the player sees it, without revealing anything
+     * still covered.
+     * 
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return the adjacent counter of an uncovered cell, {@link #VISIBLE_BOMB} for
+     *         an uncovered bomb, {@link #VISIBLE_FLAGGED} for a flagged cell and
+     *         {@link #VISIBLE_COVERED} for any other covered cell
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public int visibleCell(int row, int column) {
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+        return visibleState(row * this.columns + column);
+    }
+
+    /**
+     * Gets the state of the cell at the given location as the player sees it.
+     * 
+     * @param location the cell's location (row * columns + column)
+     * @return the cell's state, as {@link #visibleCell(int, int)} returns it
+     */
+    private int visibleState(int location) {
+        int cell = this.cells[location];
+        if ((cell & UNCOVERED) == 0)
+            return (cell & FLAGGED) != 0 ? VISIBLE_FLAGGED : VISIBLE_COVERED;
+        return (cell & BOMB) != 0 ? VISIBLE_BOMB : cell & COUNT_MASK;
     }
 
     /**
@@ -217,38 +1065,85 @@ public class Board {
      */
     @Override
     public String toString() {
-        // Initialize string with an initial capacity for improved efficiency
-        StringBuilder sb = new StringBuilder(2 * (this.rows + 1) * (this.columns + 2));
-
-        // Add a new line for asthetic purposes
-        sb.append('\n');
-
-        // Add a row indicating the column number
-        sb.append("    ");
-        for (int j = 0; j < this.columns; ++j)
-            sb.append(String.format("%-2d", j + 1));
-        sb.append('\n');
-
-        // Add an empty row separating the column indicator from the actual board
-        sb.append("     ");
-        for (int j = 0; j < this.columns; ++j)
-            sb.append("  ");
-        sb.append('\n');
-
-        // Print the actual board, including an extra column indicating the row number
-        for (int i = 0; i < this.rows; ++i) {
-            // Row number and separator
-            sb.append(String.format("%-2d  ", i + 1));
-
-            // Print the cells separated by spaces
-            for (int j = 0; j < this.columns; ++j) {
-                sb.append(this.cells[i][j]);
-                sb.append(j == this.rows - 1 ? '\n' : ' ');
-            }
-        }
+        if (this.renderer == null)
+            this.renderer = new BoardRenderer(this);
+        return this.renderer.toString();
+    }
+
+    /**
+     * Gets the board's height.
+     * 
+     * @return the board's height
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the board's width.
+     * 
+     * @return the board's width
+     */
+    public int getColumns() {
+        return this.columns;
+    }
 
-        // Finally build the string
-        return sb.toString();
+    /**
+     * Gets the way the board's cells touch each other.
+     * 
+     * @return the board's topology
+     */
+    public Topology getTopology() {
+        return this.topology;
+    }
+
+    /**
+     * Gets the amount of bombs in the board.
+     * 
+     * @return the amount of bombs in the board
+     */
+    public int getBombs() {
+        return this.bombs;
+    }
+
+    /**
+     * Gets the seed the bomb locations were generated from.
+     * 
+     * @return the seed the bomb locations were generated from, or 0 if they were
+     *         given explicitly
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Checks whether the bombs are placed from the seed, so that a board created
+     * with the same specification and seed holds the same game. Boards created
+     * from explicit bomb locations are not.
+     * 
+     * @return whether the board can be rebuilt from its seed
+     */
+    public boolean isSeeded() {
+        return this.seeded;
+    }
+
+    /**
+     * Checks whether the bombs are kept away from the first uncovered cell.
+     * 
+     * @return whether the first uncovered cell is guaranteed to be safe
+     */
+    public boolean isFirstClickSafe() {
+        return this.firstClickSafe;
+    }
+
+    /**
+     * Checks whether the bombs were placed, which first-click-safe boards only do
+     * when the first cell is uncovered.
+     * 
+     * @return whether the bombs were placed
+     */
+    boolean areBombsPlaced() {
+        return this.bombsPlaced;
     }
 
     /**
@@ -0,0 +1,38 @@
+package com.agudelotmateo.minesweeper.model;
+
+/**
+ * Receives the changes every move makes to a board, as compact batches of the
+ * cells that changed, so that front ends and network layers can push small
+ * diffs instead of whole frames.
+ * <p>
+ * Listeners are called on the thread making the move, right after it, and must
+ * not make moves on the board themselves.
+ *
+ * @author Mateo Agudelo Toro
+ */
+@FunctionalInterface
+public interface BoardListener {
+
+    /**
+     * Receives the cells a move changed: the cells uncovered by a reveal, the
+     * cell flagged or unflagged, and every bomb uncovered when the game ends. The
+     * arrays are reused by the board, so they are only valid during the call.
+     *
+     * @param board     the board that changed
+     * @param locations the locations (row * columns + column) of the changed
+     *                  cells, in the order they changed
+     * @param states    the new states of the changed cells, as
+     *                  {@link Board#visibleCell(int, int)} returns them
+     * @param count     amount of changed cells, at the beginning of both arrays
+     */
+    void cellsChanged(Board board, int[] locations, int[] states, int count);
+
+    /**
+     * Receives the end of the game, right after the cells the last move changed.
+     *
+     * @param board the board whose game ended
+     * @param won   whether the game was won
+     */
+    default void gameEnded(Board board, boolean won) {
+    }
+}
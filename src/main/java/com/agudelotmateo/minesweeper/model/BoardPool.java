@@ -0,0 +1,130 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps finished boards around so that new games reuse their storage instead of
+ * allocating it, with a bounded shelf per board size. Shelves are found by
+ * indexing an array with the dimensions, and are array-backed queues, so
+ * acquiring and releasing a board allocates nothing once the pool is warm. Safe
+ * to use from any thread.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class BoardPool {
+    // IllegalArgumentException messages
+    private static final String TOO_FEW_BOARDS = "capacity must be positive";
+
+    // Boards kept for every board size, indexed by rows * MAX_COLUMNS_EXCLUSIVE +
+    // columns and created on first use
+    private final AtomicReferenceArray<ArrayBlockingQueue<Board>> shelves;
+    private final int capacity;
+    private final boolean firstClickSafe;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param capacity       amount of boards kept per board size
+     * @param firstClickSafe whether the boards served keep the bombs away from the
+     *                       first uncovered cell
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public BoardPool(int capacity, boolean firstClickSafe) {
+        // Check for input validity
+        if (capacity <= 0)
+            throw new IllegalArgumentException(TOO_FEW_BOARDS);
+
+        this.shelves = new AtomicReferenceArray<>(Board.MAX_ROWS_EXCLUSIVE * Board.MAX_COLUMNS_EXCLUSIVE);
+        this.capacity = capacity;
+        this.firstClickSafe = firstClickSafe;
+    }
+
+    /**
+     * Gets the shelf of a board size, creating it if needed.
+     *
+     * @param rows    boards' height
+     * @param columns boards' width
+     * @return the shelf, or null if the dimensions are invalid
+     */
+    private ArrayBlockingQueue<Board> shelf(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || rows >= Board.MAX_ROWS_EXCLUSIVE || columns >= Board.MAX_COLUMNS_EXCLUSIVE)
+            return null;
+        int key = rows * Board.MAX_COLUMNS_EXCLUSIVE + columns;
+        ArrayBlockingQueue<Board> shelf = this.shelves.get(key);
+        if (shelf == null) {
+            this.shelves.compareAndSet(key, null, new ArrayBlockingQueue<>(this.capacity));
+            shelf = this.shelves.get(key);
+        }
+        return shelf;
+    }
+
+    /**
+     * Serves a board ready for a new game, reusing a released one of the same
+     * size if there is any.
+     *
+     * @param rows    board's height
+     * @param columns board's width
+     * @param bombs   amount of bombs to randomly place on the board
+     * @return a board nobody else holds
+     * @throws IllegalArgumentException if the board's specification is invalid
+     */
+    public Board acquire(int rows, int columns, int bombs) {
+        return acquire(rows, columns, bombs, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Serves a board ready for a new game, placing the bombs from the given seed
+     * and reusing a released one of the same size if there is any.
+     *
+     * @param rows    board's height
+     * @param columns board's width
+     * @param bombs   amount of bombs to randomly place on the board
+     * @param seed    seed the bomb locations are generated from
+     * @return a board nobody else holds
+     * @throws IllegalArgumentException if the board's specification is invalid
+     */
+    public Board acquire(int rows, int columns, int bombs, long seed) {
+        ArrayBlockingQueue<Board> shelf = shelf(rows, columns);
+        Board board = shelf == null ? null : shelf.poll();
+        if (board == null)
+            return this.firstClickSafe ? Board.firstClickSafe(rows, columns, bombs, seed)
+                    : new Board(rows, columns, bombs, seed);
+        try {
+            board.reset(rows, columns, bombs, seed);
+        } catch (IllegalArgumentException e) {
+            // Keep the board for someone else
+            shelf.offer(board);
+            throw e;
+        }
+        return board;
+    }
+
+    /**
+     * Hands a board back for later games, removing its listeners. The caller must
+     * not use it afterwards. Boards are dropped when their shelf is full, they do
+     * not place the bombs the way this pool does or they are not grids.
+     *
+     * @param board the board to hand back
+     * @return whether the board was kept
+     */
+    public boolean release(Board board) {
+        if (board.isFirstClickSafe() != this.firstClickSafe || board.getTopology().getKind() != Topology.Kind.GRID)
+            return false;
+        board.removeAllListeners();
+        return shelf(board.getRows(), board.getColumns()).offer(board);
+    }
+
+    /**
+     * Gets the amount of boards of a size ready to be reused.
+     *
+     * @param rows    boards' height
+     * @param columns boards' width
+     * @return the amount of boards ready
+     */
+    public int available(int rows, int columns) {
+        ArrayBlockingQueue<Board> shelf = shelf(rows, columns);
+        return shelf == null ? 0 : shelf.size();
+    }
+}
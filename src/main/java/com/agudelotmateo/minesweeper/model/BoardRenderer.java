@@ -0,0 +1,181 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.agudelotmateo.minesweeper.metrics.Metrics;
+
+/**
+ * Renders a board as ASCII text into a reusable frame. Everything but the cells'
+ * glyphs (headers, row numbers and separators) is written once when the renderer
+ * is created, so rendering only refreshes one byte per cell through a lookup
+ * table and allocates nothing. It can also emit only the rows that changed since
+ * the last time they were emitted.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class BoardRenderer {
+    // Glyph of every packed cell state
+    private static final byte[] GLYPHS = new byte[Byte.MAX_VALUE + 1];
+
+    // Row and column labels, left-aligned in two characters
+    private static final byte[] LABELS = new byte[2 * Math.max(Board.MAX_ROWS_EXCLUSIVE, Board.MAX_COLUMNS_EXCLUSIVE)];
+
+    // Frame layout
+    private static final int ROW_PREFIX = 4;
+
+    static {
+        // Covered cells only show their flag, uncovered ones their content
+        for (int cell = 0; cell < GLYPHS.length; ++cell) {
+            boolean flagged = (cell & Board.FLAGGED) != 0;
+            int adjacentCounter = cell & Board.COUNT_MASK;
+            if ((cell & Board.UNCOVERED) == 0)
+                GLYPHS[cell] = (byte) (flagged ? 'P' : '.');
+            else if ((cell & Board.BOMB) != 0)
+                GLYPHS[cell] = (byte) (flagged ? 'P' : '*');
+            else
+                GLYPHS[cell] = (byte) (adjacentCounter == 0 ? '-' : '0' + adjacentCounter);
+        }
+
+        // Labels are written as "%-2d" would
+        for (int i = 1; 2 * i < LABELS.length; ++i) {
+            LABELS[2 * i] = (byte) (i < 10 ? '0' + i : '0' + i / 10);
+            LABELS[2 * i + 1] = (byte) (i < 10 ? ' ' : '0' + i % 10);
+        }
+    }
+
+    // Rendered board
+    private final Board board;
+    private final byte[] frame;
+    private final int headerLength;
+    private final int rowLength;
+    private final boolean[] changedRows;
+
+    /**
+     * Creates a renderer for the given board, laying out its frame.
+     *
+     * @param board the board to render
+     */
+    public BoardRenderer(Board board) {
+        int rows = board.getRows();
+        int columns = board.getColumns();
+        this.board = board;
+        this.headerLength = 1 + (4 + 2 * columns + 1) + (5 + 2 * columns + 1);
+        this.rowLength = ROW_PREFIX + 2 * columns;
+        this.frame = new byte[this.headerLength + rows * this.rowLength];
+        this.changedRows = new boolean[rows];
+
+        // A new line, the column numbers and an empty separator line
+        int position = 0;
+        this.frame[position++] = '\n';
+        for (int i = 0; i < 4; ++i)
+            this.frame[position++] = ' ';
+        for (int j = 1; j <= columns; ++j) {
+            this.frame[position++] = LABELS[2 * j];
+            this.frame[position++] = LABELS[2 * j + 1];
+        }
+        this.frame[position++] = '\n';
+        for (int i = 0; i < 5 + 2 * columns; ++i)
+            this.frame[position++] = ' ';
+        this.frame[position++] = '\n';
+
+        // Every row starts with its number and has a separator after every cell. The
+        // glyphs are left zeroed, so the first refresh marks every row as changed
+        for (int i = 1; i <= rows; ++i) {
+            this.frame[position++] = LABELS[2 * i];
+            this.frame[position++] = LABELS[2 * i + 1];
+            this.frame[position++] = ' ';
+            this.frame[position++] = ' ';
+            for (int j = 0; j < columns; ++j) {
+                ++position;
+                this.frame[position++] = (byte) (j == columns - 1 ? '\n' : ' ');
+            }
+        }
+    }
+
+    /**
+     * Writes the current glyph of every cell into the frame, marking the rows
+     * whose glyphs changed.
+     */
+    private void refresh() {
+        long start = Metrics.start();
+        int columns = this.board.getColumns();
+        for (int i = 0; i < this.changedRows.length; ++i) {
+            int position = this.headerLength + i * this.rowLength + ROW_PREFIX;
+            boolean changed = false;
+            for (int j = 0; j < columns; ++j, position += 2) {
+                byte glyph = GLYPHS[this.board.cellAt(i, j)];
+                changed |= this.frame[position] != glyph;
+                this.frame[position] = glyph;
+            }
+            this.changedRows[i] |= changed;
+        }
+        Metrics.recordRender(start);
+    }
+
+    /**
+     * Renders the whole board into the frame. The returned array is reused by the
+     * next call, so it must be consumed before that.
+     *
+     * @return the frame, whose whole length is the rendered board
+     */
+    public byte[] render() {
+        refresh();
+        for (int i = 0; i < this.changedRows.length; ++i)
+            this.changedRows[i] = false;
+        return this.frame;
+    }
+
+    /**
+     * Renders the whole board and writes it to the given stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(render());
+    }
+
+    /**
+     * Writes only the rows whose glyphs changed since they were last written, each
+     * one starting with its row number. Writes every row the first time.
+     *
+     * @param out the stream to write to
+     * @return the amount of rows written
+     * @throws IOException if writing fails
+     */
+    public int writeChangesTo(OutputStream out) throws IOException {
+        refresh();
+        int written = 0;
+        for (int i = 0; i < this.changedRows.length; ++i)
+            if (this.changedRows[i]) {
+                out.write(this.frame, this.headerLength + i * this.rowLength, this.rowLength);
+                this.changedRows[i] = false;
+                ++written;
+            }
+        return written;
+    }
+
+    /**
+     * Renders the whole board into an {@code Appendable}.
+     *
+     * @param out where to append the rendered board
+     * @throws IOException if appending fails
+     */
+    public void appendTo(Appendable out) throws IOException {
+        byte[] frame = render();
+        for (byte b : frame)
+            out.append((char) b);
+    }
+
+    /**
+     * String representation of the rendered board.
+     *
+     * @return String representation of the rendered board
+     */
+    @Override
+    public String toString() {
+        return new String(render(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,323 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Saves and restores the state of a game in a compact binary format, so that
+ * games in progress can survive restarts or move between nodes.
+ * <p>
+ * A snapshot is a version byte, a byte of state bits (first-click-safe, bombs
+ * placed, game over, game won and placed from explicit locations rather than
+ * the seed), the board's rows and columns as a byte each,
+ * its bombs as an unsigned {@code short} and its seed as a {@code long}, all
+ * big-endian, followed by three bit planes: the bombs, the flags and the
+ * uncovered cells, one bit per cell in location order (row * columns + column),
+ * starting from the lowest bit of every byte. Adjacent counters are not saved,
+ * since they follow from the bombs. An expert board (16x30) takes 194 bytes.
+ * Only boards with the classic {@link Topology#grid(int, int)} topology can be
+ * saved.
+ * <p>
+ * Snapshots are self-delimiting, so any amount of them can be written one after
+ * the other to a buffer or file. Bulk snapshots can go through memory-mapped
+ * files, which skips the copies through the channel; mapped writes reach the
+ * file when the operating system flushes them, or when the mapping is forced.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public final class BoardSnapshot {
+    // Binary format
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 4 + Short.BYTES + Long.BYTES;
+    private static final int ROWS_OFFSET = 2;
+    private static final int COLUMNS_OFFSET = 3;
+    private static final int PLANES = 3;
+
+    // State bits
+    private static final int FIRST_CLICK_SAFE = 0x01;
+    private static final int BOMBS_PLACED = 0x02;
+    private static final int GAME_OVER = 0x04;
+    private static final int GAME_WON = 0x08;
+    private static final int SEEDLESS = 0x10;
+
+    // Largest region mapped at once
+    private static final long MAX_MAPPING = Integer.MAX_VALUE;
+
+    // IllegalArgumentException messages
+    private static final String INVALID_FORMAT = "not a valid board snapshot";
+    private static final String NOT_A_GRID = "only grid boards can be saved";
+
+    // Does not make sense to instantiate this class
+    private BoardSnapshot() { }
+
+    /**
+     * Gets the size of the snapshot of a board with the given dimensions.
+     *
+     * @param rows    board's height
+     * @param columns board's width
+     * @return the snapshot's size in bytes
+     */
+    public static int size(int rows, int columns) {
+        return HEADER_BYTES + PLANES * planeBytes(rows * columns);
+    }
+
+    /**
+     * Gets the size of the snapshot of the given board.
+     *
+     * @param board the board
+     * @return the snapshot's size in bytes
+     */
+    public static int size(Board board) {
+        return size(board.getRows(), board.getColumns());
+    }
+
+    /**
+     * Gets the size of a bit plane.
+     *
+     * @param cells amount of cells in the board
+     * @return the plane's size in bytes
+     */
+    private static int planeBytes(int cells) {
+        return (cells + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    /**
+     * Writes the snapshot of a board at the buffer's position, advancing it.
+     *
+     * @param board  the board to save, whose topology must be a grid
+     * @param buffer where to write the snapshot
+     * @throws BufferOverflowException  if the buffer has less than
+     *                                  {@link #size(Board)} bytes remaining
+     * @throws IllegalArgumentException if the board is not a grid
+     */
+    public static void write(Board board, ByteBuffer buffer) {
+        if (board.getTopology().getKind() != Topology.Kind.GRID)
+            throw new IllegalArgumentException(NOT_A_GRID);
+        int state = (board.isFirstClickSafe() ? FIRST_CLICK_SAFE : 0) | (board.areBombsPlaced() ? BOMBS_PLACED : 0)
+                | (board.isGameOver() ? GAME_OVER : 0) | (board.isGameWon() ? GAME_WON : 0)
+                | (board.isSeeded() ? 0 : SEEDLESS);
+        buffer.put(VERSION).put((byte) state).put((byte) board.getRows()).put((byte) board.getColumns());
+        buffer.putShort((short) board.getBombs()).putLong(board.getSeed());
+        writePlanes(board, buffer);
+    }
+
+    /**
+     * Writes the three bit planes in a single pass over the cells.
+     *
+     * @param board  the board to save
+     * @param buffer where to write the planes
+     */
+    private static void writePlanes(Board board, ByteBuffer buffer) {
+        int columns = board.getColumns();
+        int cells = board.getRows() * columns;
+        int planeBytes = planeBytes(cells);
+        if (buffer.remaining() < PLANES * planeBytes)
+            throw new BufferOverflowException();
+        int bombsAt = buffer.position();
+        for (int index = 0; index < planeBytes; ++index) {
+            int bombs = 0;
+            int flags = 0;
+            int uncovered = 0;
+            for (int bit = 0, location = index * Byte.SIZE; bit < Byte.SIZE && location < cells; ++bit, ++location) {
+                int cell = board.cellAt(location / columns, location % columns);
+                bombs |= ((cell & Board.BOMB) != 0 ? 1 : 0) << bit;
+                flags |= ((cell & Board.FLAGGED) != 0 ? 1 : 0) << bit;
+                uncovered |= ((cell & Board.UNCOVERED) != 0 ? 1 : 0) << bit;
+            }
+            buffer.put(bombsAt + index, (byte) bombs);
+            buffer.put(bombsAt + planeBytes + index, (byte) flags);
+            buffer.put(bombsAt + 2 * planeBytes + index, (byte) uncovered);
+        }
+        buffer.position(bombsAt + PLANES * planeBytes);
+    }
+
+    /**
+     * Reads a snapshot at the buffer's position, advancing it.
+     *
+     * @param buffer where to read the snapshot from
+     * @return a new board with the saved game
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static Board read(ByteBuffer buffer) {
+        return read(buffer, new Board());
+    }
+
+    /**
+     * Reads a snapshot at the buffer's position, advancing it, into an existing
+     * board whose storage is reused like {@link Board#reset(int, int, int, long)}
+     * does.
+     *
+     * @param buffer where to read the snapshot from
+     * @param board  the board to restore the saved game into
+     * @return the given board
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static Board read(ByteBuffer buffer, Board board) {
+        try {
+            // Header
+            if (buffer.get() != VERSION)
+                throw new IllegalArgumentException(INVALID_FORMAT);
+            int state = buffer.get();
+            int rows = buffer.get() & 0xFF;
+            int columns = buffer.get() & 0xFF;
+            int bombs = buffer.getShort() & 0xFFFF;
+            long seed = buffer.getLong();
+            int cells = rows * columns;
+            int planeBytes = planeBytes(cells);
+            if (buffer.remaining() < PLANES * planeBytes)
+                throw new IllegalArgumentException(INVALID_FORMAT);
+            boolean bombsPlaced = (state & BOMBS_PLACED) != 0;
+            board.restore(rows, columns, bombs, seed, (state & SEEDLESS) == 0, (state & FIRST_CLICK_SAFE) != 0,
+                    bombsPlaced, (state & GAME_OVER) != 0, (state & GAME_WON) != 0);
+
+            // Planes, read in place
+            int bombsAt = buffer.position();
+            int flagsAt = bombsAt + planeBytes;
+            int uncoveredAt = flagsAt + planeBytes;
+            int placed = 0;
+            for (int index = 0; index < planeBytes; ++index) {
+                int bombBits = buffer.get(bombsAt + index) & 0xFF;
+                int flagBits = buffer.get(flagsAt + index) & 0xFF;
+                int uncoveredBits = buffer.get(uncoveredAt + index) & 0xFF;
+
+                // Only cells with something to restore are visited
+                for (int set = bombBits | flagBits | uncoveredBits; set != 0; set &= set - 1) {
+                    int bit = Integer.numberOfTrailingZeros(set);
+                    int location = index * Byte.SIZE + bit;
+                    if (location >= cells)
+                        throw new IllegalArgumentException(INVALID_FORMAT);
+                    board.restoreCell(location, (bombBits >>> bit & 1) != 0, (flagBits >>> bit & 1) != 0,
+                            (uncoveredBits >>> bit & 1) != 0);
+                }
+                placed += Integer.bitCount(bombBits);
+            }
+            buffer.position(uncoveredAt + planeBytes);
+
+            // The bombs must all be there, or none if they were not placed yet
+            if (placed != (bombsPlaced ? bombs : 0))
+                throw new IllegalArgumentException(INVALID_FORMAT);
+            return board;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(INVALID_FORMAT);
+        }
+    }
+
+    /**
+     * Writes the snapshot of a board at the channel's position, advancing it.
+     *
+     * @param board   the board to save
+     * @param channel where to write the snapshot
+     * @throws IOException if writing fails
+     */
+    public static void write(Board board, FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size(board));
+        write(board, buffer);
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Reads a snapshot at the channel's position, advancing it.
+     *
+     * @param channel where to read the snapshot from
+     * @return a new board with the saved game
+     * @throws IOException              if reading fails or the channel ends
+     *                                  before the snapshot does
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static Board read(FileChannel channel) throws IOException {
+        // The header tells how long the rest is
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header);
+        ByteBuffer buffer = ByteBuffer
+                .allocate(size(header.get(ROWS_OFFSET) & 0xFF, header.get(COLUMNS_OFFSET) & 0xFF));
+        header.flip();
+        buffer.put(header);
+        readFully(channel, buffer);
+        buffer.flip();
+        return read(buffer);
+    }
+
+    /**
+     * Fills the buffer from the channel.
+     *
+     * @param channel where to read from
+     * @param buffer  the buffer to fill
+     * @throws IOException if reading fails or the channel ends first
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) < 0)
+                throw new EOFException(INVALID_FORMAT);
+    }
+
+    /**
+     * Writes the snapshots of many boards one after the other at the channel's
+     * position, through memory-mapped regions of the file, advancing the
+     * position.
+     *
+     * @param boards  the boards to save
+     * @param channel where to write the snapshots, which must be open for reading
+     *                and writing
+     * @return the amount of bytes written
+     * @throws IOException if mapping the file fails
+     */
+    public static long writeMapped(Board[] boards, FileChannel channel) throws IOException {
+        long start = channel.position();
+        long position = start;
+        int from = 0;
+        while (from < boards.length) {
+            // Map as many snapshots as fit in a single region
+            long length = 0;
+            int to = from;
+            while (to < boards.length && length + size(boards[to]) <= MAX_MAPPING)
+                length += size(boards[to++]);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+            for (int i = from; i < to; ++i)
+                write(boards[i], buffer);
+            position += length;
+            from = to;
+        }
+        channel.position(position);
+        return position - start;
+    }
+
+    /**
+     * Reads the given amount of snapshots one after the other from the channel's
+     * position, through memory-mapped regions of the file, advancing the
+     * position.
+     *
+     * @param channel where to read the snapshots from
+     * @param count   amount of snapshots to read
+     * @return new boards with the saved games, in order
+     * @throws IOException              if mapping the file fails
+     * @throws IllegalArgumentException if the bytes are not valid snapshots or
+     *                                  the file ends first
+     */
+    public static Board[] readMapped(FileChannel channel, int count) throws IOException {
+        Board[] boards = new Board[count];
+        long position = channel.position();
+        MappedByteBuffer buffer = null;
+        for (int i = 0; i < count; ++i) {
+            // Map the rest of the file again when the next snapshot is cut short
+            if (buffer == null || buffer.remaining() < HEADER_BYTES
+                    || buffer.remaining() < size(buffer.get(buffer.position() + ROWS_OFFSET) & 0xFF,
+                            buffer.get(buffer.position() + COLUMNS_OFFSET) & 0xFF)) {
+                if (buffer != null)
+                    position += buffer.position();
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAX_MAPPING, channel.size() - position));
+            }
+            boards[i] = read(buffer);
+        }
+        if (buffer != null)
+            channel.position(position + buffer.position());
+        return boards;
+    }
+}
@@ -0,0 +1,479 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.util.Random;
+
+/**
+ * Represents a gameboard too large to be stored at once. The board is split into
+ * square chunks that are only allocated, and populated with bombs, the first
+ * time they are touched. Every chunk gets its bombs from its own generator,
+ * seeded from the board's seed and the chunk's coordinates, so the layout does
+ * not depend on the order in which chunks are explored and memory grows with
+ * the explored area instead of the board's area.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class ChunkedBoard {
+    // Chunk geometry
+    static final int CHUNK_BITS = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int PADDED_SIZE = CHUNK_SIZE + 2;
+
+    // IllegalArgumentException messages
+    private static final String TOO_FEW_ROWS = "rows must be positive";
+    private static final String TOO_FEW_COLUMNS = "columns must be positive";
+    private static final String BAD_DENSITY = "density must be between 0 and 1 (exclusive)";
+    private static final String TOO_FEW_BOMBS = "density must leave at least one bomb in the board";
+    private static final String INVALID_CELL = "invalid cell coordinates";
+    private static final String GAME_OVER = "game already finished";
+
+    // Returned when a move does not uncover anything
+    private static final long[] NO_CELLS = {};
+
+    /**
+     * A chunk of the board, using the same packed cell layout as {@link Board}.
+     */
+    private static final class Chunk {
+        private final byte[] cells;
+        private final int columns;
+        private boolean counted;
+
+        /**
+         * Creates a new chunk without any bombs.
+         *
+         * @param rows    chunk's height
+         * @param columns chunk's width
+         */
+        private Chunk(int rows, int columns) {
+            this.cells = new byte[rows * columns];
+            this.columns = columns;
+            this.counted = false;
+        }
+    }
+
+    // Board specification
+    private final int rows;
+    private final int columns;
+    private final double density;
+    private final long seed;
+    private final long bombs;
+
+    // Board state
+    private final Map<Long, Chunk> chunks;
+    private boolean gameOver;
+    private boolean gameWon;
+    private long correctFlags;
+    private long wrongFlags;
+    private long coveredSafeCells;
+
+    // Reusable scratch space
+    private final int[] shuffled;
+    private final byte[] padded;
+    private long[] queue;
+    private long lastKey;
+    private Chunk lastChunk;
+
+    /**
+     * Creates a new chunked game board. Nothing but the board's specification is
+     * allocated until cells are touched.
+     *
+     * @param rows    board's height. Must be positive
+     * @param columns board's width. Must be positive
+     * @param density fraction of the cells of every chunk that contain bombs. Must
+     *                be between 0 and 1 (exclusive). Below roughly 0.1, empty
+     *                regions stop being bounded and a single move may flood an
+     *                arbitrarily large part of the board. Must leave at least
+     *                one bomb in the board once rounded per chunk
+     * @param seed    seed the layout of the bombs is derived from
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public ChunkedBoard(int rows, int columns, double density, long seed) {
+        // Check for input validity
+        if (rows <= 0)
+            throw new IllegalArgumentException(TOO_FEW_ROWS);
+        if (columns <= 0)
+            throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+        if (!(density > 0 && density < 1))
+            throw new IllegalArgumentException(BAD_DENSITY);
+
+        // Store the specification and count the bombs without placing them
+        this.rows = rows;
+        this.columns = columns;
+        this.density = density;
+        this.seed = seed;
+        this.bombs = countBombs();
+        if (this.bombs == 0)
+            throw new IllegalArgumentException(TOO_FEW_BOMBS);
+
+        // Initialize board state
+        this.chunks = new HashMap<>();
+        this.gameOver = false;
+        this.gameWon = false;
+        this.correctFlags = 0;
+        this.wrongFlags = 0;
+        this.coveredSafeCells = (long) rows * columns - this.bombs;
+
+        // Initialize scratch space
+        this.shuffled = new int[CHUNK_SIZE * CHUNK_SIZE];
+        this.padded = new byte[PADDED_SIZE * PADDED_SIZE];
+        this.queue = new long[CHUNK_SIZE * CHUNK_SIZE];
+        this.lastKey = -1;
+        this.lastChunk = null;
+    }
+
+    /**
+     * Amount of bombs placed in a chunk of the given size.
+     *
+     * @param chunkRows    chunk's height
+     * @param chunkColumns chunk's width
+     * @return amount of bombs placed in the chunk
+     */
+    private int bombsPerChunk(int chunkRows, int chunkColumns) {
+        return (int) Math.round(this.density * chunkRows * chunkColumns);
+    }
+
+    /**
+     * Counts the bombs of the whole board, grouping the chunks by their size: full
+     * chunks, chunks cut by the right or bottom edges, and the corner chunk.
+     *
+     * @return amount of bombs in the board
+     */
+    private long countBombs() {
+        long fullRows = this.rows >>> CHUNK_BITS;
+        long fullColumns = this.columns >>> CHUNK_BITS;
+        int lastRows = this.rows & CHUNK_MASK;
+        int lastColumns = this.columns & CHUNK_MASK;
+        long count = fullRows * fullColumns * bombsPerChunk(CHUNK_SIZE, CHUNK_SIZE);
+        if (lastColumns > 0)
+            count += fullRows * bombsPerChunk(CHUNK_SIZE, lastColumns);
+        if (lastRows > 0)
+            count += fullColumns * bombsPerChunk(lastRows, CHUNK_SIZE);
+        if (lastRows > 0 && lastColumns > 0)
+            count += bombsPerChunk(lastRows, lastColumns);
+        return count;
+    }
+
+    /**
+     * Check whether a coordinate maps to a valid cell inside the board.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return whether the given position is valid
+     */
+    private boolean validPosition(int row, int column) {
+        return row >= 0 && column >= 0 && row < this.rows && column < this.columns;
+    }
+
+    /**
+     * Gets the chunk containing the given cell, allocating it and placing its bombs
+     * if it was never touched before.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return the chunk containing the cell
+     */
+    private Chunk chunk(int row, int column) {
+        // Most lookups hit the same chunk as the previous one
+        int chunkRow = row >>> CHUNK_BITS;
+        int chunkColumn = column >>> CHUNK_BITS;
+        long key = ((long) chunkRow << 32) | chunkColumn;
+        if (key == this.lastKey)
+            return this.lastChunk;
+
+        // Allocate the chunk if needed
+        Chunk chunk = this.chunks.get(key);
+        if (chunk == null) {
+            int chunkRows = Math.min(CHUNK_SIZE, this.rows - (chunkRow << CHUNK_BITS));
+            int chunkColumns = Math.min(CHUNK_SIZE, this.columns - (chunkColumn << CHUNK_BITS));
+            chunk = new Chunk(chunkRows, chunkColumns);
+            placeBombs(chunk, bombsPerChunk(chunkRows, chunkColumns), Random.derivedSeed(this.seed, key));
+            this.chunks.put(key, chunk);
+        }
+
+        // Remember it for the next lookup
+        this.lastKey = key;
+        this.lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Places the given amount of bombs randomly in a chunk using a partial
+     * Fisher-Yates shuffle of its cells.
+     *
+     * @param chunk the chunk to populate
+     * @param bombs amount of bombs to place
+     * @param seed  seed of the chunk's generator
+     */
+    private void placeBombs(Chunk chunk, int bombs, long seed) {
+        int size = chunk.cells.length;
+        for (int i = 0; i < size; ++i)
+            this.shuffled[i] = i;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < bombs; ++i) {
+            int j = i + random.nextInt(size - i);
+            int tmp = this.shuffled[j];
+            this.shuffled[j] = this.shuffled[i];
+            this.shuffled[i] = tmp;
+            chunk.cells[tmp] = Board.BOMB;
+        }
+    }
+
+    /**
+     * Checks if the given cell contains a bomb, allocating its chunk if needed.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return whether the cell contains a bomb. False outside of the board
+     */
+    private boolean hasBomb(int row, int column) {
+        if (!validPosition(row, column))
+            return false;
+        Chunk chunk = chunk(row, column);
+        return (chunk.cells[(row & CHUNK_MASK) * chunk.columns + (column & CHUNK_MASK)] & Board.BOMB) != 0;
+    }
+
+    /**
+     * Gets the chunk containing the given cell with the adjacent counters of all of
+     * its cells computed. Counting needs the bombs on the borders of the
+     * surrounding chunks, so it allocates them as well.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return the chunk containing the cell, ready to be uncovered
+     */
+    private Chunk countedChunk(int row, int column) {
+        Chunk chunk = chunk(row, column);
+        if (chunk.counted)
+            return chunk;
+
+        // Copy the bombs of the chunk and its one-cell frame into the padded grid
+        int top = row & ~CHUNK_MASK;
+        int left = column & ~CHUNK_MASK;
+        int chunkRows = chunk.cells.length / chunk.columns;
+        int chunkColumns = chunk.columns;
+        Arrays.fill(this.padded, (byte) 0);
+        for (int i = -1; i <= chunkRows; ++i)
+            for (int j = -1; j <= chunkColumns; ++j) {
+                boolean inside = i >= 0 && j >= 0 && i < chunkRows && j < chunkColumns;
+                boolean bomb = inside ? (chunk.cells[i * chunkColumns + j] & Board.BOMB) != 0
+                        : hasBomb(top + i, left + j);
+                if (bomb)
+                    this.padded[(i + 1) * PADDED_SIZE + j + 1] = 1;
+            }
+
+        // Count the bombs around every cell of the chunk
+        for (int i = 0; i < chunkRows; ++i)
+            for (int j = 0; j < chunkColumns; ++j) {
+                int center = (i + 1) * PADDED_SIZE + j + 1;
+                int counter = 0;
+                for (int k = 0; k < Topology.ROW_DISPLACEMENTS.length; ++k)
+                    counter += this.padded[center + Topology.ROW_DISPLACEMENTS[k] * PADDED_SIZE
+                            + Topology.COLUMN_DISPLACEMENTS[k]];
+                chunk.cells[i * chunkColumns + j] |= counter;
+            }
+        chunk.counted = true;
+        return chunk;
+    }
+
+    /**
+     * Gets the packed state of the cell at the position specified by the given
+     * coordinates (row, column), with its adjacent counter computed.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return the packed state of the cell
+     */
+    int cellAt(int row, int column) {
+        Chunk chunk = countedChunk(row, column);
+        return chunk.cells[(row & CHUNK_MASK) * chunk.columns + (column & CHUNK_MASK)];
+    }
+
+    /**
+     * Appends a location to the work queue, growing it if needed.
+     *
+     * @param tail     amount of locations already in the work queue
+     * @param location location (row * columns + column) to append
+     * @return the amount of locations in the work queue afterwards
+     */
+    private int enqueue(int tail, long location) {
+        if (tail == this.queue.length)
+            this.queue = Arrays.copyOf(this.queue, 2 * tail);
+        this.queue[tail] = location;
+        return tail + 1;
+    }
+
+    /**
+     * Uncovers the cell at the position specified by the given coordinates (row,
+     * column). If the now uncovered cell does not have any adjacent bombs, the
+     * adjacent cells are uncovered automatically, and so on, across as many chunks
+     * as needed. Unlike {@link Board}, losing does not uncover every bomb, since
+     * that would require allocating the whole board.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value
+     * @return the locations (row * columns + column) of all the cells uncovered by
+     *         this move. Empty if the cell could not be uncovered
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public long[] uncoverCell(int row, int column) throws InvalidActivityException {
+        // Check if game is not already finished
+        if (this.gameOver)
+            throw new InvalidActivityException(GAME_OVER);
+
+        // Check if the input cell is valid
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+
+        // Only uncovered and non-flagged cells can be uncovered
+        Chunk chunk = countedChunk(row, column);
+        int local = (row & CHUNK_MASK) * chunk.columns + (column & CHUNK_MASK);
+        int cell = chunk.cells[local];
+        if ((cell & (Board.UNCOVERED | Board.FLAGGED)) != 0)
+            return NO_CELLS;
+        chunk.cells[local] |= Board.UNCOVERED;
+
+        // If the game is now lost, quit
+        long location = (long) row * this.columns + column;
+        if ((cell & Board.BOMB) != 0) {
+            this.gameOver = true;
+            this.gameWon = false;
+            return new long[] { location };
+        }
+
+        // Flood the region around the cell while there are no adjacent bombs
+        int head = 0;
+        int tail = enqueue(0, location);
+        while (head < tail) {
+            long next = this.queue[head++];
+            int nextRow = (int) (next / this.columns);
+            int nextColumn = (int) (next % this.columns);
+            chunk = countedChunk(nextRow, nextColumn);
+            if ((chunk.cells[(nextRow & CHUNK_MASK) * chunk.columns + (nextColumn & CHUNK_MASK)]
+                    & Board.COUNT_MASK) != 0)
+                continue;
+
+            // No adjacent bombs, so every covered and non-flagged neighbour is safe
+            for (int i = 0; i < Topology.ROW_DISPLACEMENTS.length; ++i) {
+                int tmpRow = nextRow + Topology.ROW_DISPLACEMENTS[i];
+                int tmpColumn = nextColumn + Topology.COLUMN_DISPLACEMENTS[i];
+                if (!validPosition(tmpRow, tmpColumn))
+                    continue;
+                chunk = countedChunk(tmpRow, tmpColumn);
+                local = (tmpRow & CHUNK_MASK) * chunk.columns + (tmpColumn & CHUNK_MASK);
+                if ((chunk.cells[local] & (Board.UNCOVERED | Board.FLAGGED)) == 0) {
+                    chunk.cells[local] |= Board.UNCOVERED;
+                    tail = enqueue(tail, (long) tmpRow * this.columns + tmpColumn);
+                }
+            }
+        }
+
+        // If every safe cell is now uncovered, the game is won
+        this.coveredSafeCells -= tail;
+        if (this.coveredSafeCells == 0) {
+            this.gameOver = true;
+            this.gameWon = true;
+        }
+        return Arrays.copyOf(this.queue, tail);
+    }
+
+    /**
+     * Toggles the flagged state of the cell at the position specified by the given
+     * coordinates (row, column). That is, if the cell is not flagged before calling
+     * this method, it will be flagged after it runs, and viceversa.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public void toggleCellFlag(int row, int column) throws InvalidActivityException {
+        // Check if game is not already finished
+        if (this.gameOver)
+            throw new InvalidActivityException(GAME_OVER);
+
+        // Check if the input cell is valid
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+
+        // Toggle the flag and keep track of how many flags are (in)correct
+        Chunk chunk = chunk(row, column);
+        int local = (row & CHUNK_MASK) * chunk.columns + (column & CHUNK_MASK);
+        int cell = chunk.cells[local] ^= Board.FLAGGED;
+        int delta = (cell & Board.FLAGGED) != 0 ? 1 : -1;
+        if ((cell & Board.BOMB) != 0)
+            this.correctFlags += delta;
+        else
+            this.wrongFlags += delta;
+
+        // If the game is now won, quit
+        if (this.correctFlags == this.bombs && this.wrongFlags == 0) {
+            this.gameOver = true;
+            this.gameWon = true;
+        }
+    }
+
+    /**
+     * Gets the board's height.
+     *
+     * @return the board's height
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the board's width.
+     *
+     * @return the board's width
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Gets the total amount of bombs in the board, most of which are never
+     * actually placed.
+     *
+     * @return the amount of bombs in the board
+     */
+    public long getBombs() {
+        return this.bombs;
+    }
+
+    /**
+     * Gets the amount of chunks allocated so far, which is what the memory used by
+     * the board is proportional to.
+     *
+     * @return the amount of chunks allocated so far
+     */
+    public int loadedChunks() {
+        return this.chunks.size();
+    }
+
+    /**
+     * Checks if the game has already finished.
+     *
+     * @return whether the game has already finished
+     */
+    public boolean isGameOver() {
+        return this.gameOver;
+    }
+
+    /**
+     * Checks if the user game has already won the game.
+     *
+     * @return whether the user game has already won the game
+     */
+    public boolean isGameWon() {
+        return this.gameWon;
+    }
+}
@@ -0,0 +1,434 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.util.Random;
+
+/**
+ * Represents a gameboard shared by many players moving at the same time, for
+ * cooperative games on large boards. Every cell keeps the packed state of
+ * {@link Board} in an atomic array and moves change it with compare-and-set, so
+ * there are no locks: moves on different cells never wait for each other, and
+ * a flood fill claims every cell it uncovers one at a time, no matter how many
+ * regions of the board it crosses. A cell is only ever uncovered by a single
+ * move, so the cells uncovered by all the moves add up exactly.
+ * <p>
+ * The game ends exactly once, when the first move that hits a bomb, uncovers
+ * the last safe cell or flags the last bomb switches it over; every move starting
+ * afterwards is refused. Moves already under way when the game ends still
+ * finish. The flag counters are updated right after each flag's cell, so a win
+ * by flagging is decided by the counters at the time of the last flag.
+ * <p>
+ * Bombs are placed like {@link Board} places them, so the same seed produces the
+ * same layout, but boards are not limited to {@link Board#MAX_ROWS_EXCLUSIVE}
+ * rows and {@link Board#MAX_COLUMNS_EXCLUSIVE} columns. Cells are reported as
+ * {@link Board#visibleCell(int, int)} reports them.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class ConcurrentBoard {
+    // IllegalArgumentException messages
+    private static final String TOO_FEW_ROWS = "rows must be positive";
+    private static final String TOO_FEW_COLUMNS = "columns must be positive";
+    private static final String TOO_FEW_BOMBS = "bombs must be positive";
+    private static final String TOO_MANY_CELLS = "rows * columns must fit in an int";
+    private static final String TOO_MANY_BOMBS = "bombs cannot be greater than the total number of cells";
+    private static final String INVALID_CELL = "invalid cell coordinates";
+    private static final String REPEATED_BOMB = "bomb locations must be unique";
+    private static final String GAME_OVER = "game already finished";
+
+    // Game states
+    private static final int PLAYING = 0;
+    private static final int LOST = 1;
+    private static final int WON = 2;
+
+    // The flag counters share a long: correct flags times 2^32 plus wrong flags
+    private static final long CORRECT_FLAG = 1L << 32;
+    private static final long WRONG_FLAG = 1L;
+
+    // Work stack of the flood fills of every thread, grown as needed
+    private static final ThreadLocal<int[]> STACKS = ThreadLocal.withInitial(() -> new int[64]);
+
+    // Board specification
+    private final int rows;
+    private final int columns;
+    private final int bombs;
+    private final long seed;
+    private final int[] bombLocations;
+
+    // Board state
+    private final AtomicIntegerArray cells;
+    private final AtomicInteger state;
+    private final AtomicInteger coveredSafeCells;
+    private final AtomicLong flags;
+
+    /**
+     * Creates a new shared game board with bombs randomly placed from the given
+     * seed, exactly where {@link Board#Board(int, int, int, long)} places them.
+     *
+     * @param rows    board's height. Must be positive
+     * @param columns board's width. Must be positive, and rows * columns must fit
+     *                in an {@code int}
+     * @param bombs   amount of bombs to randomly place on the board. Must be
+     *                positive and less than or equal to rows * columns
+     * @param seed    seed the bomb locations are generated from
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public ConcurrentBoard(int rows, int columns, int bombs, long seed) {
+        this(rows, columns, bombs, seed, null);
+    }
+
+    /**
+     * Creates a new shared game board with bombs at the given locations.
+     *
+     * @param rows          board's height. Must be positive
+     * @param columns       board's width. Must be positive, and rows * columns
+     *                      must fit in an {@code int}
+     * @param bombLocations the unique locations (row * columns + column) of the
+     *                      bombs. There must be at least one
+     * @throws IllegalArgumentException if the parameter's restrictions are not
+     *                                  followed
+     */
+    public ConcurrentBoard(int rows, int columns, int[] bombLocations) {
+        this(rows, columns, bombLocations.length, 0, bombLocations.clone());
+    }
+
+    /**
+     * Creates a new shared game board, drawing the bomb locations from the seed
+     * unless they are given.
+     *
+     * @param rows          board's height
+     * @param columns       board's width
+     * @param bombs         amount of bombs on the board
+     * @param seed          seed the bomb locations are generated from
+     * @param bombLocations the locations of the bombs, or null to draw them
+     * @throws IllegalArgumentException if the board's specification is invalid
+     */
+    private ConcurrentBoard(int rows, int columns, int bombs, long seed, int[] bombLocations) {
+        // Check for input validity
+        if (rows <= 0)
+            throw new IllegalArgumentException(TOO_FEW_ROWS);
+        if (columns <= 0)
+            throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+        if (bombs <= 0)
+            throw new IllegalArgumentException(TOO_FEW_BOMBS);
+        if ((long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(TOO_MANY_CELLS);
+        if (bombs > rows * columns)
+            throw new IllegalArgumentException(TOO_MANY_BOMBS);
+
+        // Store the specification
+        this.rows = rows;
+        this.columns = columns;
+        this.bombs = bombs;
+        this.seed = seed;
+        this.bombLocations = bombLocations != null ? bombLocations
+                : Random.sampleUniqueInts(bombs, 0, rows * columns, new SplittableRandom(seed));
+
+        // Place the bombs and count them before sharing the cells
+        int[] cells = new int[rows * columns];
+        for (int bomb1D : this.bombLocations) {
+            if (bomb1D < 0 || bomb1D >= cells.length)
+                throw new IllegalArgumentException(INVALID_CELL);
+            if ((cells[bomb1D] & Board.BOMB) != 0)
+                throw new IllegalArgumentException(REPEATED_BOMB);
+            cells[bomb1D] |= Board.BOMB;
+            int row = bomb1D / columns;
+            int column = bomb1D % columns;
+            for (int i = 0; i < Topology.ROW_DISPLACEMENTS.length; ++i) {
+                int tmpRow = row + Topology.ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + Topology.COLUMN_DISPLACEMENTS[i];
+                if (validPosition(tmpRow, tmpColumn))
+                    ++cells[tmpRow * columns + tmpColumn];
+            }
+        }
+
+        // Initialize board state
+        this.cells = new AtomicIntegerArray(cells);
+        this.state = new AtomicInteger(PLAYING);
+        this.coveredSafeCells = new AtomicInteger(rows * columns - bombs);
+        this.flags = new AtomicLong();
+    }
+
+    /**
+     * Checks whether the given coordinates (row, column) are valid in the board.
+     *
+     * @param row    the row (y-value)
+     * @param column the column (x-value)
+     * @return whether the position specified by the coordinates is valid
+     */
+    private boolean validPosition(int row, int column) {
+        return row >= 0 && column >= 0 && row < this.rows && column < this.columns;
+    }
+
+    /**
+     * Gets the packed state of the cell at the given location.
+     *
+     * @param location the cell's location (row * columns + column)
+     * @return the packed state of the cell
+     */
+    int cellAt(int location) {
+        return this.cells.get(location);
+    }
+
+    /**
+     * Uncovers the cell at the given location if it is still covered and not
+     * flagged, unless another move gets to it first.
+     *
+     * @param location the cell's location (row * columns + column)
+     * @return the packed state of the cell before this move uncovered it, or -1 if
+     *         it was not uncovered by this move
+     */
+    private int claim(int location) {
+        int cell;
+        do {
+            cell = this.cells.get(location);
+            if ((cell & (Board.UNCOVERED | Board.FLAGGED)) != 0)
+                return -1;
+        } while (!this.cells.compareAndSet(location, cell, cell | Board.UNCOVERED));
+        return cell;
+    }
+
+    /**
+     * Marks all the cells in the board that contain bombs as uncovered, skipping
+     * the ones other moves uncover first.
+     *
+     * @return the amount of bombs uncovered by this call
+     */
+    private int uncoverAllBombs() {
+        int uncovered = 0;
+        for (int bomb1D : this.bombLocations)
+            if (claimBomb(bomb1D))
+                ++uncovered;
+        return uncovered;
+    }
+
+    /**
+     * Uncovers the bomb at the given location, flagged or not.
+     *
+     * @param bomb1D the location (row * columns + column) of the bomb
+     * @return whether the bomb was uncovered by this call
+     */
+    private boolean claimBomb(int bomb1D) {
+        int cell;
+        do {
+            cell = this.cells.get(bomb1D);
+            if ((cell & Board.UNCOVERED) != 0)
+                return false;
+        } while (!this.cells.compareAndSet(bomb1D, cell, cell | Board.UNCOVERED));
+        return true;
+    }
+
+    /**
+     * Keeps uncovering the neighbours of the uncovered cells that do not have any
+     * adjacent bombs, depth-first, starting from a cell this move already
+     * uncovered. Cells claimed by other moves are left to them.
+     *
+     * @param start location (row * columns + column) of the first cell
+     * @param cell  packed state of the first cell before it was uncovered
+     * @return the amount of cells uncovered by this move, the first one included
+     */
+    private int floodFill(int start, int cell) {
+        if ((cell & Board.COUNT_MASK) != 0)
+            return 1;
+        int[] stack = STACKS.get();
+        int size = 0;
+        int uncovered = 1;
+        stack[size++] = start;
+        while (size > 0) {
+            // No adjacent bombs, so every covered and non-flagged neighbour is safe
+            int location = stack[--size];
+            int row = location / this.columns;
+            int column = location % this.columns;
+            for (int i = 0; i < Topology.ROW_DISPLACEMENTS.length; ++i) {
+                int tmpRow = row + Topology.ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + Topology.COLUMN_DISPLACEMENTS[i];
+                if (!validPosition(tmpRow, tmpColumn))
+                    continue;
+                int neighbour = tmpRow * this.columns + tmpColumn;
+                int previous = claim(neighbour);
+                if (previous < 0)
+                    continue;
+                ++uncovered;
+
+                // Only cells without adjacent bombs spread the fill
+                if ((previous & Board.COUNT_MASK) == 0) {
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, 2 * size);
+                        STACKS.set(stack);
+                    }
+                    stack[size++] = neighbour;
+                }
+            }
+        }
+        return uncovered;
+    }
+
+    /**
+     * Uncovers the cell at the position specified by the given coordinates (row,
+     * column). If the now uncovered cell does not have any adjacent bombs, all
+     * adjacent cells are uncovered automatically, and so on. Safe to call from any
+     * thread.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return the amount of cells uncovered by this move, including the bombs
+     *         uncovered when the move ends the game
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public int uncoverCell(int row, int column) throws InvalidActivityException {
+        // Check if game is not already finished
+        if (this.state.get() != PLAYING)
+            throw new InvalidActivityException(GAME_OVER);
+
+        // Check if the input cell is valid
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+
+        // Claim the cell unless it is a bomb, which loses the game
+        int location = row * this.columns + column;
+        int cell;
+        do {
+            cell = this.cells.get(location);
+            if ((cell & (Board.UNCOVERED | Board.FLAGGED)) != 0)
+                return 0;
+            if ((cell & Board.BOMB) != 0) {
+                if (!this.state.compareAndSet(PLAYING, LOST))
+                    throw new InvalidActivityException(GAME_OVER);
+                return uncoverAllBombs();
+            }
+        } while (!this.cells.compareAndSet(location, cell, cell | Board.UNCOVERED));
+
+        // Whoever uncovers the last safe cell wins the game
+        int uncovered = floodFill(location, cell);
+        if (this.coveredSafeCells.addAndGet(-uncovered) == 0 && this.state.compareAndSet(PLAYING, WON))
+            uncovered += uncoverAllBombs();
+        return uncovered;
+    }
+
+    /**
+     * Toggles the flagged state of the cell at the position specified by the given
+     * coordinates (row, column). Safe to call from any thread.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return whether the cell is flagged after this move
+     * @throws InvalidActivityException if the game already ended
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public boolean toggleCellFlag(int row, int column) throws InvalidActivityException {
+        // Check if game is not already finished
+        if (this.state.get() != PLAYING)
+            throw new InvalidActivityException(GAME_OVER);
+
+        // Check if the input cell is valid
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+
+        // Toggle the flag and keep track of how many flags are (in)correct
+        int location = row * this.columns + column;
+        int cell;
+        do
+            cell = this.cells.get(location);
+        while (!this.cells.compareAndSet(location, cell, cell ^ Board.FLAGGED));
+        boolean flagged = (cell & Board.FLAGGED) == 0;
+        long delta = (cell & Board.BOMB) != 0 ? CORRECT_FLAG : WRONG_FLAG;
+        long flags = this.flags.addAndGet(flagged ? delta : -delta);
+
+        // Whoever flags exactly the bombs wins the game
+        int wrongFlags = (int) flags;
+        long correctFlags = (flags - wrongFlags) / CORRECT_FLAG;
+        if (wrongFlags == 0 && correctFlags == this.bombs && this.state.compareAndSet(PLAYING, WON))
+            uncoverAllBombs();
+        return flagged;
+    }
+
+    /**
+     * Gets the state of the cell at the position specified by the given
+     * coordinates (row, column) as the players see it.
+     *
+     * @param row    cell's row (y-value)
+     * @param column cells's column (x-value)
+     * @return the cell's state, as {@link Board#visibleCell(int, int)} returns it
+     * @throws IllegalArgumentException if the specified position is invalid
+     */
+    public int visibleCell(int row, int column) {
+        if (!validPosition(row, column))
+            throw new IllegalArgumentException(INVALID_CELL);
+        int cell = this.cells.get(row * this.columns + column);
+        if ((cell & Board.UNCOVERED) == 0)
+            return (cell & Board.FLAGGED) != 0 ? Board.VISIBLE_FLAGGED : Board.VISIBLE_COVERED;
+        return (cell & Board.BOMB) != 0 ? Board.VISIBLE_BOMB : cell & Board.COUNT_MASK;
+    }
+
+    /**
+     * Gets the board's height.
+     *
+     * @return the board's height
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the board's width.
+     *
+     * @return the board's width
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Gets the amount of bombs in the board.
+     *
+     * @return the amount of bombs in the board
+     */
+    public int getBombs() {
+        return this.bombs;
+    }
+
+    /**
+     * Gets the seed the bomb locations were generated from.
+     *
+     * @return the seed of this board, or 0 if the bombs were given
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the amount of safe cells still covered.
+     *
+     * @return the amount of safe cells still covered
+     */
+    public int getCoveredSafeCells() {
+        return this.coveredSafeCells.get();
+    }
+
+    /**
+     * Checks if the game already ended.
+     *
+     * @return whether the game already ended
+     */
+    public boolean isGameOver() {
+        return this.state.get() != PLAYING;
+    }
+
+    /**
+     * Checks if the game was won.
+     *
+     * @return whether the game was won
+     */
+    public boolean isGameWon() {
+        return this.state.get() == WON;
+    }
+}
@@ -0,0 +1,214 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.activity.InvalidActivityException;
+
+/**
+ * Records the moves of a game played on a seeded board, so that the whole game
+ * can be replayed deterministically from the board's specification and seed
+ * alone.
+ * <p>
+ * Every move takes a single {@code int}: the cell's location (row * columns +
+ * column) shifted left by two bits, with the operation in the lower two bits. The
+ * binary format is a version byte, a byte telling whether the board is
+ * first-click-safe, the board's rows, columns and bombs as {@code int}s, its
+ * seed as a {@code long}, the amount of moves as an {@code int} and finally the
+ * moves themselves, all big-endian.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class MoveLog {
+    // Supported operations
+    public static final int UNCOVER = 0;
+    public static final int FLAG = 1;
+    public static final int CHORD = 2;
+
+    // Binary format
+    private static final byte VERSION = 3;
+    private static final int HEADER_BYTES = 2 + 3 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int OPERATION_BITS = 2;
+    private static final int OPERATION_MASK = (1 << OPERATION_BITS) - 1;
+
+    // IllegalArgumentException messages
+    private static final String INVALID_CELL = "invalid cell coordinates";
+    private static final String INVALID_OPERATION = "invalid operation code";
+    private static final String INVALID_FORMAT = "not a valid move log";
+    private static final String SEEDLESS_BOARD = "only boards placed from a seed can be logged";
+    private static final String NOT_GRID = "only grid boards can be logged";
+
+    // Game specification
+    private final int rows;
+    private final int columns;
+    private final int bombs;
+    private final long seed;
+    private final boolean firstClickSafe;
+
+    // Recorded moves
+    private int[] moves;
+    private int size;
+
+    /**
+     * Creates an empty move log for a game on a board with the given
+     * specifications.
+     *
+     * @param rows    board's height
+     * @param columns board's width
+     * @param bombs   amount of bombs in the board
+     * @param seed    seed the bomb locations are generated from
+     */
+    public MoveLog(int rows, int columns, int bombs, long seed) {
+        this(rows, columns, bombs, seed, false);
+    }
+
+    /**
+     * Creates an empty move log for a game on a board with the given
+     * specifications, which may be first-click-safe.
+     *
+     * @param rows           board's height
+     * @param columns        board's width
+     * @param bombs          amount of bombs in the board
+     * @param seed           seed the bomb locations are generated from
+     * @param firstClickSafe whether the board keeps the bombs away from the first
+     *                       uncovered cell
+     */
+    public MoveLog(int rows, int columns, int bombs, long seed, boolean firstClickSafe) {
+        this.rows = rows;
+        this.columns = columns;
+        this.bombs = bombs;
+        this.seed = seed;
+        this.firstClickSafe = firstClickSafe;
+        this.moves = new int[16];
+        this.size = 0;
+    }
+
+    /**
+     * Creates an empty move log for a game on the given board, which must not have
+     * been played yet.
+     *
+     * @param board the board the game is played on, a grid created from a seed
+     * @throws IllegalArgumentException if the board is not a grid or was not
+     *                                  created from a seed
+     */
+    public MoveLog(Board board) {
+        this(checkBoard(board).getRows(), board.getColumns(), board.getBombs(), board.getSeed(),
+                board.isFirstClickSafe());
+    }
+
+    /**
+     * Checks that a game on the given board can be logged, since replaying it
+     * needs a grid of the same size and the seed its bombs were placed from.
+     *
+     * @param board the board the game is played on
+     * @return the same board
+     * @throws IllegalArgumentException if the board is not a grid or was not
+     *                                  created from a seed
+     */
+    private static Board checkBoard(Board board) {
+        if (board.getTopology().getKind() != Topology.Kind.GRID)
+            throw new IllegalArgumentException(NOT_GRID);
+        if (!board.isSeeded())
+            throw new IllegalArgumentException(SEEDLESS_BOARD);
+        return board;
+    }
+
+    /**
+     * Records a new move.
+     *
+     * @param row       cell's row (y-value)
+     * @param column    cells's column (x-value)
+     * @param operation either {@link #UNCOVER}, {@link #FLAG} or {@link #CHORD}
+     * @throws IllegalArgumentException if the cell or the operation are invalid
+     */
+    public void record(int row, int column, int operation) {
+        // Check for input validity
+        if (row < 0 || column < 0 || row >= this.rows || column >= this.columns)
+            throw new IllegalArgumentException(INVALID_CELL);
+        if (operation != UNCOVER && operation != FLAG && operation != CHORD)
+            throw new IllegalArgumentException(INVALID_OPERATION);
+
+        // Append the encoded move, growing the storage if needed
+        if (this.size == this.moves.length)
+            this.moves = Arrays.copyOf(this.moves, 2 * this.size);
+        this.moves[this.size++] = (row * this.columns + column) << OPERATION_BITS | operation;
+    }
+
+    /**
+     * Gets the amount of moves recorded.
+     *
+     * @return the amount of moves recorded
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Plays the recorded game again on a new board generated from the same
+     * specifications and seed.
+     *
+     * @return the board in the state the recorded game left it
+     * @throws InvalidActivityException if a recorded move comes after the end of
+     *                                  the game
+     */
+    public Board replay() throws InvalidActivityException {
+        Board board = this.firstClickSafe ? Board.firstClickSafe(this.rows, this.columns, this.bombs, this.seed)
+                : new Board(this.rows, this.columns, this.bombs, this.seed);
+        int[] uncovered = new int[this.rows * this.columns];
+        for (int i = 0; i < this.size; ++i) {
+            int location = this.moves[i] >>> OPERATION_BITS;
+            int row = location / this.columns;
+            int column = location % this.columns;
+            int operation = this.moves[i] & OPERATION_MASK;
+            if (operation == FLAG)
+                board.toggleCellFlag(row, column);
+            else if (operation == CHORD)
+                board.chordCell(row, column, uncovered);
+            else
+                board.uncoverCell(row, column, uncovered);
+        }
+        return board;
+    }
+
+    /**
+     * Encodes the log in its binary format.
+     *
+     * @return the encoded log
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + this.size * Integer.BYTES);
+        buffer.put(VERSION).put((byte) (this.firstClickSafe ? 1 : 0));
+        buffer.putInt(this.rows).putInt(this.columns).putInt(this.bombs).putLong(this.seed);
+        buffer.putInt(this.size);
+        buffer.asIntBuffer().put(this.moves, 0, this.size);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a log from its binary format.
+     *
+     * @param bytes the encoded log
+     * @return the decoded log
+     * @throws IllegalArgumentException if the bytes are not a valid move log
+     */
+    public static MoveLog fromByteArray(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != VERSION)
+                throw new IllegalArgumentException(INVALID_FORMAT);
+            boolean firstClickSafe = buffer.get() != 0;
+            MoveLog log = new MoveLog(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getLong(),
+                    firstClickSafe);
+            int size = buffer.getInt();
+            if (size < 0 || (long) size * Integer.BYTES != buffer.remaining())
+                throw new IllegalArgumentException(INVALID_FORMAT);
+            log.moves = new int[Math.max(1, size)];
+            buffer.asIntBuffer().get(log.moves, 0, size);
+            log.size = size;
+            return log;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(INVALID_FORMAT);
+        }
+    }
+}
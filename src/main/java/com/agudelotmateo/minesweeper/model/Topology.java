@@ -0,0 +1,358 @@
+package com.agudelotmateo.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes which cells of a board are neighbours. The neighbours of every cell
+ * are listed once per shape in a flat table, as in a compressed sparse row
+ * matrix: the neighbours of the cell at a location (row * columns + column) are
+ * {@code neighbours[offsets[location]]} up to, but not including,
+ * {@code neighbours[offsets[location + 1]]}, in ascending order. Boards walk
+ * these slices instead of checking the bounds of every displacement, and every
+ * board of the same shape shares the same table, as long as it is smaller than
+ * {@link Board#MAX_ROWS_EXCLUSIVE} by {@link Board#MAX_COLUMNS_EXCLUSIVE}.
+ * Larger shapes get a table of their own every time, so that the shared tables
+ * stay bounded.
+ * <p>
+ * The shapes are always laid out as a grid of rows and columns, which is how
+ * boards store, render and address their cells:
+ * <ul>
+ * <li>{@link Kind#GRID}: the classic board, where every cell touches the up to
+ * 8 cells around it.</li>
+ * <li>{@link Kind#TORUS}: the same, but wrapping around the edges, so every cell
+ * has 8 neighbours on boards of at least 3x3.</li>
+ * <li>{@link Kind#HEXAGONAL}: hexagonal cells in offset rows, every odd row
+ * shifted half a cell to the right, so every cell touches up to 6 cells.</li>
+ * <li>{@link Kind#LAYERED}: a 3D board whose layers are stacked top to bottom
+ * as blocks of rows, where every cell touches the up to 6 cells sharing a face
+ * with it: left, right, up and down within its layer, and the same cell in the
+ * layers above and below.</li>
+ * </ul>
+ * Every cell has at most 8 neighbours, so that adjacent counters fit in a digit.
+ * The solvers only understand {@link Kind#GRID}.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public final class Topology {
+    /**
+     * The ways cells can touch each other.
+     */
+    public enum Kind {
+        GRID, TORUS, HEXAGONAL, LAYERED
+    }
+
+    // IllegalArgumentException messages
+    private static final String TOO_FEW_ROWS = "rows must be positive";
+    private static final String TOO_FEW_COLUMNS = "columns must be positive";
+    private static final String TOO_FEW_LAYERS = "layers must be positive";
+    private static final String UNEVEN_LAYERS = "rows must be split evenly among the layers";
+
+    // Displacements of the grid and the torus, shared with the chunked and
+    // concurrent boards
+    static final int[] ROW_DISPLACEMENTS = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    static final int[] COLUMN_DISPLACEMENTS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+
+    // Displacements of hexagonal cells in even and odd rows
+    private static final int[] HEXAGONAL_ROW_DISPLACEMENTS = { -1, -1, 0, 0, 1, 1 };
+    private static final int[] EVEN_COLUMN_DISPLACEMENTS = { -1, 0, -1, 1, -1, 0 };
+    private static final int[] ODD_COLUMN_DISPLACEMENTS = { 0, 1, -1, 1, 0, 1 };
+
+    // Most neighbours any cell can have
+    private static final int MAX_NEIGHBOURS = 8;
+
+    // Tables built so far, by shape, for shapes a board can hold
+    private static final ConcurrentHashMap<Long, Topology> SHAPES = new ConcurrentHashMap<>();
+
+    // Shape
+    private final Kind kind;
+    private final int layers;
+    private final int rows;
+    private final int columns;
+
+    // Neighbour table
+    final int[] offsets;
+    final int[] neighbours;
+    private final int maxDegree;
+
+    /**
+     * Builds the neighbour table of a shape.
+     *
+     * @param kind    the way cells touch each other
+     * @param layers  amount of layers, 1 unless layered
+     * @param rows    height of the whole board
+     * @param columns board's width
+     */
+    private Topology(Kind kind, int layers, int rows, int columns) {
+        this.kind = kind;
+        this.layers = layers;
+        this.rows = rows;
+        this.columns = columns;
+
+        // List the neighbours of every cell in turn, sorted and without repeating
+        // the ones reached twice when a torus wraps around a short side
+        int cells = rows * columns;
+        this.offsets = new int[cells + 1];
+        int[] neighbours = new int[cells * MAX_NEIGHBOURS];
+        int[] candidates = new int[MAX_NEIGHBOURS];
+        int total = 0;
+        int maxDegree = 0;
+        for (int location = 0; location < cells; ++location) {
+            int found = candidates(location, candidates);
+            Arrays.sort(candidates, 0, found);
+            int degree = 0;
+            for (int i = 0; i < found; ++i)
+                if (candidates[i] != location && (degree == 0 || candidates[degree - 1] != candidates[i]))
+                    candidates[degree++] = candidates[i];
+            System.arraycopy(candidates, 0, neighbours, total, degree);
+            total += degree;
+            this.offsets[location + 1] = total;
+            maxDegree = Math.max(maxDegree, degree);
+        }
+        this.neighbours = Arrays.copyOf(neighbours, total);
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * Lists the neighbours of a cell, unsorted and maybe repeated.
+     *
+     * @param location   the cell's location (row * columns + column)
+     * @param candidates where to write the neighbours' locations
+     * @return the amount of locations written
+     */
+    private int candidates(int location, int[] candidates) {
+        int row = location / this.columns;
+        int column = location % this.columns;
+        int count = 0;
+        switch (this.kind) {
+        case GRID:
+            for (int i = 0; i < ROW_DISPLACEMENTS.length; ++i) {
+                int tmpRow = row + ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
+                if (tmpRow >= 0 && tmpColumn >= 0 && tmpRow < this.rows && tmpColumn < this.columns)
+                    candidates[count++] = tmpRow * this.columns + tmpColumn;
+            }
+            break;
+        case TORUS:
+            for (int i = 0; i < ROW_DISPLACEMENTS.length; ++i) {
+                int tmpRow = Math.floorMod(row + ROW_DISPLACEMENTS[i], this.rows);
+                int tmpColumn = Math.floorMod(column + COLUMN_DISPLACEMENTS[i], this.columns);
+                candidates[count++] = tmpRow * this.columns + tmpColumn;
+            }
+            break;
+        case HEXAGONAL:
+            int[] columnDisplacements = row % 2 == 0 ? EVEN_COLUMN_DISPLACEMENTS : ODD_COLUMN_DISPLACEMENTS;
+            for (int i = 0; i < HEXAGONAL_ROW_DISPLACEMENTS.length; ++i) {
+                int tmpRow = row + HEXAGONAL_ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + columnDisplacements[i];
+                if (tmpRow >= 0 && tmpColumn >= 0 && tmpRow < this.rows && tmpColumn < this.columns)
+                    candidates[count++] = tmpRow * this.columns + tmpColumn;
+            }
+            break;
+        case LAYERED:
+            // Neighbours within the layer, then in the layers above and below
+            int rowsPerLayer = this.rows / this.layers;
+            int rowInLayer = row % rowsPerLayer;
+            if (rowInLayer > 0)
+                candidates[count++] = location - this.columns;
+            if (rowInLayer < rowsPerLayer - 1)
+                candidates[count++] = location + this.columns;
+            if (column > 0)
+                candidates[count++] = location - 1;
+            if (column < this.columns - 1)
+                candidates[count++] = location + 1;
+            if (row >= rowsPerLayer)
+                candidates[count++] = location - rowsPerLayer * this.columns;
+            if (row < this.rows - rowsPerLayer)
+                candidates[count++] = location + rowsPerLayer * this.columns;
+            break;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the shared table of a shape, building it on first use, or a new table
+     * if the shape is too large for a board.
+     *
+     * @param kind    the way cells touch each other
+     * @param layers  amount of layers, 1 unless layered
+     * @param rows    height of the whole board
+     * @param columns board's width
+     * @return the shape's topology
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    private static Topology of(Kind kind, int layers, int rows, int columns) {
+        if (rows <= 0)
+            throw new IllegalArgumentException(TOO_FEW_ROWS);
+        if (columns <= 0)
+            throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+        if (layers <= 0)
+            throw new IllegalArgumentException(TOO_FEW_LAYERS);
+        if (rows % layers != 0)
+            throw new IllegalArgumentException(UNEVEN_LAYERS);
+        if (rows >= Board.MAX_ROWS_EXCLUSIVE || columns >= Board.MAX_COLUMNS_EXCLUSIVE)
+            return new Topology(kind, layers, rows, columns);
+        long key = (long) kind.ordinal() << 60 | (long) layers << 40 | (long) rows << 20 | columns;
+        return SHAPES.computeIfAbsent(key, k -> new Topology(kind, layers, rows, columns));
+    }
+
+    /**
+     * Gets the classic topology, where every cell touches the up to 8 cells
+     * around it.
+     *
+     * @param rows    board's height. Must be positive
+     * @param columns board's width. Must be positive
+     * @return the shared topology of that shape
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    public static Topology grid(int rows, int columns) {
+        return of(Kind.GRID, 1, rows, columns);
+    }
+
+    /**
+     * Gets the topology wrapping around the edges, where every cell touches the 8
+     * cells around it on boards of at least 3x3.
+     *
+     * @param rows    board's height. Must be positive
+     * @param columns board's width. Must be positive
+     * @return the shared topology of that shape
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    public static Topology torus(int rows, int columns) {
+        return of(Kind.TORUS, 1, rows, columns);
+    }
+
+    /**
+     * Gets the topology of hexagonal cells in offset rows, where every cell
+     * touches up to 6 cells.
+     *
+     * @param rows    board's height. Must be positive
+     * @param columns board's width. Must be positive
+     * @return the shared topology of that shape
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    public static Topology hexagonal(int rows, int columns) {
+        return of(Kind.HEXAGONAL, 1, rows, columns);
+    }
+
+    /**
+     * Gets the topology of a 3D board, where every cell touches the up to 6 cells
+     * sharing a face with it. The layers are stacked top to bottom, so the board
+     * has layers * rowsPerLayer rows.
+     *
+     * @param layers       amount of layers. Must be positive
+     * @param rowsPerLayer height of every layer. Must be positive
+     * @param columns      board's width. Must be positive
+     * @return the shared topology of that shape
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    public static Topology layered(int layers, int rowsPerLayer, int columns) {
+        if (rowsPerLayer <= 0)
+            throw new IllegalArgumentException(TOO_FEW_ROWS);
+        return of(Kind.LAYERED, layers, layers * rowsPerLayer, columns);
+    }
+
+    /**
+     * Gets the row displacements from a cell of a grid to each of its eight
+     * neighbours, in the same order as {@link #gridColumnDisplacements()}.
+     *
+     * @return a copy of the row displacements
+     */
+    public static int[] gridRowDisplacements() {
+        return ROW_DISPLACEMENTS.clone();
+    }
+
+    /**
+     * Gets the column displacements from a cell of a grid to each of its eight
+     * neighbours, in the same order as {@link #gridRowDisplacements()}.
+     *
+     * @return a copy of the column displacements
+     */
+    public static int[] gridColumnDisplacements() {
+        return COLUMN_DISPLACEMENTS.clone();
+    }
+
+    /**
+     * Gets the topology of the same kind, and amount of layers, for another
+     * board size.
+     *
+     * @param rows    height of the whole board. Must be positive, and split
+     *                evenly among the layers
+     * @param columns board's width. Must be positive
+     * @return the shared topology of that shape, this one if unchanged
+     * @throws IllegalArgumentException if the shape is invalid
+     */
+    public Topology withShape(int rows, int columns) {
+        if (rows == this.rows && columns == this.columns)
+            return this;
+        return of(this.kind, this.layers, rows, columns);
+    }
+
+    /**
+     * Gets the amount of neighbours of a cell.
+     *
+     * @param location the cell's location (row * columns + column)
+     * @return the amount of neighbours
+     */
+    public int degree(int location) {
+        return this.offsets[location + 1] - this.offsets[location];
+    }
+
+    /**
+     * Gets a neighbour of a cell.
+     *
+     * @param location the cell's location (row * columns + column)
+     * @param index    index of the neighbour, from 0 to
+     *                 {@link #degree(int)} (exclusive), in ascending order of
+     *                 location
+     * @return the neighbour's location
+     */
+    public int neighbour(int location, int index) {
+        return this.neighbours[this.offsets[location] + index];
+    }
+
+    /**
+     * Gets the largest amount of neighbours of any cell.
+     *
+     * @return the largest amount of neighbours
+     */
+    public int getMaxDegree() {
+        return this.maxDegree;
+    }
+
+    /**
+     * Gets the way cells touch each other.
+     *
+     * @return the topology's kind
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Gets the amount of layers, which is 1 unless layered.
+     *
+     * @return the amount of layers
+     */
+    public int getLayers() {
+        return this.layers;
+    }
+
+    /**
+     * Gets the height of the whole board.
+     *
+     * @return the board's height
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the board's width.
+     *
+     * @return the board's width
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+}
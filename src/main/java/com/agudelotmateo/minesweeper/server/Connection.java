@@ -0,0 +1,113 @@
+package com.agudelotmateo.minesweeper.server;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.agudelotmateo.minesweeper.controller.Session;
+
+/**
+ * State of a single client connection: its channel, its game session, the line
+ * being read and the output waiting to be written.
+ *
+ * @author Mateo Agudelo Toro
+ */
+class Connection {
+    // Client
+    final long id;
+    final SocketChannel channel;
+    final Session session;
+
+    // Input line being read
+    private final byte[] line;
+    private int lineLength;
+
+    // Output waiting to be written
+    private final ByteArrayOutputStream output;
+    private ByteBuffer pending;
+
+    // Last time (System.nanoTime) anything was read from the client
+    volatile long lastActivity;
+
+    /**
+     * Creates the state of a new connection, greeting the client.
+     *
+     * @param id             connection's identifier
+     * @param channel        connection's channel
+     * @param maxLineLength  longest input line accepted
+     * @param firstClickSafe whether the session's board keeps its bombs away from
+     *                       the first cell uncovered
+     * @param now            current time, from System.nanoTime
+     */
+    Connection(long id, SocketChannel channel, int maxLineLength, boolean firstClickSafe, long now) {
+        this.id = id;
+        this.channel = channel;
+        this.session = new Session(firstClickSafe);
+        this.line = new byte[maxLineLength];
+        this.lineLength = 0;
+        this.output = new ByteArrayOutputStream();
+        this.pending = null;
+        this.lastActivity = now;
+        this.session.start(this.output);
+    }
+
+    /**
+     * Feeds the bytes read from the client to the session, one complete line at a
+     * time. Anything after the end of the game is ignored.
+     *
+     * @param input the bytes read, between its position and limit
+     * @param now   current time, from System.nanoTime
+     * @return false if a line was longer than allowed, true otherwise
+     */
+    boolean consume(ByteBuffer input, long now) {
+        this.lastActivity = now;
+        while (input.hasRemaining() && !this.session.isFinished()) {
+            byte b = input.get();
+            if (b == '\n') {
+                // Drop the carriage return of Windows-style line endings
+                int length = this.lineLength > 0 && this.line[this.lineLength - 1] == '\r' ? this.lineLength - 1
+                        : this.lineLength;
+                this.session.handleLine(new String(this.line, 0, length, StandardCharsets.US_ASCII), this.output);
+                this.lineLength = 0;
+            } else if (this.lineLength == this.line.length)
+                return false;
+            else
+                this.line[this.lineLength++] = b;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the output waiting to be written, moving everything produced since the
+     * last call after whatever was still pending.
+     *
+     * @return the pending output, possibly empty
+     */
+    ByteBuffer pendingOutput() {
+        if (this.output.size() > 0) {
+            byte[] produced = this.output.toByteArray();
+            this.output.reset();
+            if (this.pending == null || !this.pending.hasRemaining())
+                this.pending = ByteBuffer.wrap(produced);
+            else {
+                ByteBuffer merged = ByteBuffer.allocate(this.pending.remaining() + produced.length);
+                merged.put(this.pending).put(produced);
+                merged.flip();
+                this.pending = merged;
+            }
+        }
+        return this.pending == null ? ByteBuffer.allocate(0) : this.pending;
+    }
+
+    /**
+     * Checks if the game is over and all of its output was written, so the
+     * connection can be shut down.
+     *
+     * @return whether the connection is done
+     */
+    boolean isDone() {
+        return this.session.isFinished() && this.output.size() == 0
+                && (this.pending == null || !this.pending.hasRemaining());
+    }
+}
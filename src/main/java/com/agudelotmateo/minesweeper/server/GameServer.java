@@ -0,0 +1,254 @@
+package com.agudelotmateo.minesweeper.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts many simultaneous games over local TCP connections, speaking the same
+ * line-based protocol as the interactive driver: every connection first sends
+ * the board's specification and then one {@code row column M|U|C} command per
+ * line. A single thread multiplexes every connection through a selector, so a
+ * session only costs its board and a few buffers. Sessions that stay quiet for
+ * longer than the idle timeout are closed.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class GameServer implements Runnable, Closeable {
+    // Defaults
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAX_LINE_LENGTH = 256;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final long MAX_SELECT_MILLIS = 1000;
+
+    // IllegalArgumentException messages
+    private static final String INVALID_TIMEOUT = "idle timeout must be positive";
+
+    // Networking
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ByteBuffer readBuffer;
+
+    // Sessions
+    private final SessionRegistry registry;
+    private final long idleTimeoutNanos;
+    private final boolean firstClickSafe;
+    private volatile boolean running;
+
+    /**
+     * Creates a server listening on the loopback interface with the default idle
+     * timeout.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port) throws IOException {
+        this(port, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a server listening on the loopback interface, whose boards place
+     * their bombs as soon as they are created.
+     *
+     * @param port              the port to listen on, or 0 for any free port
+     * @param idleTimeoutMillis how long a session may go without sending anything
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, long idleTimeoutMillis) throws IOException {
+        this(port, idleTimeoutMillis, false);
+    }
+
+    /**
+     * Creates a server listening on the loopback interface.
+     *
+     * @param port              the port to listen on, or 0 for any free port
+     * @param idleTimeoutMillis how long a session may go without sending anything
+     * @param firstClickSafe    whether the boards keep their bombs away from the
+     *                          first cell uncovered
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, long idleTimeoutMillis, boolean firstClickSafe) throws IOException {
+        // Check for input validity
+        if (idleTimeoutMillis <= 0)
+            throw new IllegalArgumentException(INVALID_TIMEOUT);
+
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        this.registry = new SessionRegistry();
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.firstClickSafe = firstClickSafe;
+        this.running = true;
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the registry of live sessions.
+     *
+     * @return the session registry
+     */
+    public SessionRegistry getRegistry() {
+        return this.registry;
+    }
+
+    /**
+     * Runs the event loop until the server is closed, then closes every
+     * connection.
+     */
+    @Override
+    public void run() {
+        // Wake up often enough to evict idle sessions on time
+        long idleTimeoutMillis = TimeUnit.NANOSECONDS.toMillis(this.idleTimeoutNanos);
+        long selectMillis = Math.max(1, Math.min(MAX_SELECT_MILLIS, idleTimeoutMillis / 2));
+        long sweepNanos = TimeUnit.MILLISECONDS.toNanos(selectMillis);
+        long lastSweep = System.nanoTime();
+        try {
+            while (this.running) {
+                this.selector.select(selectMillis);
+
+                // Serve every ready channel
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept();
+                    else
+                        serve(key);
+                }
+
+                // Close the sessions that went quiet, sweeping at most once per select timeout
+                long now = System.nanoTime();
+                if (now - lastSweep < sweepNanos)
+                    continue;
+                lastSweep = now;
+                for (Connection idle : this.registry.evictIdle(now - this.idleTimeoutNanos))
+                    closeQuietly(idle);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : this.selector.keys())
+                if (key.attachment() instanceof Connection)
+                    closeQuietly((Connection) key.attachment());
+            try {
+                this.serverChannel.close();
+                this.selector.close();
+            } catch (IOException e) {
+                // Nothing else to do while shutting down
+            }
+        }
+    }
+
+    /**
+     * Accepts every pending connection, greeting each new client.
+     *
+     * @throws IOException if the server's channel fails
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = this.serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(this.registry.nextId(), channel, MAX_LINE_LENGTH,
+                    this.firstClickSafe, System.nanoTime());
+            SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+            this.registry.register(connection);
+            flush(key, connection);
+        }
+    }
+
+    /**
+     * Reads and writes whatever a client's channel is ready for, closing the
+     * connection once the client hangs up or on any error.
+     *
+     * @param key the client's selection key
+     */
+    private void serve(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                this.readBuffer.clear();
+                if (connection.channel.read(this.readBuffer) < 0) {
+                    closeQuietly(connection);
+                    return;
+                }
+                this.readBuffer.flip();
+                if (!connection.consume(this.readBuffer, System.nanoTime())) {
+                    closeQuietly(connection);
+                    return;
+                }
+            }
+            flush(key, connection);
+        } catch (IOException e) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Writes as much pending output as the channel takes. Stops reading from a
+     * client while its output is backed up, and shuts the connection's output
+     * down once the game is over and everything was written.
+     *
+     * @param key        the client's selection key
+     * @param connection the client's connection
+     * @throws IOException if writing fails
+     */
+    private void flush(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer output = connection.pendingOutput();
+        while (output.hasRemaining())
+            if (connection.channel.write(output) == 0)
+                break;
+        if (connection.isDone()) {
+            // Say bye, but keep draining the client's input until it hangs up, so
+            // that closing does not reset the connection under its last reads
+            connection.channel.shutdownOutput();
+            key.interestOps(SelectionKey.OP_READ);
+        } else
+            key.interestOps(output.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Closes a client's connection and forgets its session.
+     *
+     * @param connection the connection to close
+     */
+    private void closeQuietly(Connection connection) {
+        this.registry.unregister(connection);
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // The connection is gone either way
+        }
+    }
+
+    /**
+     * Stops the event loop, which closes every connection on its way out.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.selector.wakeup();
+    }
+}
@@ -0,0 +1,249 @@
+package com.agudelotmateo.minesweeper.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.agudelotmateo.minesweeper.controller.Session;
+import com.agudelotmateo.minesweeper.util.Random;
+
+/**
+ * Plays many games at once against a game server to measure its throughput and
+ * latency. Every simulated client plays its games one after the other, each on
+ * its own connection, uncovering the cells of a 9x9 board with 10 bombs in random
+ * order until the game is over.
+ * <p>
+ * Usage: {@code LoadGenerator <host> <port> <clients> <games per client>}.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class LoadGenerator {
+    // Played boards
+    private static final int ROWS = 9;
+    private static final int COLUMNS = 9;
+    private static final int BOMBS = 10;
+
+    // Target server and load
+    private final String host;
+    private final int port;
+    private final int clients;
+    private final int gamesPerClient;
+
+    // Results
+    private final AtomicLong games;
+    private final AtomicLong commands;
+    private long[] latencies;
+    private long elapsedNanos;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param host           server's host
+     * @param port           server's port
+     * @param clients        amount of simultaneous clients
+     * @param gamesPerClient amount of games every client plays
+     */
+    public LoadGenerator(String host, int port, int clients, int gamesPerClient) {
+        this.host = host;
+        this.port = port;
+        this.clients = clients;
+        this.gamesPerClient = gamesPerClient;
+        this.games = new AtomicLong();
+        this.commands = new AtomicLong();
+        this.latencies = new long[0];
+        this.elapsedNanos = 0;
+    }
+
+    /**
+     * Reads lines until one of the given ones shows up.
+     *
+     * @param in    the server's output
+     * @param lines the lines to wait for
+     * @return the line found
+     * @throws IOException if the connection fails or closes before
+     */
+    private static String readUntil(BufferedReader in, String... lines) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null)
+            for (String expected : lines)
+                if (line.equals(expected))
+                    return line;
+        throw new IOException("connection closed by the server");
+    }
+
+    /**
+     * Plays a single game on a new connection.
+     *
+     * @param random    source of the cells' order
+     * @param latencies where to append the latency of every command
+     * @param recorded  amount of latencies already recorded
+     * @return the latencies, possibly grown, holding the new ones too
+     * @throws IOException if the connection fails
+     */
+    private long[] playGame(SplittableRandom random, long[] latencies, int[] recorded) throws IOException {
+        try (Socket socket = new Socket(this.host, this.port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            // Create the board
+            readUntil(in, Session.INSTRUCTIONS);
+            out.write(String.format("%d %d %d\n", ROWS, COLUMNS, BOMBS).getBytes(StandardCharsets.US_ASCII));
+            readUntil(in, Session.PROMPT);
+
+            // Uncover every cell in random order, which surely ends the game
+            int[] cells = new int[ROWS * COLUMNS];
+            for (int i = 0; i < cells.length; ++i)
+                cells[i] = i;
+            Random.shuffle(cells, random);
+            for (int cell : cells) {
+                byte[] command = String.format("%d %d %s\n", cell / COLUMNS + 1, cell % COLUMNS + 1, Session.UNCOVER)
+                        .getBytes(StandardCharsets.US_ASCII);
+                long start = System.nanoTime();
+                out.write(command);
+                String last = readUntil(in, Session.PROMPT, Session.THANKS);
+                if (recorded[0] == latencies.length)
+                    latencies = Arrays.copyOf(latencies, Math.max(16, 2 * latencies.length));
+                latencies[recorded[0]++] = System.nanoTime() - start;
+                this.commands.incrementAndGet();
+                if (last.equals(Session.THANKS))
+                    break;
+            }
+        }
+        this.games.incrementAndGet();
+        return latencies;
+    }
+
+    /**
+     * Plays every game, blocking until all of them are over.
+     *
+     * @throws IOException          if any connection fails
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public void run() throws IOException, InterruptedException {
+        long[][] perClient = new long[this.clients][];
+        int[] recorded = new int[this.clients];
+        IOException[] failure = new IOException[1];
+        Thread[] threads = new Thread[this.clients];
+        long seed = ThreadLocalRandom.current().nextLong();
+
+        // Every client plays its games on its own thread
+        long start = System.nanoTime();
+        for (int i = 0; i < this.clients; ++i) {
+            int client = i;
+            threads[i] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed + client);
+                long[] latencies = new long[0];
+                int[] count = new int[1];
+                try {
+                    for (int game = 0; game < this.gamesPerClient; ++game)
+                        latencies = playGame(random, latencies, count);
+                } catch (IOException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+                perClient[client] = latencies;
+                recorded[client] = count[0];
+            }, "load-client-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        this.elapsedNanos = System.nanoTime() - start;
+        if (failure[0] != null)
+            throw failure[0];
+
+        // Merge every latency for the percentiles
+        int total = 0;
+        for (int count : recorded)
+            total += count;
+        this.latencies = new long[total];
+        int position = 0;
+        for (int i = 0; i < this.clients; ++i) {
+            System.arraycopy(perClient[i], 0, this.latencies, position, recorded[i]);
+            position += recorded[i];
+        }
+        Arrays.sort(this.latencies);
+    }
+
+    /**
+     * Gets the amount of games played.
+     *
+     * @return the amount of games played
+     */
+    public long getGames() {
+        return this.games.get();
+    }
+
+    /**
+     * Gets the amount of commands sent.
+     *
+     * @return the amount of commands sent
+     */
+    public long getCommands() {
+        return this.commands.get();
+    }
+
+    /**
+     * Gets the amount of games played per second during the last run.
+     *
+     * @return games per second
+     */
+    public double gamesPerSecond() {
+        return this.games.get() * 1e9 / Math.max(1, this.elapsedNanos);
+    }
+
+    /**
+     * Gets the amount of commands answered per second during the last run.
+     *
+     * @return commands per second
+     */
+    public double commandsPerSecond() {
+        return this.commands.get() * 1e9 / Math.max(1, this.elapsedNanos);
+    }
+
+    /**
+     * Gets a percentile of the commands' latency, from sending the command until
+     * reading the end of its response.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if no command was sent
+     */
+    public long latencyPercentile(double percentile) {
+        if (this.latencies.length == 0)
+            return 0;
+        int index = (int) Math.ceil(percentile / 100 * this.latencies.length) - 1;
+        return this.latencies[Math.min(this.latencies.length - 1, Math.max(0, index))];
+    }
+
+    /**
+     * Runs the load generator and prints its report.
+     *
+     * @param args host, port, clients and games per client
+     * @throws IOException          if any connection fails
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: LoadGenerator <host> <port> <clients> <games per client>");
+            System.exit(2);
+        }
+        LoadGenerator generator = new LoadGenerator(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]));
+        generator.run();
+        System.out.printf("%d games, %d commands%n", generator.getGames(), generator.getCommands());
+        System.out.printf("%.1f games/s, %.1f commands/s%n", generator.gamesPerSecond(),
+                generator.commandsPerSecond());
+        System.out.printf("latency p50 %.1f us, p99 %.1f us%n", generator.latencyPercentile(50) / 1e3,
+                generator.latencyPercentile(99) / 1e3);
+    }
+}
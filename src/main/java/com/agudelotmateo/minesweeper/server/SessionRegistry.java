@@ -0,0 +1,88 @@
+package com.agudelotmateo.minesweeper.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the live sessions of a server, so that the ones whose clients
+ * went quiet can be evicted. Safe to query from any thread.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class SessionRegistry {
+    // Live connections, keyed by their identifier
+    private final ConcurrentHashMap<Long, Connection> connections;
+    private final AtomicLong nextId;
+    private final AtomicLong evicted;
+
+    /**
+     * Creates an empty registry.
+     */
+    public SessionRegistry() {
+        this.connections = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong();
+        this.evicted = new AtomicLong();
+    }
+
+    /**
+     * Hands out the identifier of a new session.
+     *
+     * @return a never used before identifier
+     */
+    long nextId() {
+        return this.nextId.getAndIncrement();
+    }
+
+    /**
+     * Adds a live connection.
+     *
+     * @param connection the connection to add
+     */
+    void register(Connection connection) {
+        this.connections.put(connection.id, connection);
+    }
+
+    /**
+     * Removes a connection, if still registered.
+     *
+     * @param connection the connection to remove
+     */
+    void unregister(Connection connection) {
+        this.connections.remove(connection.id);
+    }
+
+    /**
+     * Removes every connection that has not sent anything since the given time.
+     *
+     * @param idleSince time (System.nanoTime) before which connections are idle
+     * @return the removed connections, which are left for the caller to close
+     */
+    List<Connection> evictIdle(long idleSince) {
+        List<Connection> idle = new ArrayList<>();
+        for (Connection connection : this.connections.values())
+            if (connection.lastActivity - idleSince < 0 && this.connections.remove(connection.id, connection))
+                idle.add(connection);
+        this.evicted.addAndGet(idle.size());
+        return idle;
+    }
+
+    /**
+     * Gets the amount of live sessions.
+     *
+     * @return the amount of live sessions
+     */
+    public int size() {
+        return this.connections.size();
+    }
+
+    /**
+     * Gets the amount of sessions evicted for being idle so far.
+     *
+     * @return the amount of sessions evicted
+     */
+    public long getEvicted() {
+        return this.evicted.get();
+    }
+}
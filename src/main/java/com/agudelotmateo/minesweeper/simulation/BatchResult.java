@@ -0,0 +1,130 @@
+package com.agudelotmateo.minesweeper.simulation;
+
+/**
+ * Aggregated outcome of a batch of games.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class BatchResult {
+    private final long games;
+    private final long wins;
+    private final long moves;
+    private final long reveals;
+    private final long gameNanos;
+    private final long wallNanos;
+
+    /**
+     * Creates the outcome of a batch.
+     *
+     * @param games     amount of games played
+     * @param wins      amount of games won
+     * @param moves     amount of moves made over all games
+     * @param reveals   amount of safe cells uncovered over all games
+     * @param gameNanos time spent generating and playing games, summed over all
+     *                  threads
+     * @param wallNanos time the whole batch took
+     */
+    public BatchResult(long games, long wins, long moves, long reveals, long gameNanos, long wallNanos) {
+        this.games = games;
+        this.wins = wins;
+        this.moves = moves;
+        this.reveals = reveals;
+        this.gameNanos = gameNanos;
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Gets the amount of games played.
+     *
+     * @return the amount of games played
+     */
+    public long getGames() {
+        return this.games;
+    }
+
+    /**
+     * Gets the amount of games won.
+     *
+     * @return the amount of games won
+     */
+    public long getWins() {
+        return this.wins;
+    }
+
+    /**
+     * Gets the amount of moves made over all games.
+     *
+     * @return the amount of moves made
+     */
+    public long getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * Gets the amount of safe cells uncovered over all games.
+     *
+     * @return the amount of safe cells uncovered
+     */
+    public long getReveals() {
+        return this.reveals;
+    }
+
+    /**
+     * Gets the time spent generating and playing games, summed over all threads.
+     *
+     * @return the time spent on games, in nanoseconds
+     */
+    public long getGameNanos() {
+        return this.gameNanos;
+    }
+
+    /**
+     * Gets the time the whole batch took.
+     *
+     * @return the batch's wall-clock time, in nanoseconds
+     */
+    public long getWallNanos() {
+        return this.wallNanos;
+    }
+
+    /**
+     * Gets the fraction of games won.
+     *
+     * @return the win rate, between 0 and 1
+     */
+    public double winRate() {
+        return this.games == 0 ? 0 : (double) this.wins / this.games;
+    }
+
+    /**
+     * Gets the amount of games played per wall-clock second.
+     *
+     * @return games per second
+     */
+    public double gamesPerSecond() {
+        return this.games * 1e9 / Math.max(1, this.wallNanos);
+    }
+
+    /**
+     * Checks whether another result describes the same games, ignoring timings.
+     *
+     * @param other the other result
+     * @return whether both batches played out the same way
+     */
+    public boolean sameGames(BatchResult other) {
+        return this.games == other.games && this.wins == other.wins && this.moves == other.moves
+                && this.reveals == other.reveals;
+    }
+
+    /**
+     * String representation of the result.
+     *
+     * @return String representation of the result
+     */
+    @Override
+    public String toString() {
+        return String.format("%d games, %.2f%% won, %.2f moves/game, %.2f reveals/game, %.1f games/s", this.games,
+                100 * winRate(), (double) this.moves / Math.max(1, this.games),
+                (double) this.reveals / Math.max(1, this.games), gamesPerSecond());
+    }
+}
@@ -0,0 +1,197 @@
+package com.agudelotmateo.minesweeper.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.util.Random;
+
+/**
+ * Generates and plays many independent games in parallel on a fork-join pool.
+ * <p>
+ * Every game draws its board and its moves from its own generator, seeded from
+ * the batch's seed and the game's index alone, so a batch plays out exactly the
+ * same regardless of the amount of threads or how the work got split. Each
+ * split of the work plays its games with its own strategy instance and adds its
+ * totals to lock-free accumulators once, so threads never contend per game.
+ * <p>
+ * Usage: {@code BatchRunner <rows> <columns> <bombs> <games> [seed]}, which
+ * plays the batch with the solver at every parallelism up to the amount of
+ * available processors.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class BatchRunner {
+    // Games played by a single task without splitting further
+    private static final int GAMES_PER_TASK = 64;
+
+    // IllegalArgumentException messages
+    private static final String TOO_FEW_GAMES = "games cannot be negative";
+
+    // Batch specification
+    private final ForkJoinPool pool;
+    private final int rows;
+    private final int columns;
+    private final int bombs;
+    private final Supplier<? extends PlayerStrategy> strategies;
+
+    /**
+     * Creates a batch runner.
+     *
+     * @param pool       the pool to play on
+     * @param rows       boards' height
+     * @param columns    boards' width
+     * @param bombs      amount of bombs in every board
+     * @param strategies creates the strategy every split of the work plays with
+     */
+    public BatchRunner(ForkJoinPool pool, int rows, int columns, int bombs,
+            Supplier<? extends PlayerStrategy> strategies) {
+        this.pool = pool;
+        this.rows = rows;
+        this.columns = columns;
+        this.bombs = bombs;
+        this.strategies = strategies;
+    }
+
+    /**
+     * Lock-free totals of a batch.
+     */
+    private static class Totals {
+        final LongAdder games = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final LongAdder moves = new LongAdder();
+        final LongAdder reveals = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    /**
+     * Plays a range of games, splitting it in halves while it is too big.
+     */
+    private class GamesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final long from;
+        private final long to;
+        private final Totals totals;
+
+        GamesTask(long seed, long from, long to, Totals totals) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > GAMES_PER_TASK) {
+                long middle = (this.from + this.to) >>> 1;
+                invokeAll(new GamesTask(this.seed, this.from, middle, this.totals),
+                        new GamesTask(this.seed, middle, this.to, this.totals));
+                return;
+            }
+
+            // Play every game in the range, keeping the totals locally
+            PlayerStrategy strategy = BatchRunner.this.strategies.get();
+            long wins = 0;
+            long moves = 0;
+            long reveals = 0;
+            long start = System.nanoTime();
+            Board board = null;
+            try {
+                for (long game = this.from; game < this.to; ++game) {
+                    // Recycle the board of the previous game
+                    SplittableRandom random = new SplittableRandom(Random.derivedSeed(this.seed, game));
+                    if (board == null)
+                        board = new Board(BatchRunner.this.rows, BatchRunner.this.columns, BatchRunner.this.bombs,
+                                random.nextLong());
+                    else
+                        board.reset(BatchRunner.this.rows, BatchRunner.this.columns, BatchRunner.this.bombs,
+                                random.nextLong());
+                    moves += strategy.play(board, random);
+                    if (board.isGameWon())
+                        ++wins;
+                    reveals += revealedCells(board);
+                }
+            } catch (InvalidActivityException e) {
+                throw new IllegalStateException(e);
+            }
+
+            // Publish them once for the whole range
+            this.totals.games.add(this.to - this.from);
+            this.totals.wins.add(wins);
+            this.totals.moves.add(moves);
+            this.totals.reveals.add(reveals);
+            this.totals.nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts the safe cells uncovered in a board.
+     *
+     * @param board the board to look into
+     * @return the amount of uncovered cells without bombs
+     */
+    private static int revealedCells(Board board) {
+        int revealed = 0;
+        for (int i = 0; i < board.getRows(); ++i)
+            for (int j = 0; j < board.getColumns(); ++j)
+                if (board.visibleCell(i, j) >= 0)
+                    ++revealed;
+        return revealed;
+    }
+
+    /**
+     * Plays a batch of games, blocking until all of them are over.
+     *
+     * @param games amount of games to play
+     * @param seed  seed every game is derived from
+     * @return the aggregated outcome of the batch
+     * @throws IllegalArgumentException if the amount of games is negative
+     */
+    public BatchResult run(long games, long seed) {
+        // Check for input validity
+        if (games < 0)
+            throw new IllegalArgumentException(TOO_FEW_GAMES);
+
+        Totals totals = new Totals();
+        long start = System.nanoTime();
+        this.pool.invoke(new GamesTask(seed, 0, games, totals));
+        long wallNanos = System.nanoTime() - start;
+        return new BatchResult(totals.games.sum(), totals.wins.sum(), totals.moves.sum(), totals.reveals.sum(),
+                totals.nanos.sum(), wallNanos);
+    }
+
+    /**
+     * Plays a batch with the solver at every parallelism up to the amount of
+     * available processors, printing how well it scales.
+     *
+     * @param args rows, columns, bombs, games and optional seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: BatchRunner <rows> <columns> <bombs> <games> [seed]");
+            System.exit(2);
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        int bombs = Integer.parseInt(args[2]);
+        long games = Long.parseLong(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+
+        double single = 0;
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            BatchResult result = new BatchRunner(pool, rows, columns, bombs, SolverStrategy::new).run(games, seed);
+            pool.shutdown();
+            if (threads == 1)
+                single = result.gamesPerSecond();
+            System.out.printf("%3d threads: %s (%.2fx)%n", threads, result, result.gamesPerSecond() / single);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.agudelotmateo.minesweeper.simulation;
+
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+
+/**
+ * A way of playing a board from start to finish. Strategies may keep state
+ * between games, since every thread of a batch gets its own instances.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public interface PlayerStrategy {
+
+    /**
+     * Plays the given board until the game is over.
+     *
+     * @param board  the board to play
+     * @param random the only source of randomness the strategy may use, so that
+     *               games can be reproduced
+     * @return the amount of moves made
+     * @throws InvalidActivityException if the game was already over
+     */
+    int play(Board board, SplittableRandom random) throws InvalidActivityException;
+}
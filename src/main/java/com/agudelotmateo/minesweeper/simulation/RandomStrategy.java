@@ -0,0 +1,54 @@
+package com.agudelotmateo.minesweeper.simulation;
+
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.util.Random;
+
+/**
+ * Uncovers cells in random order without looking at the board, as a baseline
+ * the other strategies can be compared against.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class RandomStrategy implements PlayerStrategy {
+    // Reused across games of the same size, and reallocated when the size
+    // changes since the whole order is shuffled
+    private int[] order;
+    private int[] uncovered;
+
+    /**
+     * Creates a random strategy.
+     */
+    public RandomStrategy() {
+        this.order = new int[0];
+        this.uncovered = new int[0];
+    }
+
+    @Override
+    public int play(Board board, SplittableRandom random) throws InvalidActivityException {
+        int columns = board.getColumns();
+        int cells = board.getRows() * columns;
+        if (this.order.length != cells) {
+            this.order = new int[cells];
+            this.uncovered = new int[cells];
+        }
+        for (int i = 0; i < cells; ++i)
+            this.order[i] = i;
+        Random.shuffle(this.order, random);
+
+        // Uncover still covered cells until the game is over
+        int moves = 0;
+        for (int i = 0; i < cells && !board.isGameOver(); ++i) {
+            int row = this.order[i] / columns;
+            int column = this.order[i] % columns;
+            if (board.visibleCell(row, column) == Board.VISIBLE_COVERED) {
+                board.uncoverCell(row, column, this.uncovered);
+                ++moves;
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,31 @@
+package com.agudelotmateo.minesweeper.simulation;
+
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.solver.Solver;
+
+/**
+ * Plays through the constraint-propagation solver, reusing its buffers across
+ * games.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class SolverStrategy implements PlayerStrategy {
+    private final Solver solver;
+
+    /**
+     * Creates a strategy with its own solver.
+     */
+    public SolverStrategy() {
+        this.solver = new Solver();
+    }
+
+    @Override
+    public int play(Board board, SplittableRandom random) throws InvalidActivityException {
+        this.solver.solve(board, random);
+        return this.solver.getMoves();
+    }
+}
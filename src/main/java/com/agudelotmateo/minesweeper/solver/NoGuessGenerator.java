@@ -0,0 +1,303 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.Topology;
+import com.agudelotmateo.minesweeper.util.Random;
+
+/**
+ * Generates boards that can be cleared from their first click without ever
+ * guessing. The first click always lands on an opening, since the bombs are
+ * kept away from it and its neighbours, and it is already uncovered on the
+ * returned board.
+ * <p>
+ * Candidate layouts go through a pipeline designed for throughput:
+ * <ol>
+ * <li>early rejection: layouts with a safe cell walled off by bombs can never
+ * be cleared by deduction, so they are thrown away before any solving;</li>
+ * <li>deduction: the solver plays the layout without guessing, from the first
+ * click;</li>
+ * <li>local repair: when the solver gets stuck, a bomb it could not decide on
+ * the stuck frontier is moved somewhere still unexplored, so only the unsolved
+ * region changes, and the layout is checked again. Layouts still stuck after a
+ * few repairs are thrown away.</li>
+ * </ol>
+ * Checking a repaired layout restarts the deductions from the first click on a
+ * new board: moving the bomb changes the numbers around it, so deductions made
+ * before the repair may no longer hold. Only the buffer marking the bombs is
+ * reused across layouts.
+ * <p>
+ * The generated boards always have the classic
+ * {@link com.agudelotmateo.minesweeper.model.Topology#grid(int, int)} topology,
+ * which is the only one the solver understands. Not thread-safe: every thread
+ * needs its own generator.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class NoGuessGenerator {
+    // Repairs attempted on a single layout before starting over
+    private static final int MAX_REPAIRS = 64;
+
+    // Layouts attempted before giving up
+    private static final int MAX_LAYOUTS = 10_000;
+
+    // IllegalArgumentException messages
+    private static final String TOO_MANY_BOMBS = "bombs must leave the first click and its neighbours free";
+    private static final String INVALID_CELL = "invalid cell coordinates";
+    private static final String TOO_DENSE = "could not generate a no-guess board with that density";
+
+    // Define the valid displacements, those of a grid
+    private static final int[] ROW_DISPLACEMENTS = Topology.gridRowDisplacements();
+    private static final int[] COLUMN_DISPLACEMENTS = Topology.gridColumnDisplacements();
+    private static final int NUMBER_OF_DISPLACEMENTS = ROW_DISPLACEMENTS.length;
+
+    // Deduction checker and whether each location holds a bomb, reused across
+    // layouts
+    private final Solver solver;
+    private boolean[] bomb;
+
+    // Statistics
+    private long layouts;
+    private long rejections;
+    private long repairs;
+
+    /**
+     * Creates a generator.
+     */
+    public NoGuessGenerator() {
+        this.solver = new Solver();
+        this.bomb = new boolean[0];
+        this.layouts = 0;
+        this.rejections = 0;
+        this.repairs = 0;
+    }
+
+    /**
+     * Generates a no-guess board whose first click is on a random cell.
+     *
+     * @param rows    board's height
+     * @param columns board's width
+     * @param bombs   amount of bombs in the board
+     * @param random  the only source of randomness, so that boards can be
+     *                reproduced
+     * @return a board with its first click already uncovered
+     * @throws IllegalArgumentException if the board's specification is invalid or
+     *                                  too dense to find a no-guess layout
+     */
+    public Board generate(int rows, int columns, int bombs, SplittableRandom random) {
+        return generate(rows, columns, bombs, random.nextInt(Math.max(1, rows)), random.nextInt(Math.max(1, columns)),
+                random);
+    }
+
+    /**
+     * Generates a no-guess board whose first click is on the given cell.
+     *
+     * @param rows        board's height
+     * @param columns     board's width
+     * @param bombs       amount of bombs in the board
+     * @param startRow    first click's row (y-value)
+     * @param startColumn first click's column (x-value)
+     * @param random      the only source of randomness, so that boards can be
+     *                    reproduced
+     * @return a board with its first click already uncovered
+     * @throws IllegalArgumentException if the board's specification is invalid or
+     *                                  too dense to find a no-guess layout
+     */
+    public Board generate(int rows, int columns, int bombs, int startRow, int startColumn, SplittableRandom random) {
+        // Check for input validity (the board checks the rest)
+        if (startRow < 0 || startColumn < 0 || startRow >= rows || startColumn >= columns)
+            throw new IllegalArgumentException(INVALID_CELL);
+        int[] candidates = candidateCells(rows, columns, startRow, startColumn);
+        if (bombs > candidates.length)
+            throw new IllegalArgumentException(TOO_MANY_BOMBS);
+        int cells = rows * columns;
+        if (this.bomb.length < cells)
+            this.bomb = new boolean[cells];
+        boolean[] bomb = this.bomb;
+
+        try {
+            for (int layout = 0; layout < MAX_LAYOUTS; ++layout) {
+                ++this.layouts;
+
+                // Place the bombs anywhere but around the first click
+                int[] bombLocations = Random.sampleUniqueInts(bombs, 0, candidates.length, random);
+                Arrays.fill(bomb, 0, cells, false);
+                for (int i = 0; i < bombs; ++i) {
+                    bombLocations[i] = candidates[bombLocations[i]];
+                    bomb[bombLocations[i]] = true;
+                }
+                if (hasWalledOffCell(bomb, rows, columns)) {
+                    ++this.rejections;
+                    continue;
+                }
+
+                // Check the layout, repairing it where the deductions get stuck
+                for (int repair = 0; repair <= MAX_REPAIRS; ++repair) {
+                    Board board = new Board(rows, columns, bombLocations);
+                    board.uncoverCell(startRow, startColumn);
+                    if (board.isGameWon() || this.solver.solveWithoutGuessing(board))
+                        return freshBoard(rows, columns, bombLocations, startRow, startColumn);
+                    if (repair == MAX_REPAIRS || !repairFrontier(board, bomb, bombLocations, random))
+                        break;
+                    ++this.repairs;
+                }
+                ++this.rejections;
+            }
+        } catch (InvalidActivityException e) {
+            // Cannot happen: boards are never played past their end
+            throw new IllegalStateException(e);
+        }
+        throw new IllegalArgumentException(TOO_DENSE);
+    }
+
+    /**
+     * Lists the cells bombs can go to: every cell but the first click and its
+     * neighbours.
+     *
+     * @param rows        board's height
+     * @param columns     board's width
+     * @param startRow    first click's row (y-value)
+     * @param startColumn first click's column (x-value)
+     * @return the locations (row * columns + column) of the candidate cells
+     */
+    private static int[] candidateCells(int rows, int columns, int startRow, int startColumn) {
+        int excluded = (Math.min(rows - 1, startRow + 1) - Math.max(0, startRow - 1) + 1)
+                * (Math.min(columns - 1, startColumn + 1) - Math.max(0, startColumn - 1) + 1);
+        int[] candidates = new int[Math.max(0, rows * columns - excluded)];
+        int count = 0;
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < columns; ++j)
+                if (Math.abs(i - startRow) > 1 || Math.abs(j - startColumn) > 1)
+                    candidates[count++] = i * columns + j;
+        return candidates;
+    }
+
+    /**
+     * Checks whether any safe cell has bombs all around it, which no deduction
+     * can ever reach.
+     *
+     * @param bomb    whether each location holds a bomb, possibly followed by
+     *                unused entries
+     * @param rows    board's height
+     * @param columns board's width
+     * @return whether there is a walled-off safe cell
+     */
+    private static boolean hasWalledOffCell(boolean[] bomb, int rows, int columns) {
+        for (int cell = 0; cell < rows * columns; ++cell) {
+            if (bomb[cell])
+                continue;
+            int row = cell / columns;
+            int column = cell % columns;
+            boolean walled = true;
+            for (int i = 0; i < NUMBER_OF_DISPLACEMENTS && walled; ++i) {
+                int tmpRow = row + ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
+                if (tmpRow >= 0 && tmpColumn >= 0 && tmpRow < rows && tmpColumn < columns)
+                    walled = bomb[tmpRow * columns + tmpColumn];
+            }
+            if (walled)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves a random undecided bomb on the frontier where the deductions got stuck
+     * (cells next to uncovered numbers) to a random undecided cell away from it,
+     * so only the unsolved region of the layout changes.
+     *
+     * @param board         the board the deductions got stuck on
+     * @param bomb          whether each location holds a bomb, possibly
+     *                      followed by unused entries, updated in place
+     * @param bombLocations the bombs' locations, updated in place
+     * @param random        source of the picks
+     * @return whether a bomb could be moved
+     */
+    private boolean repairFrontier(Board board, boolean[] bomb, int[] bombLocations, SplittableRandom random) {
+        int rows = board.getRows();
+        int columns = board.getColumns();
+
+        // Pick a frontier bomb and an unexplored safe cell, both uniformly
+        int from = -1;
+        int to = -1;
+        int frontierBombs = 0;
+        int unexplored = 0;
+        for (int cell = 0; cell < rows * columns; ++cell) {
+            int row = cell / columns;
+            int column = cell % columns;
+            if (!this.solver.isUndecided(cell))
+                continue;
+            boolean frontier = false;
+            for (int i = 0; i < NUMBER_OF_DISPLACEMENTS && !frontier; ++i) {
+                int tmpRow = row + ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
+                frontier = tmpRow >= 0 && tmpColumn >= 0 && tmpRow < rows && tmpColumn < columns
+                        && board.visibleCell(tmpRow, tmpColumn) >= 0;
+            }
+            if (frontier && bomb[cell] && random.nextInt(++frontierBombs) == 0)
+                from = cell;
+            else if (!frontier && !bomb[cell] && random.nextInt(++unexplored) == 0)
+                to = cell;
+        }
+        if (from < 0 || to < 0)
+            return false;
+
+        // Move it
+        bomb[from] = false;
+        bomb[to] = true;
+        for (int i = 0; i < bombLocations.length; ++i)
+            if (bombLocations[i] == from)
+                bombLocations[i] = to;
+        return true;
+    }
+
+    /**
+     * Builds the board to hand out for an accepted layout, with only its first
+     * click uncovered.
+     *
+     * @param rows          board's height
+     * @param columns       board's width
+     * @param bombLocations the bombs' locations
+     * @param startRow      first click's row (y-value)
+     * @param startColumn   first click's column (x-value)
+     * @return the board
+     * @throws InvalidActivityException never, since the board is new
+     */
+    private static Board freshBoard(int rows, int columns, int[] bombLocations, int startRow, int startColumn)
+            throws InvalidActivityException {
+        Board board = new Board(rows, columns, bombLocations);
+        board.uncoverCell(startRow, startColumn);
+        return board;
+    }
+
+    /**
+     * Gets the amount of layouts generated so far, including the rejected ones.
+     *
+     * @return the amount of layouts generated
+     */
+    public long getLayouts() {
+        return this.layouts;
+    }
+
+    /**
+     * Gets the amount of layouts rejected so far.
+     *
+     * @return the amount of layouts rejected
+     */
+    public long getRejections() {
+        return this.rejections;
+    }
+
+    /**
+     * Gets the amount of local repairs made so far.
+     *
+     * @return the amount of repairs made
+     */
+    public long getRepairs() {
+        return this.repairs;
+    }
+}
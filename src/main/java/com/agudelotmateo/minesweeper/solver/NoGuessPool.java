@@ -0,0 +1,197 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import java.io.Closeable;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.agudelotmateo.minesweeper.model.Board;
+
+/**
+ * Keeps no-guess boards generated ahead of time, with a bounded shelf per board
+ * size and amount of bombs that background threads keep full. Serving a board is
+ * then a queue poll; boards are only generated on the caller's thread when the
+ * shelf is empty. A shelf whose specification turns out too dense to generate
+ * in the background is not refilled anymore. Safe to use from any thread.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class NoGuessPool implements Closeable {
+    // IllegalArgumentException messages
+    private static final String TOO_FEW_THREADS = "threads must be positive";
+    private static final String TOO_FEW_BOARDS = "capacity must be positive";
+
+    // Every generator thread has its own generator and randomness
+    private static final ThreadLocal<NoGuessGenerator> GENERATORS = ThreadLocal.withInitial(NoGuessGenerator::new);
+    private static final ThreadLocal<SplittableRandom> RANDOMS = ThreadLocal
+            .withInitial(() -> new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+
+    /**
+     * Boards of a single specification, ready to be served.
+     */
+    private static class Shelf {
+        final int rows;
+        final int columns;
+        final int bombs;
+        final ArrayBlockingQueue<Board> boards;
+        final AtomicInteger pending;
+        volatile boolean tooDense;
+
+        Shelf(int rows, int columns, int bombs, int capacity) {
+            this.rows = rows;
+            this.columns = columns;
+            this.bombs = bombs;
+            this.boards = new ArrayBlockingQueue<>(capacity);
+            this.pending = new AtomicInteger();
+            this.tooDense = false;
+        }
+
+        Board generate() {
+            return GENERATORS.get().generate(this.rows, this.columns, this.bombs, RANDOMS.get());
+        }
+    }
+
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<Long, Shelf> shelves;
+    private final int capacity;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param threads  amount of background generator threads
+     * @param capacity amount of boards kept ready per specification
+     * @throws IllegalArgumentException if either amount is not positive
+     */
+    public NoGuessPool(int threads, int capacity) {
+        // Check for input validity
+        if (threads <= 0)
+            throw new IllegalArgumentException(TOO_FEW_THREADS);
+        if (capacity <= 0)
+            throw new IllegalArgumentException(TOO_FEW_BOARDS);
+
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "no-guess-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shelves = new ConcurrentHashMap<>();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Packs a specification into the key of its shelf.
+     *
+     * @param rows    boards' height
+     * @param columns boards' width
+     * @param bombs   amount of bombs in every board
+     * @return the shelf's key
+     */
+    private static long key(int rows, int columns, int bombs) {
+        return ((long) rows << 42) | ((long) columns << 21) | (bombs & 0x1FFFFFL);
+    }
+
+    /**
+     * Gets the shelf of a specification, creating it if needed.
+     *
+     * @param rows    boards' height
+     * @param columns boards' width
+     * @param bombs   amount of bombs in every board
+     * @return the shelf
+     */
+    private Shelf shelf(int rows, int columns, int bombs) {
+        return this.shelves.computeIfAbsent(key(rows, columns, bombs),
+                key -> new Shelf(rows, columns, bombs, this.capacity));
+    }
+
+    /**
+     * Schedules background generation until the shelf is full, counting the
+     * boards being generated so the shelf never overflows. Does nothing once the
+     * shelf's specification turned out too dense.
+     *
+     * @param shelf the shelf to fill
+     */
+    private void refill(Shelf shelf) {
+        while (!shelf.tooDense) {
+            int pending = shelf.pending.get();
+            if (shelf.boards.size() + pending >= this.capacity)
+                return;
+            if (!shelf.pending.compareAndSet(pending, pending + 1))
+                continue;
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        shelf.boards.offer(shelf.generate());
+                    } catch (IllegalArgumentException e) {
+                        // No layout was found, so stop trying to refill this shelf
+                        shelf.tooDense = true;
+                    } finally {
+                        shelf.pending.decrementAndGet();
+                    }
+                    refill(shelf);
+                });
+            } catch (RejectedExecutionException e) {
+                // The pool was closed
+                shelf.pending.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts filling the shelf of a specification in the background, so that the
+     * boards are ready by the time they are needed.
+     *
+     * @param rows    boards' height
+     * @param columns boards' width
+     * @param bombs   amount of bombs in every board
+     */
+    public void prefill(int rows, int columns, int bombs) {
+        refill(shelf(rows, columns, bombs));
+    }
+
+    /**
+     * Serves a no-guess board, with its first click already uncovered, from the
+     * shelf of its specification, generating it right away if the shelf is empty.
+     *
+     * @param rows    board's height
+     * @param columns board's width
+     * @param bombs   amount of bombs in the board
+     * @return a board nobody else got
+     * @throws IllegalArgumentException if the specification is invalid or too
+     *                                  dense to find a no-guess layout
+     */
+    public Board take(int rows, int columns, int bombs) {
+        Shelf shelf = shelf(rows, columns, bombs);
+        Board board = shelf.boards.poll();
+        if (board == null)
+            board = shelf.generate();
+        refill(shelf);
+        return board;
+    }
+
+    /**
+     * Gets the amount of boards ready to be served for a specification.
+     *
+     * @param rows    boards' height
+     * @param columns boards' width
+     * @param bombs   amount of bombs in every board
+     * @return the amount of boards ready
+     */
+    public int available(int rows, int columns, int bombs) {
+        Shelf shelf = this.shelves.get(key(rows, columns, bombs));
+        return shelf == null ? 0 : shelf.boards.size();
+    }
+
+    /**
+     * Stops the background generation.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,764 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.Topology;
+
+/**
+ * Computes the exact probability that every covered cell of a board holds a
+ * bomb, seeing only what a player would, for hints and computer players.
+ * Flags are the player's guesses, so flagged cells count as covered. Only
+ * boards with the classic {@link Topology#grid(int, int)} topology are
+ * supported.
+ * <p>
+ * The covered cells next to revealed numbers (the frontier) are split into
+ * components whose cells share no number with the other components, which
+ * are solved independently and in parallel. Every component is solved by
+ * backtracking over its cells in breadth-first order, cell by cell, with
+ * memoization: two partial assignments that leave the same numbers in need of
+ * the same amount of bombs are completed in exactly the same ways, so they are
+ * merged into a single state holding how many assignments reach it with every
+ * amount of bombs. States only depend on the numbers straddling the current
+ * cell, which keeps them few even for components of thousands of cells. Counts
+ * are rescaled as they grow, since only their ratios matter, and only the
+ * amounts of bombs whose counts did not vanish next to the largest one are kept.
+ * <p>
+ * The components are then combined with the rest of the covered cells (the
+ * interior), which can hold any of the remaining bombs: every way a component
+ * can hold its bombs is weighted by the ways the other components and the
+ * interior can hold the rest, the latter being a binomial coefficient. Finally,
+ * a second pass over every component pushes those weights back to each of its
+ * cells.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class ProbabilityEngine {
+    // IllegalArgumentException messages
+    private static final String INCONSISTENT = "the revealed numbers cannot be satisfied";
+    private static final String NOT_GRID = "only grid boards are supported";
+
+    // Define the valid displacements, those of a grid
+    private static final int[] ROW_DISPLACEMENTS = Topology.gridRowDisplacements();
+    private static final int[] COLUMN_DISPLACEMENTS = Topology.gridColumnDisplacements();
+    private static final int NUMBER_OF_DISPLACEMENTS = ROW_DISPLACEMENTS.length;
+
+    // Counts are divided by their largest value once it grows past this
+    private static final double RESCALE_ABOVE = 1e200;
+
+    // Profile of the states at the boundary before the first cell, and after the
+    // last one
+    private static final int[] NO_RESIDUALS = {};
+
+    /**
+     * Covered cells tied together by the numbers around them, and those numbers.
+     * Cells are numbered in the order they are assigned, and the boundary b lies
+     * between cells b - 1 and b.
+     */
+    private static final class Component {
+        // Cells' locations (row * columns + column), in assignment order, and the
+        // numbers every cell touches
+        private int[] cells;
+        private int[][] constraintsOf;
+
+        // Bombs every number still needs, the cells it touches (sorted) and the
+        // numbers straddling every boundary (sorted)
+        private int[] targets;
+        private int[][] members;
+        private int[][] straddling;
+
+        // States at every boundary, and the ways of holding every amount of bombs,
+        // relative to each other
+        private Layer[] layers;
+        private Counts ways;
+
+        // Weight of every amount of bombs given the other components and the
+        // interior, and the resulting probability of every cell
+        private Counts weights;
+        private double[] probabilities;
+
+        /**
+         * Gets the first cell a number touches.
+         */
+        private int first(int constraint) {
+            return this.members[constraint][0];
+        }
+
+        /**
+         * Gets the last cell a number touches.
+         */
+        private int last(int constraint) {
+            int[] members = this.members[constraint];
+            return members[members.length - 1];
+        }
+
+        /**
+         * Counts the cells a number touches after the given cell.
+         */
+        private int touchedAfter(int constraint, int cell) {
+            int count = 0;
+            for (int member : this.members[constraint])
+                if (member > cell)
+                    ++count;
+            return count;
+        }
+    }
+
+    /**
+     * Counts indexed by an amount of bombs, storing only a window of amounts.
+     */
+    private static final class Counts {
+        private int offset;
+        private double[] values;
+
+        private Counts(int offset, double[] values) {
+            this.offset = offset;
+            this.values = values;
+        }
+
+        /**
+         * Gets the count of an amount of bombs.
+         */
+        private double get(int bombs) {
+            int i = bombs - this.offset;
+            return i >= 0 && i < this.values.length ? this.values[i] : 0;
+        }
+
+        /**
+         * Adds other counts, moved by the given amount of bombs.
+         */
+        private void add(Counts other, int shift) {
+            int from = other.offset + shift;
+            int to = from + other.values.length;
+            int end = this.offset + this.values.length;
+            if (this.values.length == 0) {
+                this.offset = from;
+                this.values = new double[to - from];
+            } else if (from < this.offset || to > end) {
+                int first = Math.min(from, this.offset);
+                double[] grown = new double[Math.max(to, end) - first];
+                System.arraycopy(this.values, 0, grown, this.offset - first, this.values.length);
+                this.offset = first;
+                this.values = grown;
+            }
+            for (int i = 0, j = from - this.offset; i < other.values.length; ++i, ++j)
+                this.values[j] += other.values[i];
+        }
+
+        /**
+         * Drops the amounts of bombs at both ends whose count is 0.
+         */
+        private void trim() {
+            int from = 0;
+            int to = this.values.length;
+            while (from < to && this.values[from] == 0)
+                ++from;
+            while (to > from && this.values[to - 1] == 0)
+                --to;
+            if (from > 0 || to < this.values.length) {
+                this.values = Arrays.copyOfRange(this.values, from, to);
+                this.offset += from;
+            }
+        }
+    }
+
+    /**
+     * The bombs still needed by the numbers straddling a boundary, hashed once.
+     */
+    private static final class Profile {
+        private final int[] residuals;
+        private final int hash;
+
+        private Profile(int[] residuals) {
+            this.residuals = residuals;
+            this.hash = Arrays.hashCode(residuals);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Profile && Arrays.equals(this.residuals, ((Profile) other).residuals);
+        }
+    }
+
+    /**
+     * The states at a boundary, each one with its counts.
+     */
+    private static final class Layer {
+        private final HashMap<Profile, Counts> states;
+        private final ArrayList<int[]> profiles;
+        private final ArrayList<Counts> counts;
+
+        private Layer() {
+            this.states = new HashMap<>();
+            this.profiles = new ArrayList<>();
+            this.counts = new ArrayList<>();
+        }
+
+        /**
+         * Creates the layer before the first cell, where nothing was assigned yet.
+         */
+        private static Layer start() {
+            Layer layer = new Layer();
+            layer.countsOf(NO_RESIDUALS).values = new double[] { 1 };
+            return layer;
+        }
+
+        /**
+         * Gets the counts of a state, creating it if needed.
+         */
+        private Counts countsOf(int[] residuals) {
+            Profile profile = new Profile(residuals);
+            Counts counts = this.states.get(profile);
+            if (counts == null) {
+                counts = new Counts(0, new double[0]);
+                this.states.put(profile, counts);
+                this.profiles.add(residuals);
+                this.counts.add(counts);
+            }
+            return counts;
+        }
+
+        /**
+         * Gets the counts of a state, or null if there is no such state.
+         */
+        private Counts find(int[] residuals) {
+            return this.states.get(new Profile(residuals));
+        }
+
+        /**
+         * Divides every count by the largest one if it grew too much, dropping the
+         * ones that vanish.
+         */
+        private void rescale() {
+            double max = 0;
+            for (Counts counts : this.counts)
+                for (double value : counts.values)
+                    max = Math.max(max, value);
+            if (max <= RESCALE_ABOVE)
+                return;
+            for (Counts counts : this.counts) {
+                for (int i = 0; i < counts.values.length; ++i)
+                    counts.values[i] /= max;
+                counts.trim();
+            }
+        }
+    }
+
+    /**
+     * A polynomial over amounts of bombs, skipping the leading zero coefficients.
+     */
+    private static final class Series {
+        private final int offset;
+        private final double[] values;
+
+        private Series(int offset, double[] values) {
+            this.offset = offset;
+            this.values = values;
+        }
+
+        /**
+         * Multiplies two series, rescaling the result so that its largest
+         * coefficient is 1.
+         */
+        private Series times(Series other) {
+            double[] product = new double[this.values.length + other.values.length - 1];
+            for (int i = 0; i < this.values.length; ++i)
+                if (this.values[i] != 0)
+                    for (int j = 0; j < other.values.length; ++j)
+                        product[i + j] += this.values[i] * other.values[j];
+            double max = 0;
+            for (double value : product)
+                max = Math.max(max, value);
+            if (max > 0)
+                for (int i = 0; i < product.length; ++i)
+                    product[i] /= max;
+            return new Series(this.offset + other.offset, product);
+        }
+    }
+
+    /**
+     * Solves the components in a range, splitting it in halves while it holds
+     * more than one.
+     */
+    private static final class ComponentsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Component[] components;
+        private final int from;
+        private final int to;
+        private final boolean weighted;
+
+        ComponentsTask(Component[] components, int from, int to, boolean weighted) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
+            this.weighted = weighted;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new ComponentsTask(this.components, this.from, middle, this.weighted),
+                        new ComponentsTask(this.components, middle, this.to, this.weighted));
+            } else if (this.to > this.from) {
+                if (this.weighted)
+                    solveCells(this.components[this.from]);
+                else
+                    countWays(this.components[this.from]);
+            }
+        }
+    }
+
+    // Pool the components are solved on
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine solving components on the common fork-join pool.
+     */
+    public ProbabilityEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an engine solving components on the given pool.
+     *
+     * @param pool the pool to solve components on
+     */
+    public ProbabilityEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Moves the states of a component's layer past a cell, assigning it both
+     * ways.
+     *
+     * @param component the component
+     * @param layer     the states at the boundary before the cell, whose counts
+     *                  are indexed by the bombs before it
+     * @param cell      the cell assigned
+     * @return the states at the boundary after the cell
+     */
+    private static Layer forward(Component component, Layer layer, int cell) {
+        Layer next = new Layer();
+        for (int s = 0; s < layer.profiles.size(); ++s) {
+            int[] residuals = layer.profiles.get(s);
+            Counts counts = layer.counts.get(s);
+            for (int value = 0; value <= 1; ++value) {
+                int[] advanced = advance(component, residuals, cell, value);
+                if (advanced != null)
+                    next.countsOf(advanced).add(counts, value);
+            }
+        }
+        next.rescale();
+        return next;
+    }
+
+    /**
+     * Gets the state after assigning a cell from the state before it.
+     *
+     * @param component the component
+     * @param residuals bombs needed by the numbers straddling the boundary before
+     *                  the cell
+     * @param cell      the cell assigned
+     * @param value     1 if the cell holds a bomb, 0 otherwise
+     * @return the bombs needed by the numbers straddling the boundary after the
+     *         cell, or null if some number cannot be satisfied anymore
+     */
+    private static int[] advance(Component component, int[] residuals, int cell, int value) {
+        int[] from = component.straddling[cell];
+        int[] to = component.straddling[cell + 1];
+
+        // Numbers keep what they need, or start needing all of their bombs
+        int[] advanced = new int[to.length];
+        for (int i = 0, j = 0; i < to.length; ++i) {
+            while (j < from.length && from[j] < to[i])
+                ++j;
+            advanced[i] = j < from.length && from[j] == to[i] ? residuals[j] : component.targets[to[i]];
+        }
+
+        // The numbers around the cell get what it holds
+        for (int constraint : component.constraintsOf[cell]) {
+            int needed = component.first(constraint) < cell ? residuals[Arrays.binarySearch(from, constraint)]
+                    : component.targets[constraint];
+            needed -= value;
+            if (needed < 0)
+                return null;
+            if (component.last(constraint) == cell) {
+                if (needed != 0)
+                    return null;
+            } else {
+                if (needed > component.touchedAfter(constraint, cell))
+                    return null;
+                advanced[Arrays.binarySearch(to, constraint)] = needed;
+            }
+        }
+        return advanced;
+    }
+
+    /**
+     * Counts the ways a component can hold every amount of bombs, keeping the
+     * states at every boundary for {@link #solveCells(Component)}.
+     *
+     * @param component the component
+     * @throws IllegalArgumentException if the component's numbers cannot be
+     *                                  satisfied
+     */
+    private static void countWays(Component component) {
+        component.layers = new Layer[component.cells.length + 1];
+        component.layers[0] = Layer.start();
+        for (int cell = 0; cell < component.cells.length; ++cell)
+            component.layers[cell + 1] = forward(component, component.layers[cell], cell);
+        Counts ways = component.layers[component.cells.length].find(NO_RESIDUALS);
+        if (ways == null)
+            throw new IllegalArgumentException(INCONSISTENT);
+        component.ways = ways;
+    }
+
+    /**
+     * Computes the probability of every cell of a component from the weights of
+     * every amount of bombs in it. Weights are pushed back from the last cell
+     * through the states kept by {@link #countWays(Component)}, so that every
+     * state knows the weight of its completions for every amount of bombs before
+     * it. At every cell, the ways of reaching a state times the weight of
+     * completing it, through either value of the cell, give the weight of the
+     * assignments where the cell holds a bomb and of all of them.
+     *
+     * @param component the component, with its weights
+     */
+    private static void solveCells(Component component) {
+        int cells = component.cells.length;
+        component.probabilities = new double[cells];
+        Layer completions = new Layer();
+        completions.countsOf(NO_RESIDUALS).add(component.weights, 0);
+        for (int cell = cells - 1; cell >= 0; --cell) {
+            Layer layer = component.layers[cell];
+            Layer previous = new Layer();
+            double all = 0;
+            double bomb = 0;
+            for (int s = 0; s < layer.profiles.size(); ++s) {
+                int[] residuals = layer.profiles.get(s);
+                Counts counts = layer.counts.get(s);
+                for (int value = 0; value <= 1; ++value) {
+                    int[] advanced = advance(component, residuals, cell, value);
+                    Counts weights = advanced == null ? null : completions.find(advanced);
+                    if (weights == null)
+                        continue;
+                    double weight = 0;
+                    for (int i = 0; i < counts.values.length; ++i)
+                        weight += counts.values[i] * weights.get(counts.offset + i + value);
+                    all += weight;
+                    if (value == 1)
+                        bomb += weight;
+                    previous.countsOf(residuals).add(weights, -value);
+                }
+            }
+            component.probabilities[cell] = all == 0 ? 0 : bomb / all;
+            previous.rescale();
+            completions = previous;
+
+            // Layers behind are not needed anymore
+            component.layers[cell + 1] = null;
+        }
+        component.layers = null;
+    }
+
+    /**
+     * Splits the covered cells next to the constraints into components and
+     * orders every component's cells breadth-first, starting from a cell as far
+     * as possible from the others, so that few numbers straddle every boundary.
+     *
+     * @param cellsOf   the covered neighbours of every constraint
+     * @param targets   the bombs every constraint still needs
+     * @param locations amount of locations in the board
+     * @return the components
+     */
+    private static Component[] components(ArrayList<int[]> cellsOf, ArrayList<Integer> targets, int locations) {
+        // Constraints touching every cell
+        int[] touching = new int[locations];
+        for (int[] cells : cellsOf)
+            for (int cell : cells)
+                ++touching[cell];
+        int[][] constraintsOfCell = new int[locations][];
+        for (int cell = 0; cell < locations; ++cell)
+            if (touching[cell] > 0)
+                constraintsOfCell[cell] = new int[touching[cell]];
+        Arrays.fill(touching, 0);
+        for (int k = 0; k < cellsOf.size(); ++k)
+            for (int cell : cellsOf.get(k))
+                constraintsOfCell[cell][touching[cell]++] = k;
+
+        // Breadth-first searches over the cells sharing a constraint
+        int[] componentOf = new int[locations];
+        Arrays.fill(componentOf, -1);
+        int[] queue = new int[locations];
+        ArrayList<Component> components = new ArrayList<>();
+        for (int start = 0; start < locations; ++start) {
+            if (constraintsOfCell[start] == null || componentOf[start] >= 0)
+                continue;
+
+            // Find the component, then search again from its last cell
+            int size = breadthFirst(start, constraintsOfCell, cellsOf, componentOf, queue, -1, components.size());
+            int far = queue[size - 1];
+            breadthFirst(far, constraintsOfCell, cellsOf, componentOf, queue, components.size(), -2);
+            size = breadthFirst(far, constraintsOfCell, cellsOf, componentOf, queue, -2, components.size());
+            components.add(component(Arrays.copyOf(queue, size), constraintsOfCell, cellsOf, targets));
+        }
+        return components.toArray(new Component[0]);
+    }
+
+    /**
+     * Visits the cells reachable from a cell through shared constraints, among
+     * the ones marked with a given mark, marking them with another one.
+     *
+     * @return the amount of cells visited, which are left in the queue in the
+     *         order they were visited
+     */
+    private static int breadthFirst(int start, int[][] constraintsOfCell, ArrayList<int[]> cellsOf,
+            int[] componentOf, int[] queue, int from, int to) {
+        int head = 0;
+        int tail = 0;
+        componentOf[start] = to;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int k : constraintsOfCell[cell])
+                for (int neighbour : cellsOf.get(k))
+                    if (componentOf[neighbour] == from) {
+                        componentOf[neighbour] = to;
+                        queue[tail++] = neighbour;
+                    }
+        }
+        return tail;
+    }
+
+    /**
+     * Builds a component from its cells, in assignment order.
+     */
+    private static Component component(int[] cells, int[][] constraintsOfCell, ArrayList<int[]> cellsOf,
+            ArrayList<Integer> targets) {
+        Component component = new Component();
+        component.cells = cells;
+
+        // Number the component's constraints as they are first met
+        HashMap<Integer, Integer> local = new HashMap<>();
+        HashMap<Integer, Integer> order = new HashMap<>();
+        for (int i = 0; i < cells.length; ++i)
+            order.put(cells[i], i);
+        component.constraintsOf = new int[cells.length][];
+        for (int i = 0; i < cells.length; ++i) {
+            int[] constraints = constraintsOfCell[cells[i]];
+            component.constraintsOf[i] = new int[constraints.length];
+            for (int j = 0; j < constraints.length; ++j) {
+                Integer id = local.get(constraints[j]);
+                if (id == null) {
+                    id = local.size();
+                    local.put(constraints[j], id);
+                }
+                component.constraintsOf[i][j] = id;
+            }
+        }
+        component.targets = new int[local.size()];
+        component.members = new int[local.size()][];
+        for (Map.Entry<Integer, Integer> entry : local.entrySet()) {
+            int[] members = cellsOf.get(entry.getKey()).clone();
+            for (int i = 0; i < members.length; ++i)
+                members[i] = order.get(members[i]);
+            Arrays.sort(members);
+            component.members[entry.getValue()] = members;
+            component.targets[entry.getValue()] = targets.get(entry.getKey());
+        }
+
+        // Numbers straddling every boundary
+        int[] straddlingCount = new int[cells.length + 1];
+        for (int k = 0; k < component.members.length; ++k)
+            for (int b = component.first(k) + 1; b <= component.last(k); ++b)
+                ++straddlingCount[b];
+        component.straddling = new int[cells.length + 1][];
+        for (int b = 0; b <= cells.length; ++b)
+            component.straddling[b] = new int[straddlingCount[b]];
+        Arrays.fill(straddlingCount, 0);
+        for (int k = 0; k < component.members.length; ++k)
+            for (int b = component.first(k) + 1; b <= component.last(k); ++b)
+                component.straddling[b][straddlingCount[b]++] = k;
+        return component;
+    }
+
+    /**
+     * Computes the probability that every cell of the board holds a bomb, as far
+     * as the player can tell. Uncovered cells are certain: 1 for bombs, 0 for
+     * everything else.
+     *
+     * @param board the board, which may be in any state
+     * @return the probabilities, indexed by location (row * columns + column)
+     * @throws IllegalArgumentException if the board is not a grid or its
+     *                                  revealed numbers cannot be satisfied
+     */
+    public double[] probabilities(Board board) {
+        // Check for input validity
+        if (board.getTopology().getKind() != Topology.Kind.GRID)
+            throw new IllegalArgumentException(NOT_GRID);
+
+        int rows = board.getRows();
+        int columns = board.getColumns();
+        int locations = rows * columns;
+        double[] probabilities = new double[locations];
+
+        // Read what the player sees, and the numbers with covered neighbours
+        int[] view = new int[locations];
+        int knownBombs = 0;
+        int covered = 0;
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < columns; ++j) {
+                int visible = board.visibleCell(i, j);
+                view[i * columns + j] = visible;
+                if (visible == Board.VISIBLE_BOMB) {
+                    probabilities[i * columns + j] = 1;
+                    ++knownBombs;
+                } else if (visible < 0)
+                    ++covered;
+            }
+        ArrayList<int[]> cellsOf = new ArrayList<>();
+        ArrayList<Integer> targets = new ArrayList<>();
+        int[] neighbours = new int[NUMBER_OF_DISPLACEMENTS];
+        for (int location = 0; location < locations; ++location) {
+            if (view[location] < 0)
+                continue;
+            int row = location / columns;
+            int column = location % columns;
+            int count = 0;
+            int bombs = 0;
+            for (int i = 0; i < NUMBER_OF_DISPLACEMENTS; ++i) {
+                int tmpRow = row + ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
+                if (tmpRow < 0 || tmpColumn < 0 || tmpRow >= rows || tmpColumn >= columns)
+                    continue;
+                int neighbour = tmpRow * columns + tmpColumn;
+                if (view[neighbour] == Board.VISIBLE_BOMB)
+                    ++bombs;
+                else if (view[neighbour] < 0)
+                    neighbours[count++] = neighbour;
+            }
+            int target = view[location] - bombs;
+            if (target < 0 || target > count)
+                throw new IllegalArgumentException(INCONSISTENT);
+            if (count > 0) {
+                cellsOf.add(Arrays.copyOf(neighbours, count));
+                targets.add(target);
+            }
+        }
+
+        // Count the ways every component can hold every amount of bombs
+        Component[] components = components(cellsOf, targets, locations);
+        this.pool.invoke(new ComponentsTask(components, 0, components.length, false));
+        boolean[] inFrontier = new boolean[locations];
+        int frontier = 0;
+        for (Component component : components) {
+            frontier += component.cells.length;
+            for (int cell : component.cells)
+                inFrontier[cell] = true;
+        }
+        int interior = covered - frontier;
+        int remaining = board.getBombs() - knownBombs;
+
+        // Ways the interior can hold the bombs left by the frontier, relative to
+        // each other
+        double[] logFactorials = new double[interior + 1];
+        for (int i = 2; i <= interior; ++i)
+            logFactorials[i] = logFactorials[i - 1] + Math.log(i);
+        double[] interiorWays = new double[frontier + 1];
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (int f = 0; f <= frontier; ++f) {
+            int left = remaining - f;
+            if (left >= 0 && left <= interior)
+                maxLog = Math.max(maxLog, logFactorials[interior] - logFactorials[left] - logFactorials[interior - left]);
+        }
+        for (int f = 0; f <= frontier; ++f) {
+            int left = remaining - f;
+            if (left >= 0 && left <= interior)
+                interiorWays[f] = Math.exp(logFactorials[interior] - logFactorials[left]
+                        - logFactorials[interior - left] - maxLog);
+        }
+
+        // Products of the components before and after every component
+        Series[] before = new Series[components.length + 1];
+        Series[] after = new Series[components.length + 1];
+        before[0] = new Series(0, new double[] { 1 });
+        after[components.length] = before[0];
+        for (int c = 0; c < components.length; ++c)
+            before[c + 1] = before[c].times(new Series(components[c].ways.offset, components[c].ways.values));
+        for (int c = components.length - 1; c >= 0; --c)
+            after[c] = after[c + 1].times(new Series(components[c].ways.offset, components[c].ways.values));
+
+        // Weigh every amount of bombs of every component by the ways the rest can
+        // hold the remaining bombs
+        for (int c = 0; c < components.length; ++c) {
+            Counts ways = components[c].ways;
+            Series others = before[c].times(after[c + 1]);
+            double[] weights = new double[ways.values.length];
+            for (int i = 0; i < weights.length; ++i)
+                for (int j = 0; j < others.values.length; ++j) {
+                    int f = ways.offset + i + others.offset + j;
+                    if (f <= frontier)
+                        weights[i] += others.values[j] * interiorWays[f];
+                }
+            components[c].weights = new Counts(ways.offset, weights);
+        }
+        this.pool.invoke(new ComponentsTask(components, 0, components.length, true));
+        for (Component component : components)
+            for (int i = 0; i < component.cells.length; ++i)
+                probabilities[component.cells[i]] = component.probabilities[i];
+
+        // The interior shares whatever the frontier leaves
+        Series all = before[components.length];
+        double total = 0;
+        double interiorBombs = 0;
+        for (int j = 0; j < all.values.length; ++j) {
+            int f = all.offset + j;
+            if (f > frontier)
+                continue;
+            total += all.values[j] * interiorWays[f];
+            interiorBombs += all.values[j] * interiorWays[f] * (remaining - f);
+        }
+        if (total == 0)
+            throw new IllegalArgumentException(INCONSISTENT);
+        if (interior > 0) {
+            double probability = interiorBombs / total / interior;
+            for (int location = 0; location < locations; ++location)
+                if (view[location] < 0 && view[location] != Board.VISIBLE_BOMB && !inFrontier[location])
+                    probabilities[location] = probability;
+        }
+        return probabilities;
+    }
+
+    /**
+     * Picks the covered, non-flagged cell least likely to hold a bomb, preferring
+     * the lowest location among equally likely ones.
+     *
+     * @param board the board
+     * @return the cell's location (row * columns + column), or -1 if every cell is
+     *         uncovered or flagged
+     * @throws IllegalArgumentException if the board is not a grid or its
+     *                                  revealed numbers cannot be satisfied
+     */
+    public int hint(Board board) {
+        double[] probabilities = probabilities(board);
+        int columns = board.getColumns();
+        int best = -1;
+        for (int location = 0; location < probabilities.length; ++location)
+            if (board.visibleCell(location / columns, location % columns) == Board.VISIBLE_COVERED
+                    && (best < 0 || probabilities[location] < probabilities[best]))
+                best = location;
+        return best;
+    }
+}
@@ -0,0 +1,487 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.Topology;
+
+/**
+ * Plays boards automatically through constraint propagation, seeing only what a
+ * player would. Every round it tries, in order:
+ * <ol>
+ * <li>single-cell deductions: a number whose remaining mines are zero makes all
+ * of its unknown neighbours safe, and one whose remaining mines equal its
+ * unknown neighbours makes them all mines;</li>
+ * <li>pairwise deductions between nearby numbers: if the remaining mines of B
+ * exceed those of A by exactly the amount of unknown cells only B touches,
+ * those cells are mines and the ones only A touches are safe;</li>
+ * <li>the global count: once the unknown cells are as many as the remaining
+ * mines they are all mines, and once no mines remain they are all safe;</li>
+ * <li>a guess on the unknown cell least likely to be a mine, estimating the
+ * frontier cells from their most pessimistic number and the rest from the
+ * global density.</li>
+ * </ol>
+ * Mines are only tracked by the solver, never flagged on the board, and flags
+ * already on the board are neither trusted nor removed: a flagged cell the
+ * solver deduces to be safe cannot be uncovered, so a wrong flag can keep the
+ * game from being won. All the buffers are reused across games and only grow
+ * for bigger boards, so solving allocates nothing once warmed up. Only boards
+ * with the classic {@link Topology#grid(int, int)} topology can be solved.
+ *
+ * @author Mateo Agudelo Toro
+ */
+public class Solver {
+    // Solver's view of a cell, besides the adjacent counters of uncovered cells
+    private static final int UNKNOWN = -1;
+    private static final int MINE = -2;
+    private static final int SAFE = -3;
+
+    // IllegalArgumentException messages
+    private static final String NOT_GRID = "only grid boards can be solved";
+
+    // InvalidActivityException messages
+    private static final String GAME_OVER = "game already finished";
+
+    // Define the valid displacements, those of a grid
+    private static final int[] ROW_DISPLACEMENTS = Topology.gridRowDisplacements();
+    private static final int[] COLUMN_DISPLACEMENTS = Topology.gridColumnDisplacements();
+    private static final int NUMBER_OF_DISPLACEMENTS = ROW_DISPLACEMENTS.length;
+
+    // Pairwise deductions only involve numbers whose neighbourhoods overlap
+    private static final int PAIR_RADIUS = 2;
+
+    // Board being solved
+    private Board board;
+    private int rows;
+    private int columns;
+    private int knownMines;
+    private int unknownCells;
+
+    // Per cell buffers
+    private int[] view;
+    private int[] uncovered;
+    private int[] safe;
+    private int[] constraintOf;
+    private double[] risk;
+
+    // Per constraint buffers: the number's cell, its remaining mines and its
+    // unknown neighbours
+    private int[] constraintCells;
+    private int[] remaining;
+    private int[] unknownCounts;
+    private int[] unknowns;
+    private int constraints;
+    private int safeCount;
+
+    // Statistics of the last game
+    private int guesses;
+    private int moves;
+
+    /**
+     * Creates a solver with no buffers, which are allocated by the first game.
+     */
+    public Solver() {
+        this.view = new int[0];
+    }
+
+    /**
+     * Gets ready to solve the given board, growing the buffers if needed and
+     * forgetting the previous game. Flagged cells are read as unknown, since the
+     * solver keeps track of mines on its own, and the flags are left untouched.
+     *
+     * @param board the board to solve
+     * @throws InvalidActivityException if the game is already over
+     * @throws IllegalArgumentException if the board is not a grid
+     */
+    private void prepare(Board board) throws InvalidActivityException {
+        if (board.getTopology().getKind() != Topology.Kind.GRID)
+            throw new IllegalArgumentException(NOT_GRID);
+        if (board.isGameOver())
+            throw new InvalidActivityException(GAME_OVER);
+        this.board = board;
+        this.rows = board.getRows();
+        this.columns = board.getColumns();
+        int cells = this.rows * this.columns;
+        if (this.view.length < cells) {
+            this.view = new int[cells];
+            this.uncovered = new int[cells];
+            this.safe = new int[cells];
+            this.constraintOf = new int[cells];
+            this.risk = new double[cells];
+            this.constraintCells = new int[cells];
+            this.remaining = new int[cells];
+            this.unknownCounts = new int[cells];
+            this.unknowns = new int[NUMBER_OF_DISPLACEMENTS * cells];
+        }
+
+        // Read whatever the board already shows
+        this.knownMines = 0;
+        this.unknownCells = 0;
+        for (int i = 0; i < this.rows; ++i)
+            for (int j = 0; j < this.columns; ++j) {
+                int visible = board.visibleCell(i, j);
+                this.view[i * this.columns + j] = visible < 0 ? UNKNOWN : visible;
+                if (visible < 0)
+                    ++this.unknownCells;
+            }
+        this.safeCount = 0;
+        this.guesses = 0;
+        this.moves = 0;
+    }
+
+    /**
+     * Marks an unknown cell as a mine.
+     *
+     * @param cell the cell's location (row * columns + column)
+     * @return whether the cell was still unknown
+     */
+    private boolean markMine(int cell) {
+        if (this.view[cell] != UNKNOWN)
+            return false;
+        this.view[cell] = MINE;
+        ++this.knownMines;
+        --this.unknownCells;
+        return true;
+    }
+
+    /**
+     * Marks an unknown cell as safe, queueing it to be uncovered.
+     *
+     * @param cell the cell's location (row * columns + column)
+     * @return whether the cell was still unknown
+     */
+    private boolean markSafe(int cell) {
+        if (this.view[cell] != UNKNOWN)
+            return false;
+        this.view[cell] = SAFE;
+        --this.unknownCells;
+        this.safe[this.safeCount++] = cell;
+        return true;
+    }
+
+    /**
+     * Collects a constraint for every uncovered number with unknown neighbours:
+     * its remaining mines and its unknown neighbours.
+     */
+    private void collectConstraints() {
+        this.constraints = 0;
+        for (int cell = 0; cell < this.rows * this.columns; ++cell) {
+            this.constraintOf[cell] = -1;
+            if (this.view[cell] <= 0)
+                continue;
+
+            // Count the known mines and list the unknown cells around
+            int row = cell / this.columns;
+            int column = cell % this.columns;
+            int k = this.constraints;
+            int count = 0;
+            int mines = 0;
+            for (int i = 0; i < NUMBER_OF_DISPLACEMENTS; ++i) {
+                int tmpRow = row + ROW_DISPLACEMENTS[i];
+                int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
+                if (tmpRow < 0 || tmpColumn < 0 || tmpRow >= this.rows || tmpColumn >= this.columns)
+                    continue;
+                int neighbour = tmpRow * this.columns + tmpColumn;
+                if (this.view[neighbour] == MINE)
+                    ++mines;
+                else if (this.view[neighbour] == UNKNOWN)
+                    this.unknowns[NUMBER_OF_DISPLACEMENTS * k + count++] = neighbour;
+            }
+
+            // Satisfied numbers do not constrain anything
+            if (count == 0)
+                continue;
+            this.constraintCells[k] = cell;
+            this.remaining[k] = this.view[cell] - mines;
+            this.unknownCounts[k] = count;
+            this.constraintOf[cell] = k;
+            ++this.constraints;
+        }
+    }
+
+    /**
+     * Applies the single-cell deductions to every constraint.
+     *
+     * @return the amount of cells deduced
+     */
+    private int deduceSingle() {
+        int deduced = 0;
+        for (int k = 0; k < this.constraints; ++k) {
+            int offset = NUMBER_OF_DISPLACEMENTS * k;
+            if (this.remaining[k] == 0)
+                for (int i = 0; i < this.unknownCounts[k]; ++i)
+                    deduced += markSafe(this.unknowns[offset + i]) ? 1 : 0;
+            else if (this.remaining[k] == this.unknownCounts[k])
+                for (int i = 0; i < this.unknownCounts[k]; ++i)
+                    deduced += markMine(this.unknowns[offset + i]) ? 1 : 0;
+        }
+        return deduced;
+    }
+
+    /**
+     * Checks whether a cell is adjacent to another one.
+     *
+     * @param cell  the first cell's location
+     * @param other the second cell's location
+     * @return whether they are neighbours
+     */
+    private boolean adjacent(int cell, int other) {
+        int rowDistance = cell / this.columns - other / this.columns;
+        int columnDistance = cell % this.columns - other % this.columns;
+        return rowDistance >= -1 && rowDistance <= 1 && columnDistance >= -1 && columnDistance <= 1 && cell != other;
+    }
+
+    /**
+     * Applies the pairwise deductions to every pair of constraints whose numbers
+     * are close enough to share unknown cells.
+     *
+     * @return the amount of cells deduced
+     */
+    private int deducePairs() {
+        int deduced = 0;
+        for (int a = 0; a < this.constraints; ++a) {
+            int cellA = this.constraintCells[a];
+            int row = cellA / this.columns;
+            int column = cellA % this.columns;
+            for (int i = -PAIR_RADIUS; i <= PAIR_RADIUS; ++i)
+                for (int j = -PAIR_RADIUS; j <= PAIR_RADIUS; ++j) {
+                    int tmpRow = row + i;
+                    int tmpColumn = column + j;
+                    if ((i == 0 && j == 0) || tmpRow < 0 || tmpColumn < 0 || tmpRow >= this.rows
+                            || tmpColumn >= this.columns)
+                        continue;
+                    int b = this.constraintOf[tmpRow * this.columns + tmpColumn];
+                    if (b >= 0)
+                        deduced += deducePair(a, b);
+                }
+        }
+        return deduced;
+    }
+
+    /**
+     * Applies the pairwise deduction to constraints A and B: if the remaining
+     * mines of B exceed those of A by exactly the amount of unknown cells only B
+     * touches, those are mines and the ones only A touches are safe.
+     *
+     * @param a the first constraint
+     * @param b the second constraint
+     * @return the amount of cells deduced
+     */
+    private int deducePair(int a, int b) {
+        int cellA = this.constraintCells[a];
+        int cellB = this.constraintCells[b];
+        int offsetA = NUMBER_OF_DISPLACEMENTS * a;
+        int offsetB = NUMBER_OF_DISPLACEMENTS * b;
+
+        // Count the unknown cells only B touches
+        int onlyB = 0;
+        for (int i = 0; i < this.unknownCounts[b]; ++i)
+            if (!adjacent(this.unknowns[offsetB + i], cellA))
+                ++onlyB;
+        if (onlyB == 0 || this.remaining[b] - this.remaining[a] != onlyB)
+            return 0;
+
+        // The difference can only be explained one way
+        int deduced = 0;
+        for (int i = 0; i < this.unknownCounts[b]; ++i)
+            if (!adjacent(this.unknowns[offsetB + i], cellA))
+                deduced += markMine(this.unknowns[offsetB + i]) ? 1 : 0;
+        for (int i = 0; i < this.unknownCounts[a]; ++i)
+            if (!adjacent(this.unknowns[offsetA + i], cellB))
+                deduced += markSafe(this.unknowns[offsetA + i]) ? 1 : 0;
+        return deduced;
+    }
+
+    /**
+     * Applies the global count deductions to every unknown cell.
+     *
+     * @return the amount of cells deduced
+     */
+    private int deduceGlobal() {
+        int remainingMines = this.board.getBombs() - this.knownMines;
+        if (remainingMines != 0 && remainingMines != this.unknownCells)
+            return 0;
+        int deduced = 0;
+        for (int cell = 0; cell < this.rows * this.columns; ++cell)
+            deduced += (remainingMines == 0 ? markSafe(cell) : markMine(cell)) ? 1 : 0;
+        return deduced;
+    }
+
+    /**
+     * Counts the unknown neighbours of a cell.
+     *
+     * @param cell the cell's location (row * columns + column)
+     * @return the amount of unknown neighbours
+     */
+    private int unknownNeighbours(int cell) {
+        int row = cell / this.columns;
+        int column = cell % this.columns;
+        int count = 0;
+        for (int i = 0; i < NUMBER_OF_DISPLACEMENTS; ++i) {
+            int tmpRow = row + ROW_DISPLACEMENTS[i];
+            int tmpColumn = column + COLUMN_DISPLACEMENTS[i];
+            if (tmpRow >= 0 && tmpColumn >= 0 && tmpRow < this.rows && tmpColumn < this.columns
+                    && this.view[tmpRow * this.columns + tmpColumn] == UNKNOWN)
+                ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Picks the unknown cell least likely to be a mine, breaking ties at random,
+     * and queues it to be uncovered.
+     *
+     * @param random source of the tie breaks
+     * @return whether there was any unknown cell to pick
+     */
+    private boolean guess(SplittableRandom random) {
+        // Frontier cells are as likely as their most pessimistic number says
+        int cells = this.rows * this.columns;
+        for (int cell = 0; cell < cells; ++cell)
+            this.risk[cell] = -1;
+        for (int k = 0; k < this.constraints; ++k) {
+            double probability = (double) this.remaining[k] / this.unknownCounts[k];
+            int offset = NUMBER_OF_DISPLACEMENTS * k;
+            for (int i = 0; i < this.unknownCounts[k]; ++i) {
+                int cell = this.unknowns[offset + i];
+                this.risk[cell] = Math.max(this.risk[cell], probability);
+            }
+        }
+
+        // Cells off the frontier are as likely as the global density says. Among
+        // equally risky cells, the ones with fewer unknown neighbours are more
+        // likely to open up the board
+        double density = (double) (this.board.getBombs() - this.knownMines) / Math.max(1, this.unknownCells);
+        double best = Double.MAX_VALUE;
+        int bestNeighbours = Integer.MAX_VALUE;
+        int choice = -1;
+        int ties = 0;
+        for (int cell = 0; cell < cells; ++cell) {
+            if (this.view[cell] != UNKNOWN)
+                continue;
+            double risk = this.risk[cell] < 0 ? density : this.risk[cell];
+            if (risk > best)
+                continue;
+            int neighbours = unknownNeighbours(cell);
+            if (risk < best || neighbours < bestNeighbours) {
+                best = risk;
+                bestNeighbours = neighbours;
+                choice = cell;
+                ties = 1;
+            } else if (neighbours == bestNeighbours && random.nextInt(++ties) == 0)
+                choice = cell;
+        }
+        if (choice < 0)
+            return false;
+        ++this.guesses;
+        markSafe(choice);
+        return true;
+    }
+
+    /**
+     * Uncovers every queued cell, reading the revealed numbers back.
+     *
+     * @throws InvalidActivityException if the game ends while cells are queued,
+     *                                  which cannot happen for deduced cells
+     */
+    private void uncoverQueued() throws InvalidActivityException {
+        for (int i = 0; i < this.safeCount && !this.board.isGameOver(); ++i) {
+            int cell = this.safe[i];
+            int amount = this.board.uncoverCell(cell / this.columns, cell % this.columns, this.uncovered);
+            ++this.moves;
+            for (int j = 0; j < amount; ++j) {
+                int location = this.uncovered[j];
+                int visible = this.board.visibleCell(location / this.columns, location % this.columns);
+                if (this.view[location] == UNKNOWN)
+                    --this.unknownCells;
+                this.view[location] = visible < 0 ? MINE : visible;
+            }
+        }
+        this.safeCount = 0;
+    }
+
+    /**
+     * Plays the given board until the game is over, or until only cells the
+     * player flagged are left to uncover.
+     *
+     * @param board  the board to play, which may be partially played already
+     * @param random source of the tie breaks between equally risky guesses
+     * @return whether the game was won
+     * @throws InvalidActivityException if the game is already over
+     * @throws IllegalArgumentException if the board is not a grid
+     */
+    public boolean solve(Board board, SplittableRandom random) throws InvalidActivityException {
+        return play(board, random);
+    }
+
+    /**
+     * Plays the given board through deductions alone, stopping as soon as a guess
+     * would be needed. Since nothing can be deduced from a fresh board, at least
+     * one cell must have been uncovered already.
+     *
+     * @param board the board to play, which may be partially played already
+     * @return whether the game was won, that is, whether the board could be
+     *         cleared without guessing from where it was
+     * @throws InvalidActivityException if the game is already over
+     * @throws IllegalArgumentException if the board is not a grid
+     */
+    public boolean solveWithoutGuessing(Board board) throws InvalidActivityException {
+        return play(board, null);
+    }
+
+    /**
+     * Plays the given board until the game is over or, when not allowed to guess,
+     * until nothing else can be deduced.
+     *
+     * @param board  the board to play
+     * @param random source of the tie breaks between guesses, or null to never
+     *               guess
+     * @return whether the game was won
+     * @throws InvalidActivityException if the game is already over
+     * @throws IllegalArgumentException if the board is not a grid
+     */
+    private boolean play(Board board, SplittableRandom random) throws InvalidActivityException {
+        prepare(board);
+        while (!board.isGameOver()) {
+            // Cheap deductions first, guessing only when they all fail
+            collectConstraints();
+            if (deduceSingle() == 0 && deducePairs() == 0 && deduceGlobal() == 0
+                    && (random == null || !guess(random)))
+                break;
+            uncoverQueued();
+        }
+        this.board = null;
+        return board.isGameWon();
+    }
+
+    /**
+     * Checks whether the last game left a cell undecided, that is, neither
+     * uncovered nor deduced to be a mine.
+     *
+     * @param location the cell's location (row * columns + column)
+     * @return whether the cell is undecided
+     */
+    boolean isUndecided(int location) {
+        return this.view[location] == UNKNOWN;
+    }
+
+    /**
+     * Gets the amount of guesses made during the last game.
+     *
+     * @return the amount of guesses
+     */
+    public int getGuesses() {
+        return this.guesses;
+    }
+
+    /**
+     * Gets the amount of moves made during the last game.
+     *
+     * @return the amount of moves
+     */
+    public int getMoves() {
+        return this.moves;
+    }
+}
@@ -2,6 +2,7 @@ package com.agudelotmateo.minesweeper.util;
 
 import java.util.Set;
 import java.util.HashSet;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -13,6 +14,8 @@ public final class Random {
     // IllegalArgumentException messages
     private static final String BAD_ARRAY = "array must contain at least one element";
     private static final String BAD_RANGE = "bound must be greater than origin";
+    private static final String TOO_WIDE_RANGE = "range must not have more than Integer.MAX_VALUE elements";
+    private static final String BAD_AMOUNT = "n must be between 0 and the range's size";
 
     // Does not make sense to instantiate this class
     private Random() { }
@@ -28,13 +31,26 @@ public final class Random {
      *      shuffle - Wikipedia</a>
      */
     public static void shuffle(int[] arr) {
+        shuffle(arr, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Shuffles an array of integers using Fisher-Yates's algorithm, drawing from
+     * the given generator so that the result can be reproduced.
+     * 
+     * @param arr    the array to be shuffled
+     * @param random the generator to draw from
+     * @throws IllegalArgumentException if the array does not contain at least one
+     *                                  element
+     */
+    public static void shuffle(int[] arr, SplittableRandom random) {
         // Check for input validity
         if (arr == null || arr.length <= 0)
             throw new IllegalArgumentException(BAD_ARRAY);
 
         // Shuffle the array
         for (int i = arr.length - 1; i > 0; --i) {
-            int j = ThreadLocalRandom.current().nextInt(i + 1);
+            int j = random.nextInt(i + 1);
             int tmp = arr[j];
             arr[j] = arr[i];
             arr[i] = tmp;
@@ -54,6 +70,24 @@ public final class Random {
      *                                  to {@code bound}
      */
     public static Set<Integer> nUniqueIntsInRange(int n, int origin, int bound) {
+        return nUniqueIntsInRange(n, origin, bound, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Generates a set of n pseudorandom {@code int} values between the specified
+     * origin (inclusive) and the specified bound (exclusive), drawing from the
+     * given generator so that the result can be reproduced.
+     * 
+     * @param n      the amount of random unique {@code int} values to generate
+     * @param origin the least value returned
+     * @param bound  the upper bound (exclusive)
+     * @param random the generator to draw from
+     * @return a set of n pseudorandom {@code int} values between the specified
+     *         origin (inclusive) and the specified bound (exclusive)
+     * @throws IllegalArgumentException if {@code origin} is greater than or equal
+     *                                  to {@code bound}
+     */
+    public static Set<Integer> nUniqueIntsInRange(int n, int origin, int bound, SplittableRandom random) {
         // Check for input validity
         if (origin >= bound)
             throw new IllegalArgumentException(BAD_RANGE);
@@ -64,7 +98,7 @@ public final class Random {
             range[i - origin] = i;
 
         // Shuffle them randomly
-        shuffle(range);
+        shuffle(range, random);
 
         // Take the first n of them only
         HashSet<Integer> unique = new HashSet<>(n);
@@ -72,4 +106,136 @@ public final class Random {
             unique.add(range[i]);
         return unique;
     }
+
+    /**
+     * Generates n unique pseudorandom {@code int} values between the specified
+     * origin (inclusive) and the specified bound (exclusive) using Floyd's
+     * sampling algorithm. Unlike {@link #nUniqueIntsInRange(int, int, int)}, it
+     * takes time and memory proportional to n rather than to the range's size.
+     * 
+     * @param n      the amount of random unique {@code int} values to generate
+     * @param origin the least value returned
+     * @param bound  the upper bound (exclusive)
+     * @return an array of n unique pseudorandom {@code int} values between the
+     *         specified origin (inclusive) and the specified bound (exclusive), in
+     *         no particular order
+     * @throws IllegalArgumentException if {@code origin} is greater than or equal
+     *                                  to {@code bound}, the range is too wide or
+     *                                  n does not fit in it
+     * @see <a href="https://doi.org/10.1145/30401.315746">Bentley, J. and Floyd, B.
+     *      Programming pearls: a sample of brilliance</a>
+     */
+    public static int[] sampleUniqueInts(int n, int origin, int bound) {
+        return sampleUniqueInts(n, origin, bound, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Generates n unique pseudorandom {@code int} values between the specified
+     * origin (inclusive) and the specified bound (exclusive) using Floyd's
+     * sampling algorithm, drawing from the given generator so that the result can
+     * be reproduced.
+     * 
+     * @param n      the amount of random unique {@code int} values to generate
+     * @param origin the least value returned
+     * @param bound  the upper bound (exclusive)
+     * @param random the generator to draw from
+     * @return an array of n unique pseudorandom {@code int} values between the
+     *         specified origin (inclusive) and the specified bound (exclusive), in
+     *         no particular order
+     * @throws IllegalArgumentException if {@code origin} is greater than or equal
+     *                                  to {@code bound}, the range is too wide or
+     *                                  n does not fit in it
+     */
+    public static int[] sampleUniqueInts(int n, int origin, int bound, SplittableRandom random) {
+        // Check for input validity
+        if (origin >= bound)
+            throw new IllegalArgumentException(BAD_RANGE);
+        if ((long) bound - origin > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(TOO_WIDE_RANGE);
+        int size = bound - origin;
+        if (n < 0 || n > size)
+            throw new IllegalArgumentException(BAD_AMOUNT);
+
+        // Open addressing table of the values taken so far (offset by one so that
+        // zero marks an empty slot), kept at most half full. Once the table would
+        // take more memory than a bit per value of the range, which also keeps its
+        // size from overflowing, mark the values taken in a bit set instead
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, 2L * n - 1)) + 1;
+        if ((1L << bits) * Integer.SIZE >= size)
+            return sampleUniqueIntsDense(n, origin, size, random);
+        int[] table = new int[1 << bits];
+        int mask = table.length - 1;
+
+        // For every j in the last n values of the range, take a random value up to j
+        // or j itself if that one was already taken
+        int[] sample = new int[n];
+        for (int i = 0, j = size - n; i < n; ++i, ++j) {
+            int value = random.nextInt(j + 1);
+            int slot = (value * 0x9E3779B9) >>> (32 - bits);
+            while (table[slot] != 0 && table[slot] != value + 1)
+                slot = (slot + 1) & mask;
+            if (table[slot] != 0) {
+                // Taken: j cannot be, as it is larger than every value seen so far
+                value = j;
+                slot = (value * 0x9E3779B9) >>> (32 - bits);
+                while (table[slot] != 0)
+                    slot = (slot + 1) & mask;
+            }
+            table[slot] = value + 1;
+            sample[i] = value + origin;
+        }
+        return sample;
+    }
+
+    /**
+     * Generates n unique pseudorandom {@code int} values just like
+     * {@link #sampleUniqueInts(int, int, int, SplittableRandom)}, but marks the
+     * values taken in a bit set over the whole range, which is smaller than the
+     * hash table when n is a large fraction of the range.
+     * 
+     * @param n      the amount of random unique {@code int} values to generate
+     * @param origin the least value returned
+     * @param size   the amount of values in the range, at least n
+     * @param random the generator to draw from
+     * @return an array of n unique pseudorandom {@code int} values between the
+     *         specified origin (inclusive) and origin + size (exclusive), in no
+     *         particular order
+     */
+    private static int[] sampleUniqueIntsDense(int n, int origin, int size, SplittableRandom random) {
+        long[] taken = new long[(int) (((long) size + Long.SIZE - 1) / Long.SIZE)];
+        int[] sample = new int[n];
+        for (int i = 0, j = size - n; i < n; ++i, ++j) {
+            int value = random.nextInt(j + 1);
+            if ((taken[value >>> 6] & 1L << value) != 0)
+                value = j;
+            taken[value >>> 6] |= 1L << value;
+            sample[i] = value + origin;
+        }
+        return sample;
+    }
+
+    /**
+     * Scrambles a 64-bit value with SplitMix64's finalizer.
+     * 
+     * @param z the value to scramble
+     * @return the scrambled value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Derives the seed of an independent stream from a base seed and the stream's
+     * index, so that every stream (a run of a batch, a chunk of a board...) can be
+     * reproduced on its own, regardless of the order streams are used in.
+     * 
+     * @param seed  the base seed
+     * @param index the stream's index
+     * @return the stream's seed
+     */
+    public static long derivedSeed(long seed, long index) {
+        return mix(seed + mix(index));
+    }
 }
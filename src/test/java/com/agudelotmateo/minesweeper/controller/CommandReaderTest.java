@@ -0,0 +1,79 @@
+package com.agudelotmateo.minesweeper.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the byte-level command reader.
+ */
+public class CommandReaderTest {
+
+    /**
+     * Creates a reader over the given text.
+     */
+    private static CommandReader reader(String text) {
+        return new CommandReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /**
+     * Numbers must be parsed whatever the whitespace around them, and anything
+     * else must not be a number.
+     */
+    @Test
+    public void numbers() throws IOException {
+        CommandReader reader = reader("  12\t-7\r\n+3 0042 2147483647 -2147483647 2147483648 -2147483648 1x - 9\u00e9");
+        int[] expected = { 12, -7, 3, 42, Integer.MAX_VALUE, -Integer.MAX_VALUE, CommandReader.NOT_A_NUMBER,
+                CommandReader.NOT_A_NUMBER, CommandReader.NOT_A_NUMBER, CommandReader.NOT_A_NUMBER,
+                CommandReader.NOT_A_NUMBER };
+        for (int number : expected) {
+            assertTrue(reader.nextToken());
+            assertEquals(number, reader.number());
+        }
+        assertFalse(reader.nextToken());
+        assertFalse(reader.nextToken());
+    }
+
+    /**
+     * Operation codes must be the session's constants, and anything else an
+     * empty code.
+     */
+    @Test
+    public void operations() throws IOException {
+        CommandReader reader = reader("M U C MU u 1");
+        assertTrue(reader.nextToken());
+        assertSame(Session.FLAG, reader.operation());
+        assertTrue(reader.nextToken());
+        assertSame(Session.UNCOVER, reader.operation());
+        assertTrue(reader.nextToken());
+        assertSame(Session.CHORD, reader.operation());
+        for (int i = 0; i < 3; ++i) {
+            assertTrue(reader.nextToken());
+            assertEquals("", reader.operation());
+        }
+        assertFalse(reader.nextToken());
+    }
+
+    /**
+     * Tokens spanning several blocks of the stream must be read whole.
+     */
+    @Test
+    public void longInput() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; ++i)
+            text.append(i).append(i % 7 == 0 ? '\n' : ' ');
+        CommandReader reader = reader(text.toString());
+        for (int i = 0; i < 100_000; ++i) {
+            assertTrue(reader.nextToken());
+            assertEquals(i, reader.number());
+        }
+        assertFalse(reader.nextToken());
+    }
+}
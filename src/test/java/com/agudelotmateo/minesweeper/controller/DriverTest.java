@@ -1,9 +1,15 @@
 package com.agudelotmateo.minesweeper.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ThreadLocalRandom;
@@ -17,6 +23,29 @@ import org.junit.jupiter.api.Test;
  * Tests for the game Driver.
  */
 public class DriverTest {
+    // First line of every frame of a board with three columns
+    private static final String FRAME_HEADER = "    1 2 3 \n";
+
+    /**
+     * Plays a scripted game in batch mode, returning the amount of commands read
+     * and what was written.
+     */
+    private static String[] playBatch(String input, int renderEvery) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long commands = new Driver().playBatch(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)),
+                out, renderEvery);
+        return new String[] { Long.toString(commands), new String(out.toByteArray(), StandardCharsets.US_ASCII) };
+    }
+
+    /**
+     * Counts the frames written.
+     */
+    private static int frames(String output) {
+        int count = 0;
+        for (int i = output.indexOf(FRAME_HEADER); i >= 0; i = output.indexOf(FRAME_HEADER, i + 1))
+            ++count;
+        return count;
+    }
 
     /**
      * Check if a valid input is read accordignly.
@@ -115,4 +144,56 @@ public class DriverTest {
         // Check if it fails by asking for input again
         assertThrows(NoSuchElementException.class, () -> new Driver().createBoardFromStandardInput());
     }
+
+    /**
+     * A batch must stop reading once the game is over, writing the board only at
+     * the end followed by the farewell.
+     */
+    @Test
+    public void playBatchUntilOver() throws IOException {
+        StringBuilder input = new StringBuilder("3 3 1\n");
+        for (int k = 0; k < 2; ++k)
+            for (int i = 1; i <= 3; ++i)
+                for (int j = 1; j <= 3; ++j)
+                    input.append(i).append(' ').append(j).append(' ').append(Session.UNCOVER).append('\n');
+        String[] result = playBatch(input.toString(), 0);
+        assertTrue(Long.parseLong(result[0]) <= 9);
+        assertEquals(1, frames(result[1]));
+        assertTrue(result[1].endsWith(Session.THANKS + "\n"));
+        assertFalse(result[1].contains(Session.PROMPT));
+    }
+
+    /**
+     * A batch must write the board every given amount of commands, and at the end
+     * if the last commands were not written.
+     */
+    @Test
+    public void playBatchRenderEvery() throws IOException {
+        StringBuilder input = new StringBuilder("3 3 2\n");
+        for (int i = 0; i < 7; ++i)
+            input.append("1 1 ").append(Session.FLAG).append('\n');
+        String[] result = playBatch(input.toString(), 3);
+        assertEquals("7", result[0]);
+        assertEquals(3, frames(result[1]));
+        assertEquals(1, frames(playBatch(input.toString(), 7)[1]));
+        assertFalse(result[1].contains(Session.THANKS));
+    }
+
+    /**
+     * Invalid specifications and commands must be reported and skipped, and an
+     * empty batch must write nothing.
+     */
+    @Test
+    public void playBatchErrors() throws IOException {
+        String[] result = playBatch("0 3 1\n3 3 1\n1 x U\n2 2 Q\n9 1 U\n1 1", 0);
+        assertEquals("4", result[0]);
+        assertTrue(result[1].startsWith("Error: rows must be positive. Please try again:\n"
+                + Session.INVALID_COORDINATES + "\n" + Session.INVALID_OPERATION_CODE + "\n"
+                + "Error: invalid cell coordinates. Please try again:\n" + Session.INVALID_OPERATION + "\n"));
+        assertEquals(1, frames(result[1]));
+
+        result = playBatch(" \n", 0);
+        assertEquals("0", result[0]);
+        assertEquals("", result[1]);
+    }
 }
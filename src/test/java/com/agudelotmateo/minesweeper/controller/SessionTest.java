@@ -0,0 +1,108 @@
+package com.agudelotmateo.minesweeper.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the line-based game session.
+ */
+public class SessionTest {
+
+    /**
+     * Feeds a line to the session and returns its response.
+     */
+    private static String send(Session session, String line) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        session.handleLine(line, out);
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The session must greet the player and ask for the board's specification.
+     */
+    @Test
+    public void start() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Session().start(out);
+
+        assertEquals(Session.WELCOME + "\n" + Session.INSTRUCTIONS + "\n",
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Invalid board specifications must be reported until a valid one comes.
+     */
+    @Test
+    public void createBoard() {
+        Session session = new Session();
+
+        assertTrue(send(session, "0 5 1").startsWith("Error: "));
+        assertTrue(send(session, "5 5").startsWith("Error: "));
+        assertTrue(send(session, "5 5 1").endsWith(Session.PROMPT + "\n"));
+        assertFalse(session.isFinished());
+    }
+
+    /**
+     * Sessions that opt into first-click-safe boards must never lose on the
+     * first move, not even with every other cell holding a bomb.
+     */
+    @Test
+    public void firstClickSafe() {
+        for (int i = 0; i < 20; ++i) {
+            Session session = new Session(true);
+            send(session, "3 3 8");
+            assertTrue(send(session, "2 2 " + Session.UNCOVER).contains(Session.WON));
+        }
+    }
+
+    /**
+     * Invalid commands must be reported while the game goes on.
+     */
+    @Test
+    public void invalidCommands() {
+        Session session = new Session();
+        send(session, "5 5 1");
+
+        assertTrue(send(session, "1 1").startsWith(Session.INVALID_OPERATION));
+        assertTrue(send(session, "1 1 X").startsWith(Session.INVALID_OPERATION_CODE));
+        assertTrue(send(session, "0 1 U").startsWith("Error: "));
+        assertTrue(send(session, "a b U").startsWith("Error: "));
+        assertFalse(session.isFinished());
+    }
+
+    /**
+     * Chording must be a valid operation, which does nothing on a covered cell.
+     */
+    @Test
+    public void chord() {
+        Session session = new Session();
+        send(session, "3 3 1");
+        assertFalse(send(session, "2 2 " + Session.CHORD).contains("Please try again"));
+        assertFalse(session.isFinished());
+    }
+
+    /**
+     * Uncovering every cell must end the game, saying bye, after which the
+     * session ignores its input.
+     */
+    @Test
+    public void playUntilOver() {
+        Session session = new Session();
+        send(session, "3 3 1");
+
+        // Uncover cells until the game is over
+        String response = "";
+        for (int i = 1; i <= 3 && !session.isFinished(); ++i)
+            for (int j = 1; j <= 3 && !session.isFinished(); ++j)
+                response = send(session, i + " " + j + " " + Session.UNCOVER);
+        assertTrue(session.isFinished());
+        assertTrue(response.endsWith(Session.THANKS + "\n"));
+        assertEquals("", send(session, "1 1 U"));
+    }
+}
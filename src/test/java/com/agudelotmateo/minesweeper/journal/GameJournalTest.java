@@ -0,0 +1,285 @@
+package com.agudelotmateo.minesweeper.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.Topology;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the game journal.
+ */
+public class GameJournalTest {
+    private static final int ROWS = 16;
+    private static final int COLUMNS = 30;
+    private static final int BOMBS = 99;
+
+    private Path directory;
+
+    /**
+     * Creates an empty directory for the journal.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("journal");
+    }
+
+    /**
+     * Deletes the journal's directory.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files)
+                Files.delete(file);
+        }
+        Files.delete(this.directory);
+    }
+
+    /**
+     * Counts the journal's files with the given prefix.
+     */
+    private long files(String prefix) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, prefix + "*")) {
+            long count = 0;
+            for (Iterator<Path> file = files.iterator(); file.hasNext(); file.next())
+                ++count;
+            return count;
+        }
+    }
+
+    /**
+     * Plays random moves on every game until they are over or the moves run out.
+     */
+    private static void playRandomly(GameJournal journal, int[] games, int moves, SplittableRandom random)
+            throws IOException {
+        for (int i = 0; i < moves; ++i) {
+            int game = games[random.nextInt(games.length)];
+            if (journal.getGame(game).isGameOver())
+                continue;
+            int row = random.nextInt(ROWS);
+            int column = random.nextInt(COLUMNS);
+            int draw = random.nextInt(4);
+            if (draw == 0)
+                journal.toggleCellFlag(game, row, column);
+            else if (draw == 1)
+                journal.chordCell(game, row, column);
+            else
+                journal.uncoverCell(game, row, column);
+        }
+    }
+
+    /**
+     * Starts the given amount of games.
+     */
+    private static int[] startGames(GameJournal journal, int count, SplittableRandom random) throws IOException {
+        int[] games = new int[count];
+        for (int i = 0; i < count; ++i)
+            games[i] = journal.start(random.nextBoolean() ? new Board(ROWS, COLUMNS, BOMBS, random.nextLong())
+                    : Board.firstClickSafe(ROWS, COLUMNS, BOMBS, random.nextLong()));
+        return games;
+    }
+
+    /**
+     * Checks that two sets of games are identical.
+     */
+    private static void assertSameGames(Map<Integer, Board> expected, Map<Integer, Board> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Integer, Board> game : expected.entrySet()) {
+            Board board = actual.get(game.getKey());
+            assertEquals(game.getValue().toString(), board.toString());
+            assertEquals(game.getValue().isGameOver(), board.isGameOver());
+            assertEquals(game.getValue().isGameWon(), board.isGameWon());
+        }
+    }
+
+    /**
+     * Games must be recovered exactly as they were, even without closing the
+     * journal, across several segments.
+     */
+    @Test
+    public void recoverAfterCrash() throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        GameJournal journal = new GameJournal(this.directory, 1024, Integer.MAX_VALUE);
+        int[] games = startGames(journal, 20, random);
+        playRandomly(journal, games, 500, random);
+        journal.finish(games[0]);
+        assertTrue(files("segment-") > 1);
+
+        // Reopen as if the process had died
+        GameJournal recovered = new GameJournal(this.directory, 1024, Integer.MAX_VALUE);
+        assertNull(recovered.getGame(games[0]));
+        assertSameGames(journal.getGames(), recovered.getGames());
+
+        // The recovered journal keeps going where the old one stopped
+        int game = recovered.start(new Board(ROWS, COLUMNS, BOMBS, 3));
+        assertTrue(game > games[games.length - 1]);
+        recovered.close();
+        assertSameGames(recovered.getGames(), new GameJournal(this.directory, 1024, Integer.MAX_VALUE).getGames());
+    }
+
+    /**
+     * Recovery must start from the last checkpoint, whose older segments are
+     * gone.
+     */
+    @Test
+    public void recoverFromCheckpoint() throws IOException {
+        SplittableRandom random = new SplittableRandom(2);
+        GameJournal journal = new GameJournal(this.directory, 1024, 100);
+        int[] games = startGames(journal, 10, random);
+        playRandomly(journal, games, 1000, random);
+        journal.checkpoint();
+        assertEquals(1, files("checkpoint-"));
+        assertEquals(1, files("segment-"));
+        playRandomly(journal, startGames(journal, 5, random), 30, random);
+        journal.close();
+
+        assertSameGames(journal.getGames(), new GameJournal(this.directory, 1024, 100).getGames());
+    }
+
+    /**
+     * A record torn by a crash must end the log, keeping everything before it.
+     */
+    @Test
+    public void recoverTornRecord() throws IOException, InvalidActivityException {
+        GameJournal journal = new GameJournal(this.directory);
+        int game = journal.start(Board.firstClickSafe(ROWS, COLUMNS, BOMBS, 4));
+        journal.uncoverCell(game, 5, 5);
+        journal.close();
+
+        // A record whose identifier never made it to disk
+        try (FileChannel channel = FileChannel.open(this.directory.resolve(String.format("segment-%016x.log", 0)),
+                StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(12);
+            torn.putInt(7 << 3).putLong(0).flip();
+            channel.write(torn, 3 * 16 + 4);
+        }
+
+        Board board = new GameJournal(this.directory).getGame(game);
+        assertEquals(journal.getGame(game).toString(), board.toString());
+    }
+
+    /**
+     * Chords must be recovered as chords, uncovering every neighbour of the
+     * number around its flag.
+     */
+    @Test
+    public void recoverChord() throws IOException, InvalidActivityException {
+        // Find the bombs by uncovering every cell on copies of the board
+        boolean[] bombs = new boolean[25];
+        for (int location = 0; location < 25; ++location) {
+            Board copy = new Board(5, 5, 3, 6);
+            copy.uncoverCell(location / 5, location % 5);
+            bombs[location] = copy.isGameOver() && !copy.isGameWon();
+        }
+
+        // Find a safe cell next to a single bomb
+        int cell = -1;
+        int bomb = -1;
+        for (int location = 0; location < 25 && bomb < 0; ++location) {
+            int found = -1;
+            int count = 0;
+            for (int i = Math.max(0, location / 5 - 1); i <= Math.min(4, location / 5 + 1); ++i)
+                for (int j = Math.max(0, location % 5 - 1); j <= Math.min(4, location % 5 + 1); ++j)
+                    if (bombs[i * 5 + j]) {
+                        found = i * 5 + j;
+                        ++count;
+                    }
+            if (!bombs[location] && count == 1) {
+                cell = location;
+                bomb = found;
+            }
+        }
+
+        // Flag the bomb and chord the number
+        GameJournal journal = new GameJournal(this.directory);
+        int game = journal.start(new Board(5, 5, 3, 6));
+        journal.uncoverCell(game, cell / 5, cell % 5);
+        journal.toggleCellFlag(game, bomb / 5, bomb % 5);
+        String before = journal.getGame(game).toString();
+        journal.chordCell(game, cell / 5, cell % 5);
+        assertNotEquals(before, journal.getGame(game).toString());
+        journal.close();
+
+        Board recovered = new GameJournal(this.directory).getGame(game);
+        assertEquals(journal.getGame(game).toString(), recovered.toString());
+    }
+
+    /**
+     * Invalid moves must be refused without being logged.
+     */
+    @Test
+    public void invalidMoves() throws IOException, InvalidActivityException {
+        GameJournal journal = new GameJournal(this.directory);
+        Board played = new Board(3, 3, 1, 5);
+        played.toggleCellFlag(0, 0);
+        assertThrows(IllegalArgumentException.class, () -> journal.start(played));
+        assertThrows(IllegalArgumentException.class, () -> journal.start(new Board(3, 3, new int[] { 4 })));
+        assertThrows(IllegalArgumentException.class, () -> journal.start(new Board(Topology.torus(3, 3), 1, 5)));
+
+        int game = journal.start(new Board(3, 3, 9, 5));
+        assertThrows(IllegalArgumentException.class, () -> journal.uncoverCell(game, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> journal.uncoverCell(game + 1, 0, 0));
+        journal.uncoverCell(game, 0, 0);
+        assertThrows(InvalidActivityException.class, () -> journal.toggleCellFlag(game, 1, 1));
+        journal.close();
+
+        Board recovered = new GameJournal(this.directory).getGame(game);
+        assertTrue(recovered.isGameOver());
+        assertThrows(IllegalArgumentException.class, () -> new GameJournal(this.directory, 100, 1));
+    }
+
+    /**
+     * Threads waiting for their moves to be durable must all get through, sharing
+     * the forces to disk.
+     */
+    @Test
+    public void groupCommit() throws IOException, InterruptedException {
+        GameJournal journal = new GameJournal(this.directory, 4096, 1000);
+        Thread[] threads = new Thread[8];
+        IOException[] failure = new IOException[1];
+        for (int t = 0; t < threads.length; ++t) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads[t] = new Thread(() -> {
+                try {
+                    int[] games = startGames(journal, 3, random);
+                    for (int i = 0; i < 100; ++i) {
+                        int game = games[random.nextInt(games.length)];
+                        if (!journal.getGame(game).isGameOver())
+                            journal.awaitDurable(journal.toggleCellFlag(game, random.nextInt(ROWS),
+                                    random.nextInt(COLUMNS)));
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertNull(failure[0]);
+        assertEquals(24, journal.getGames().size());
+
+        assertSameGames(journal.getGames(), new GameJournal(this.directory, 4096, 1000).getGames());
+    }
+}
@@ -0,0 +1,76 @@
+package com.agudelotmateo.minesweeper.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the log-linear histogram.
+ */
+public class HistogramTest {
+
+    /**
+     * Small values must be exact, and every value must be known within the
+     * precision of its bucket.
+     */
+    @Test
+    public void percentiles() {
+        Histogram histogram = new Histogram("ns");
+        assertEquals(0, histogram.getMedian());
+        for (int value = 1; value <= 50; ++value)
+            histogram.record(value);
+        assertEquals(25, histogram.getMedian());
+        assertEquals(50, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(25.5, histogram.getMean());
+
+        // Random values spanning many powers of two
+        histogram.reset();
+        SplittableRandom random = new SplittableRandom(1);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (long) Math.exp(random.nextDouble() * 40);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[] { 1, 10, 50, 90, 99, 99.9, 100 }) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected + expected / 32, percentile + "th percentile");
+        }
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(100.5));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(Double.NaN));
+    }
+
+    /**
+     * Values recorded from many threads at once must all be counted.
+     */
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        Histogram histogram = new Histogram("cells");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; ++i)
+                    histogram.record(i % 1000);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(999, histogram.getMax());
+        assertEquals(499.5, histogram.getMean());
+    }
+}
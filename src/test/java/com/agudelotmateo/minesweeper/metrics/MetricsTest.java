@@ -0,0 +1,112 @@
+package com.agudelotmateo.minesweeper.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.activity.InvalidActivityException;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.BoardRenderer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the metrics collected from the boards.
+ */
+public class MetricsTest {
+
+    /**
+     * Starts from empty metrics.
+     */
+    @BeforeEach
+    public void setUp() {
+        Metrics.reset();
+    }
+
+    /**
+     * Leaves the metrics empty and off.
+     */
+    @AfterEach
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    /**
+     * Plays a game, winning it by flagging every bomb after uncovering a safe
+     * cell.
+     */
+    private static void playWinning() throws InvalidActivityException {
+        Board board = new Board(3, 3, new int[] { 0, 8 });
+        board.uncoverCell(1, 1);
+        board.toggleCellFlag(0, 0);
+        board.toggleCellFlag(2, 2);
+        new BoardRenderer(board).render();
+    }
+
+    /**
+     * Nothing must be collected while the metrics are off.
+     */
+    @Test
+    public void disabled() throws InvalidActivityException {
+        Metrics.setEnabled(false);
+        playWinning();
+        assertEquals(0, Metrics.getGamesCreated());
+        assertEquals(0, Metrics.getGamesWon());
+        assertEquals(0, Metrics.UNCOVER.getCount());
+        assertEquals(0, Metrics.RENDER.getCount());
+    }
+
+    /**
+     * Every operation and game must be collected while the metrics are on.
+     */
+    @Test
+    public void enabled() throws InvalidActivityException {
+        Metrics.setEnabled(true);
+        playWinning();
+        Board lost = new Board(9, 9, 10, 1);
+        lost.reset(9, 9, 80, 2);
+        while (!lost.isGameOver())
+            lost.uncoverCell(4, 4);
+
+        assertEquals(3, Metrics.getGamesCreated());
+        assertEquals(1, Metrics.getGamesWon());
+        assertEquals(1, Metrics.getGamesLost());
+        assertEquals(3, Metrics.CREATE.getCount());
+        assertEquals(2, Metrics.UNCOVER.getCount());
+        assertEquals(2, Metrics.FLAG.getCount());
+        assertEquals(1, Metrics.RENDER.getCount());
+        assertEquals(1, Metrics.FLOOD_FILL.getCount());
+        assertEquals(1, Metrics.FLOOD_FILL.getMax());
+        assertTrue(Metrics.UNCOVER.getMax() > 0);
+
+        String dump = Metrics.dump();
+        assertTrue(dump.startsWith("metrics enabled, games created 3, won 1, lost 1"));
+        assertTrue(dump.contains("flood fill  cells          1"));
+    }
+
+    /**
+     * Metrics must be readable and switchable through JMX.
+     */
+    @Test
+    public void jmx() throws InvalidActivityException, JMException {
+        Metrics.register();
+        Metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.setAttribute(Metrics.objectName(), new Attribute("Enabled", true));
+        assertTrue(Metrics.isEnabled());
+        playWinning();
+
+        assertEquals(1L, server.getAttribute(Metrics.objectName(), "GamesWon"));
+        assertEquals(2L, server.getAttribute(Metrics.histogramName("flag"), "Count"));
+        assertEquals("cells", server.getAttribute(Metrics.histogramName("flood fill"), "Unit"));
+        assertTrue(((String) server.invoke(Metrics.objectName(), "dump", null, null)).contains("render"));
+    }
+}
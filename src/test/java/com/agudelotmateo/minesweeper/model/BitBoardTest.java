@@ -0,0 +1,130 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the bit plane board, checked against the packed boards.
+ */
+public class BitBoardTest {
+    /**
+     * The bombs and counters must be the ones of a board with the same seed, on
+     * widths below, at and across word boundaries.
+     */
+    @RepeatedTest(10)
+    public void countsMatchBoard() {
+        SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        int[] widths = { 1, 7, 63, 64, 65, 99 };
+        for (int columns : widths) {
+            int rows = 1 + random.nextInt(Board.MAX_ROWS_EXCLUSIVE - 1);
+            int bombs = 1 + random.nextInt(rows * columns);
+            long seed = random.nextLong();
+            Board board = new Board(rows, columns, bombs, seed);
+            BitBoard bitBoard = new BitBoard(rows, columns, bombs, seed);
+            for (int location = 0; location < rows * columns; ++location) {
+                int cell = board.cellAt(location / columns, location % columns);
+                assertEquals((cell & Board.BOMB) != 0, bitBoard.isBomb(location));
+                assertEquals(cell & Board.COUNT_MASK, bitBoard.adjacentBombs(location));
+            }
+        }
+    }
+
+    /**
+     * The same moves must uncover the same cells as on a board with the same
+     * seed, flood fills included, until the game ends the same way.
+     */
+    @RepeatedTest(20)
+    public void movesMatchBoard() throws InvalidActivityException {
+        SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        int rows = 1 + random.nextInt(Board.MAX_ROWS_EXCLUSIVE - 1);
+        int columns = 1 + random.nextInt(Board.MAX_COLUMNS_EXCLUSIVE - 1);
+        int bombs = 1 + random.nextInt(Math.max(1, rows * columns / 6));
+        long seed = random.nextLong();
+        Board board = new Board(rows, columns, bombs, seed);
+        BitBoard bitBoard = new BitBoard(rows, columns, bombs, seed);
+        while (!board.isGameOver()) {
+            // Mostly flag the bombs and uncover the rest, sometimes flagging wrong
+            int row = random.nextInt(rows);
+            int column = random.nextInt(columns);
+            boolean bomb = (board.cellAt(row, column) & Board.BOMB) != 0;
+            if (bomb ? random.nextInt(50) > 0 : random.nextInt(10) == 0) {
+                board.toggleCellFlag(row, column);
+                bitBoard.toggleCellFlag(row, column);
+            } else
+                assertEquals(board.uncoverCell(row, column).length, bitBoard.uncoverCell(row, column));
+            assertEquals(board.isGameOver(), bitBoard.isGameOver());
+        }
+        assertEquals(board.isGameWon(), bitBoard.isGameWon());
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < columns; ++j)
+                assertEquals(board.visibleCell(i, j), bitBoard.visibleCell(i, j));
+    }
+
+    /**
+     * Flood fills on boards larger than a board can be must match the shared
+     * board with the same seed.
+     */
+    @Test
+    public void largeBoardMatchesConcurrentBoard() throws InvalidActivityException {
+        SplittableRandom random = new SplittableRandom(3);
+        ConcurrentBoard board = new ConcurrentBoard(300, 700, 300 * 700 / 12, 7);
+        BitBoard bitBoard = new BitBoard(300, 700, 300 * 700 / 12, 7);
+        for (int move = 0; move < 2000 && !board.isGameOver(); ++move) {
+            int row = random.nextInt(300);
+            int column = random.nextInt(700);
+            if ((board.cellAt(row * 700 + column) & Board.BOMB) == 0)
+                assertEquals(board.uncoverCell(row, column), bitBoard.uncoverCell(row, column));
+        }
+        assertEquals(board.getCoveredSafeCells(), bitBoard.getCoveredSafeCells());
+        for (int i = 0; i < 300; ++i)
+            for (int j = 0; j < 700; ++j)
+                assertEquals(board.visibleCell(i, j), bitBoard.visibleCell(i, j));
+    }
+
+    /**
+     * Flagging exactly the bombs must win, and uncovering a bomb must lose and
+     * uncover every bomb.
+     */
+    @Test
+    public void gameEnds() throws InvalidActivityException {
+        BitBoard won = new BitBoard(3, 70, new int[] { 0, 69, 140 });
+        won.toggleCellFlag(0, 0);
+        won.toggleCellFlag(0, 69);
+        won.toggleCellFlag(2, 0);
+        assertTrue(won.isGameWon());
+        assertThrows(InvalidActivityException.class, () -> won.uncoverCell(1, 1));
+
+        BitBoard lost = new BitBoard(3, 70, new int[] { 0, 69, 140 });
+        lost.toggleCellFlag(0, 0);
+        assertEquals(3, lost.uncoverCell(0, 69));
+        assertTrue(lost.isGameOver());
+        assertFalse(lost.isGameWon());
+        assertEquals(Board.VISIBLE_BOMB, lost.visibleCell(0, 0));
+        assertEquals(Board.VISIBLE_COVERED, lost.visibleCell(1, 1));
+    }
+
+    /**
+     * Invalid specifications and coordinates must be rejected.
+     */
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(0, 5, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(5, 5, 26, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(5, 5, new int[] { 3, 3 }));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(5, 5, new int[] { 25 }));
+        BitBoard board = new BitBoard(5, 5, 3, 0);
+        assertThrows(IllegalArgumentException.class, () -> board.uncoverCell(5, 0));
+        assertThrows(IllegalArgumentException.class, () -> board.toggleCellFlag(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> board.visibleCell(0, 5));
+    }
+}
@@ -0,0 +1,112 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the memory footprint of the packed board against the former
+ * {@code Cell[][]} layout.
+ */
+public class BoardFootprintTest {
+    private static final int ROWS = Board.MAX_ROWS_EXCLUSIVE - 1;
+    private static final int COLUMNS = Board.MAX_COLUMNS_EXCLUSIVE - 1;
+    private static final int BOMBS = ROWS * COLUMNS / 5;
+    private static final int BOARDS = 50;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Cell object of the former layout, kept here with its original fields so
+     * its footprint can still be measured.
+     */
+    private static class LegacyCell {
+        private boolean hasBomb;
+        private boolean isFlagged;
+        private boolean isCovered;
+        private int adjacentCounter;
+
+        /**
+         * Creates a new covered and non-flagged cell.
+         *
+         * @param hasBomb whether this cell contains a bomb
+         */
+        LegacyCell(boolean hasBomb) {
+            this.hasBomb = hasBomb;
+            this.isFlagged = false;
+            this.isCovered = true;
+            this.adjacentCounter = 0;
+        }
+    }
+
+    /**
+     * Fetches the HotSpot thread bean used to measure allocations, skipping the
+     * tests on JVMs that do not support it.
+     */
+    @BeforeEach
+    public void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(this.threads.isThreadAllocatedMemorySupported());
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Bytes allocated so far by the current thread.
+     *
+     * @return bytes allocated so far by the current thread
+     */
+    private long allocatedBytes() {
+        return this.threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Builds the state the board used to hold: one object per cell plus the bomb
+     * and flag sets.
+     *
+     * @return the objects making up the former layout
+     */
+    private static Object[] legacyLayout() {
+        Set<Integer> bombLocations = Random.nUniqueIntsInRange(BOMBS, 0, ROWS * COLUMNS);
+        LegacyCell[][] cells = new LegacyCell[ROWS][COLUMNS];
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                cells[i][j] = new LegacyCell(bombLocations.contains(i * COLUMNS + j));
+        return new Object[] { cells, bombLocations, new HashSet<Integer>() };
+    }
+
+    /**
+     * The packed board must take a fraction of the memory the former layout did.
+     */
+    @Test
+    public void packedBoardIsSmallerThanCellGrid() {
+        // Warm up both paths so class loading is not measured
+        legacyLayout();
+        new Board(ROWS, COLUMNS, BOMBS);
+
+        // Measure the former layout
+        Object[] legacy = new Object[BOARDS];
+        long start = allocatedBytes();
+        for (int i = 0; i < BOARDS; ++i)
+            legacy[i] = legacyLayout();
+        long legacyBytes = (allocatedBytes() - start) / BOARDS;
+
+        // Measure the packed board
+        Board[] packed = new Board[BOARDS];
+        start = allocatedBytes();
+        for (int i = 0; i < BOARDS; ++i)
+            packed[i] = new Board(ROWS, COLUMNS, BOMBS);
+        long packedBytes = (allocatedBytes() - start) / BOARDS;
+
+        // Compare
+        assertTrue(packedBytes * 2 < legacyBytes);
+    }
+}
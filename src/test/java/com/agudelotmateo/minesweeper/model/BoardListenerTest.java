@@ -0,0 +1,136 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the change batches boards send to their listeners.
+ */
+public class BoardListenerTest {
+
+    /**
+     * Keeps a copy of the board as the player sees it, built from the batches
+     * only.
+     */
+    private static class Mirror implements BoardListener {
+        private final int[] visible;
+        private int batches;
+        private int lastCount;
+        private int ends;
+        private boolean won;
+
+        Mirror(Board board) {
+            this.visible = new int[board.getRows() * board.getColumns()];
+            Arrays.fill(this.visible, Board.VISIBLE_COVERED);
+        }
+
+        @Override
+        public void cellsChanged(Board board, int[] locations, int[] states, int count) {
+            for (int i = 0; i < count; ++i)
+                this.visible[locations[i]] = states[i];
+            ++this.batches;
+            this.lastCount = count;
+        }
+
+        @Override
+        public void gameEnded(Board board, boolean won) {
+            ++this.ends;
+            this.won = won;
+        }
+
+        void assertMatches(Board board) {
+            for (int row = 0; row < board.getRows(); ++row)
+                for (int column = 0; column < board.getColumns(); ++column)
+                    assertEquals(board.visibleCell(row, column), this.visible[row * board.getColumns() + column]);
+        }
+    }
+
+    /**
+     * A listener applying every batch must see exactly what the player sees.
+     */
+    @Test
+    public void mirrorRandomGames() throws InvalidActivityException {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int game = 0; game < 200; ++game) {
+            Board board = game % 2 == 0 ? new Board(16, 30, 99, random.nextLong())
+                    : Board.firstClickSafe(9, 9, 10, random.nextLong());
+            Mirror mirror = new Mirror(board);
+            board.addListener(mirror);
+            while (!board.isGameOver()) {
+                int row = random.nextInt(board.getRows());
+                int column = random.nextInt(board.getColumns());
+                if (random.nextInt(3) == 0)
+                    board.toggleCellFlag(row, column);
+                else
+                    board.uncoverCell(row, column);
+                mirror.assertMatches(board);
+            }
+            assertEquals(1, mirror.ends);
+            assertEquals(board.isGameWon(), mirror.won);
+        }
+    }
+
+    /**
+     * Flags must be sent one cell at a time, and wins by flagging must uncover the
+     * bombs in the same batch.
+     */
+    @Test
+    public void flagBatches() throws InvalidActivityException {
+        Board board = new Board(2, 2, new int[] { 0, 3 });
+        Mirror mirror = new Mirror(board);
+        board.addListener(mirror);
+        board.toggleCellFlag(0, 1);
+        assertEquals(1, mirror.lastCount);
+        board.toggleCellFlag(0, 0);
+        board.toggleCellFlag(1, 1);
+        assertEquals(3, mirror.batches);
+        assertEquals(0, mirror.ends);
+        board.toggleCellFlag(0, 1);
+        assertEquals(3, mirror.lastCount);
+        assertEquals(1, mirror.ends);
+        assertTrue(mirror.won);
+        mirror.assertMatches(board);
+    }
+
+    /**
+     * Losing must send the bomb and every other bomb in a single batch, and moves
+     * changing nothing must send nothing.
+     */
+    @Test
+    public void lossBatch() throws InvalidActivityException {
+        Board board = new Board(3, 3, new int[] { 0, 4, 8 });
+        int[][] received = new int[1][];
+        BoardListener listener = (changed, locations, states, count) -> received[0] = Arrays.copyOf(locations,
+                count);
+        Mirror mirror = new Mirror(board);
+        board.addListener(listener);
+        board.addListener(mirror);
+        board.toggleCellFlag(0, 0);
+        board.toggleCellFlag(0, 0);
+        board.removeListener(listener);
+        board.toggleCellFlag(0, 1);
+        board.toggleCellFlag(0, 1);
+        assertArrayEquals(new int[] { 0 }, received[0]);
+
+        board.addListener(listener);
+        board.uncoverCell(2, 2);
+        assertArrayEquals(new int[] { 0, 4, 8 }, received[0]);
+        assertEquals(1, mirror.ends);
+        assertFalse(mirror.won);
+        mirror.assertMatches(board);
+
+        board.removeAllListeners();
+        board.reset(3, 3, 1, 1);
+        board.uncoverCell(0, 0);
+        assertEquals(1, mirror.ends);
+    }
+}
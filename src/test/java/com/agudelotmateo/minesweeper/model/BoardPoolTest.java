@@ -0,0 +1,135 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the board pool.
+ */
+public class BoardPoolTest {
+    private static final int ROWS = 16;
+    private static final int COLUMNS = 30;
+    private static final int BOMBS = 99;
+
+    /**
+     * Plays a game by uncovering random cells until it is over.
+     */
+    private static void play(Board board, int[] buffer) throws InvalidActivityException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!board.isGameOver())
+            board.uncoverCell(random.nextInt(board.getRows()), random.nextInt(board.getColumns()), buffer);
+    }
+
+    /**
+     * Released boards must be served again, reset for a new game.
+     */
+    @Test
+    public void acquireReusesReleased() throws InvalidActivityException {
+        BoardPool pool = new BoardPool(2, false);
+        Board board = pool.acquire(ROWS, COLUMNS, BOMBS, 5);
+        play(board, new int[ROWS * COLUMNS]);
+        assertTrue(pool.release(board));
+        assertEquals(1, pool.available(ROWS, COLUMNS));
+
+        Board reused = pool.acquire(ROWS, COLUMNS, 10, 5);
+        assertSame(board, reused);
+        assertEquals(0, pool.available(ROWS, COLUMNS));
+        assertFalse(reused.isGameOver());
+        assertEquals(new Board(ROWS, COLUMNS, 10, 5).toString(), reused.toString());
+        assertNotSame(reused, pool.acquire(ROWS, COLUMNS, BOMBS));
+    }
+
+    /**
+     * Shelves must be bounded, and keep boards of their own size and kind only.
+     */
+    @Test
+    public void releaseBounded() {
+        BoardPool pool = new BoardPool(2, true);
+        assertTrue(pool.release(Board.firstClickSafe(ROWS, COLUMNS, BOMBS)));
+        assertTrue(pool.release(Board.firstClickSafe(ROWS, COLUMNS, BOMBS)));
+        assertFalse(pool.release(Board.firstClickSafe(ROWS, COLUMNS, BOMBS)));
+        assertFalse(pool.release(new Board(9, 9, 10)));
+        assertFalse(pool.release(Board.firstClickSafe(Topology.torus(9, 9), 10, 0)));
+        assertEquals(2, pool.available(ROWS, COLUMNS));
+        assertEquals(0, pool.available(9, 9));
+
+        assertTrue(pool.acquire(ROWS, COLUMNS, BOMBS).isFirstClickSafe());
+        assertThrows(IllegalArgumentException.class, () -> pool.acquire(ROWS, COLUMNS, 0));
+        assertEquals(1, pool.available(ROWS, COLUMNS));
+        assertThrows(IllegalArgumentException.class, () -> new BoardPool(0, false));
+    }
+
+    /**
+     * Boards must not be served twice when many threads share the pool.
+     */
+    @Test
+    public void concurrentChurn() throws InterruptedException {
+        BoardPool pool = new BoardPool(4, true);
+        Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                try {
+                    int[] buffer = new int[ROWS * COLUMNS];
+                    for (int i = 0; i < 2000; ++i) {
+                        Board board = pool.acquire(ROWS, COLUMNS, BOMBS);
+                        assertFalse(board.isGameOver());
+                        play(board, buffer);
+                        pool.release(board);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(null, failure[0]);
+        assertTrue(pool.available(ROWS, COLUMNS) <= 4);
+    }
+
+    /**
+     * Once warm, playing game after game on pooled boards must allocate next to
+     * nothing.
+     */
+    @Test
+    public void steadyStateAllocation() throws InvalidActivityException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+
+        BoardPool pool = new BoardPool(1, true);
+        int[] buffer = new int[ROWS * COLUMNS];
+        int games = 20_000;
+        for (int round = 0; round < 2; ++round) {
+            // Warm up, then measure
+            long start = threads.getThreadAllocatedBytes(id);
+            for (int i = 0; i < games; ++i) {
+                Board board = pool.acquire(ROWS, COLUMNS, BOMBS);
+                play(board, buffer);
+                pool.release(board);
+            }
+            long perGame = (threads.getThreadAllocatedBytes(id) - start) / games;
+            if (round == 1)
+                assertTrue(perGame < 64, perGame + " bytes per game");
+        }
+    }
+}
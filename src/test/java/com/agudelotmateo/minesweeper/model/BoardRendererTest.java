@@ -0,0 +1,82 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the board renderer.
+ */
+public class BoardRendererTest {
+
+    /**
+     * Non-square boards must end every row after their last column.
+     */
+    @Test
+    public void renderNonSquare() {
+        Board board = new Board(2, 3, 1);
+
+        assertEquals("\n    1 2 3 \n           \n1   . . .\n2   . . .\n", board.toString());
+        assertEquals(board.toString(), new BoardRenderer(board).toString());
+    }
+
+    /**
+     * Rows and columns must be numbered as "%-2d" would.
+     */
+    @Test
+    public void renderLabels() {
+        Board board = new Board(12, 11, 1);
+        String[] lines = board.toString().split("\n");
+
+        assertEquals("    1 2 3 4 5 6 7 8 9 1011", lines[1]);
+        assertEquals("9   . . . . . . . . . . .", lines[11]);
+        assertEquals("12  . . . . . . . . . . .", lines[14]);
+    }
+
+    /**
+     * Flags and uncovered cells must use their glyphs.
+     */
+    @Test
+    public void renderGlyphs() throws InvalidActivityException {
+        // Find a seed with a bomb in the first cell only
+        Board board = null;
+        for (long seed = 0; board == null || (board.cellAt(0, 0) & Board.BOMB) == 0; ++seed)
+            board = new Board(3, 3, 1, seed);
+
+        // Flag the center, then uncover the rest of the board through its far corner
+        board.toggleCellFlag(1, 1);
+        board.uncoverCell(2, 2);
+        assertEquals("\n    1 2 3 \n           \n1   . 1 -\n2   1 P -\n3   - - -\n", board.toString());
+
+        // Uncovering the center wins and uncovers the bomb
+        board.toggleCellFlag(1, 1);
+        board.uncoverCell(1, 1);
+        assertEquals("\n    1 2 3 \n           \n1   * 1 -\n2   1 1 -\n3   - - -\n", board.toString());
+    }
+
+    /**
+     * Only the rows that changed since they were last written must be written.
+     */
+    @Test
+    public void writeChangesTo() throws IOException, InvalidActivityException {
+        Board board = new Board(5, 5, 1);
+        BoardRenderer renderer = new BoardRenderer(board);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Everything changed the first time, nothing the second one
+        assertEquals(5, renderer.writeChangesTo(out));
+        assertEquals(0, renderer.writeChangesTo(new ByteArrayOutputStream()));
+
+        // Flagging a cell only changes its row
+        out.reset();
+        board.toggleCellFlag(3, 2);
+        assertEquals(1, renderer.writeChangesTo(out));
+        assertEquals("4   . . P . .\n", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
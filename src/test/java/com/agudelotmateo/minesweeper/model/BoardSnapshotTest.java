@@ -0,0 +1,197 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for board snapshots.
+ */
+public class BoardSnapshotTest {
+
+    /**
+     * Creates a board of random size and plays random moves on it.
+     *
+     * @return the board
+     */
+    private static Board playedBoard() throws InvalidActivityException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int rows = random.nextInt(1, Board.MAX_ROWS_EXCLUSIVE);
+        int columns = random.nextInt(1, Board.MAX_COLUMNS_EXCLUSIVE);
+        int bombs = random.nextInt(1, rows * columns + 1);
+        Board board;
+        switch (random.nextInt(3)) {
+        case 0:
+            board = Board.firstClickSafe(rows, columns, bombs, random.nextLong());
+            break;
+        case 1:
+            board = new Board(rows, columns, bombs, random.nextLong());
+            break;
+        default:
+            board = new Board(rows, columns, Random.sampleUniqueInts(bombs, 0, rows * columns));
+        }
+        int moves = random.nextInt(20);
+        for (int i = 0; i < moves && !board.isGameOver(); ++i)
+            if (random.nextInt(3) == 0)
+                board.toggleCellFlag(random.nextInt(rows), random.nextInt(columns));
+            else
+                board.uncoverCell(random.nextInt(rows), random.nextInt(columns));
+        return board;
+    }
+
+    /**
+     * Checks that two boards hold the same game.
+     */
+    private static void assertSameGame(Board expected, Board actual) {
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getColumns(), actual.getColumns());
+        assertEquals(expected.getBombs(), actual.getBombs());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.isSeeded(), actual.isSeeded());
+        assertEquals(expected.isFirstClickSafe(), actual.isFirstClickSafe());
+        assertEquals(expected.isGameOver(), actual.isGameOver());
+        assertEquals(expected.isGameWon(), actual.isGameWon());
+        for (int i = 0; i < expected.getRows(); ++i)
+            for (int j = 0; j < expected.getColumns(); ++j)
+                assertEquals(expected.cellAt(i, j), actual.cellAt(i, j));
+    }
+
+    /**
+     * Restored games must be identical, and keep playing the same way.
+     */
+    @RepeatedTest(50)
+    public void roundTripBuffer() throws InvalidActivityException {
+        Board board = playedBoard();
+        ByteBuffer buffer = ByteBuffer.allocate(BoardSnapshot.size(board) + 1);
+        BoardSnapshot.write(board, buffer);
+        assertEquals(BoardSnapshot.size(board), buffer.position());
+        buffer.flip();
+
+        Board restored = BoardSnapshot.read(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertSameGame(board, restored);
+
+        // Finish both games the same way
+        for (int i = 0; i < board.getRows() && !board.isGameOver(); ++i)
+            for (int j = 0; j < board.getColumns() && !board.isGameOver(); ++j) {
+                board.uncoverCell(i, j);
+                restored.uncoverCell(i, j);
+            }
+        assertSameGame(board, restored);
+    }
+
+    /**
+     * Restoring into an existing board must reuse it.
+     */
+    @Test
+    public void readInto() throws InvalidActivityException {
+        Board board = Board.firstClickSafe(16, 30, 99);
+        board.toggleCellFlag(0, 0);
+        ByteBuffer buffer = ByteBuffer.allocate(BoardSnapshot.size(board));
+        BoardSnapshot.write(board, buffer);
+        buffer.flip();
+
+        Board target = new Board(9, 9, 10);
+        assertSame(target, BoardSnapshot.read(buffer, target));
+        assertSameGame(board, target);
+
+        // The bombs are still placed on the first click
+        target.uncoverCell(8, 8);
+        assertEquals(0, target.visibleCell(8, 8));
+        assertEquals(Board.VISIBLE_FLAGGED, target.visibleCell(0, 0));
+    }
+
+    /**
+     * An expert game must take less than half of its in-memory size.
+     */
+    @Test
+    public void size() {
+        assertEquals(194, BoardSnapshot.size(16, 30));
+        assertTrue(BoardSnapshot.size(99, 99) * 2 < 99 * 99);
+    }
+
+    /**
+     * Many snapshots must round-trip through a file, both one at a time and
+     * memory-mapped.
+     */
+    @Test
+    public void roundTripFile() throws IOException, InvalidActivityException {
+        Board[] boards = new Board[100];
+        long bytes = 0;
+        for (int i = 0; i < boards.length; ++i) {
+            boards[i] = playedBoard();
+            bytes += BoardSnapshot.size(boards[i]);
+        }
+
+        Path file = Files.createTempFile("snapshots", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // One at a time, read back mapped
+            for (Board board : boards)
+                BoardSnapshot.write(board, channel);
+            assertEquals(bytes, channel.position());
+            channel.position(0);
+            Board[] restored = BoardSnapshot.readMapped(channel, boards.length);
+            assertEquals(bytes, channel.position());
+            for (int i = 0; i < boards.length; ++i)
+                assertSameGame(boards[i], restored[i]);
+
+            // Mapped, read back one at a time
+            channel.truncate(0);
+            assertEquals(bytes, BoardSnapshot.writeMapped(boards, channel));
+            channel.position(0);
+            for (Board board : boards)
+                assertSameGame(board, BoardSnapshot.read(channel));
+            assertThrows(EOFException.class, () -> BoardSnapshot.read(channel));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Anything but a whole snapshot must be refused.
+     */
+    @Test
+    public void readInvalid() {
+        Board board = new Board(9, 9, 10);
+        ByteBuffer buffer = ByteBuffer.allocate(BoardSnapshot.size(board));
+        BoardSnapshot.write(board, buffer);
+        byte[] bytes = buffer.array();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardSnapshot.read(ByteBuffer.wrap(bytes, 0, bytes.length - 1)));
+        byte[] version = bytes.clone();
+        version[0] = 0;
+        assertThrows(IllegalArgumentException.class, () -> BoardSnapshot.read(ByteBuffer.wrap(version)));
+        byte[] missingBomb = bytes.clone();
+        missingBomb[14] = (byte) (missingBomb[14] ^ 1);
+        assertThrows(IllegalArgumentException.class, () -> BoardSnapshot.read(ByteBuffer.wrap(missingBomb)));
+    }
+
+    /**
+     * Boards on other topologies than the grid cannot be saved.
+     */
+    @Test
+    public void writeNotGrid() {
+        Board board = new Board(Topology.torus(9, 9), 10);
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardSnapshot.write(board, ByteBuffer.allocate(BoardSnapshot.size(board))));
+    }
+}
@@ -1,8 +1,51 @@
 package com.agudelotmateo.minesweeper.model;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
 public class BoardTest {
+    private static final int ROWS = Board.MAX_ROWS_EXCLUSIVE - 1;
+    private static final int COLUMNS = Board.MAX_COLUMNS_EXCLUSIVE - 1;
+
+    /**
+     * Creates a board whose only bomb is far enough from the edges not to wall off
+     * any corner, so that uncovering far from it uncovers every other cell.
+     * 
+     * @return a board with a single bomb away from the edges
+     */
+    private static Board singleInteriorBomb() {
+        for (long seed = ThreadLocalRandom.current().nextLong();; ++seed) {
+            Board board = new Board(ROWS, COLUMNS, 1, seed);
+            int bomb = firstBomb(board);
+            if (bomb / COLUMNS > 1 && bomb / COLUMNS < ROWS - 2 && bomb % COLUMNS > 1 && bomb % COLUMNS < COLUMNS - 2)
+                return board;
+        }
+    }
+
+    /**
+     * Finds the location of the first bomb in the board.
+     * 
+     * @param board the board to look into
+     * @return the location (row * columns + column) of the first bomb
+     */
+    private static int firstBomb(Board board) {
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                if ((board.cellAt(i, j) & Board.BOMB) != 0)
+                    return i * COLUMNS + j;
+        throw new AssertionError("no bombs in the board");
+    }
 
     /**
      * Check trying to create a board with too few rows is forbidden.
@@ -50,4 +93,430 @@ public class BoardTest {
                 Board.MAX_COLUMNS_EXCLUSIVE - 1, Board.MAX_ROWS_EXCLUSIVE * Board.MAX_COLUMNS_EXCLUSIVE));
     }
 
+    /**
+     * Uncovering a cell far from the only bomb must uncover every other cell
+     * exactly once and win the game, uncovering the bomb as well.
+     */
+    @Test
+    public void uncoverCellFloodsWholeBoard() throws InvalidActivityException {
+        Board board = singleInteriorBomb();
+        int bomb = firstBomb(board);
+
+        // Start from the corner furthest away from the bomb
+        int row = bomb / COLUMNS < ROWS / 2 ? ROWS - 1 : 0;
+        int column = bomb % COLUMNS < COLUMNS / 2 ? COLUMNS - 1 : 0;
+        int[] uncovered = board.uncoverCell(row, column);
+
+        // Every cell must have been uncovered, each one only once, the bomb last
+        assertEquals(ROWS * COLUMNS, uncovered.length);
+        assertEquals(ROWS * COLUMNS, Arrays.stream(uncovered).distinct().count());
+        assertEquals(bomb, uncovered[uncovered.length - 1]);
+        assertEquals(true, board.isGameOver());
+        assertEquals(true, board.isGameWon());
+    }
+
+    /**
+     * Uncovering an already uncovered cell must not uncover anything else.
+     */
+    @Test
+    public void uncoverCellTwice() throws InvalidActivityException {
+        Board board = singleInteriorBomb();
+        int bomb = firstBomb(board);
+
+        // A neighbour of the only bomb uncovers nothing but itself
+        int row = bomb / COLUMNS == 0 ? 1 : bomb / COLUMNS - 1;
+        int column = bomb % COLUMNS;
+        assertArrayEquals(new int[] { row * COLUMNS + column }, board.uncoverCell(row, column));
+        assertArrayEquals(new int[] {}, board.uncoverCell(row, column));
+        assertEquals(false, board.isGameOver());
+    }
+
+    /**
+     * Uncovering a bomb must lose the game and uncover every bomb.
+     */
+    @Test
+    public void uncoverCellBomb() throws InvalidActivityException {
+        Board board = singleInteriorBomb();
+        int bomb = firstBomb(board);
+
+        assertArrayEquals(new int[] { bomb }, board.uncoverCell(bomb / COLUMNS, bomb % COLUMNS));
+        assertEquals(true, board.isGameOver());
+        assertEquals(false, board.isGameWon());
+        assertThrows(InvalidActivityException.class, () -> board.uncoverCell(0, 0));
+    }
+
+    /**
+     * The adjacent counters computed when the board is created must match the
+     * bombs actually surrounding every cell.
+     */
+    @RepeatedTest(10)
+    public void constructorCountsAdjacentBombs() {
+        Board board = new Board(ROWS, COLUMNS, ROWS * COLUMNS / 5);
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j) {
+                int expected = 0;
+                for (int k = Math.max(0, i - 1); k <= Math.min(ROWS - 1, i + 1); ++k)
+                    for (int l = Math.max(0, j - 1); l <= Math.min(COLUMNS - 1, j + 1); ++l)
+                        if ((k != i || l != j) && (board.cellAt(k, l) & Board.BOMB) != 0)
+                            ++expected;
+                assertEquals(expected, board.cellAt(i, j) & Board.COUNT_MASK);
+            }
+    }
+
+    /**
+     * Flagging exactly the cells with bombs must win the game, while any wrong
+     * flag must prevent it.
+     */
+    @Test
+    public void toggleCellFlagWins() throws InvalidActivityException {
+        Board board = singleInteriorBomb();
+        int bomb = firstBomb(board);
+        int safe = bomb == 0 ? 1 : 0;
+
+        // A wrong flag next to the right one is not enough
+        board.toggleCellFlag(safe / COLUMNS, safe % COLUMNS);
+        board.toggleCellFlag(bomb / COLUMNS, bomb % COLUMNS);
+        assertEquals(false, board.isGameOver());
+
+        // Removing the wrong flag wins
+        board.toggleCellFlag(safe / COLUMNS, safe % COLUMNS);
+        assertEquals(true, board.isGameOver());
+        assertEquals(true, board.isGameWon());
+    }
+
+    /**
+     * Flagged cells must not be uncovered, so they cannot complete a win by
+     * uncovering.
+     */
+    @Test
+    public void uncoverCellFlaggedCellBlocksWin() throws InvalidActivityException {
+        Board board = singleInteriorBomb();
+        int bomb = firstBomb(board);
+        int row = bomb / COLUMNS < ROWS / 2 ? ROWS - 1 : 0;
+        int column = bomb % COLUMNS < COLUMNS / 2 ? COLUMNS - 1 : 0;
+
+        // Flag a cell far from the bomb, then flood from the starting corner
+        board.toggleCellFlag(row, COLUMNS / 2);
+        board.uncoverCell(row, column);
+        assertEquals(false, board.isGameOver());
+
+        // Unflagging and uncovering the last safe cell wins
+        board.toggleCellFlag(row, COLUMNS / 2);
+        board.uncoverCell(row, COLUMNS / 2);
+        assertEquals(true, board.isGameWon());
+    }
+
+    /**
+     * Boards created with the same seed must be identical.
+     */
+    @RepeatedTest(10)
+    public void constructorSeeded() {
+        long seed = ThreadLocalRandom.current().nextLong();
+        Board first = new Board(ROWS, COLUMNS, ROWS * COLUMNS / 5, seed);
+        Board second = new Board(ROWS, COLUMNS, ROWS * COLUMNS / 5, seed);
+
+        assertEquals(seed, first.getSeed());
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                assertEquals(first.cellAt(i, j), second.cellAt(i, j));
+    }
+
+    /**
+     * The visible state must only reveal what the player has uncovered or flagged.
+     */
+    @Test
+    public void visibleCell() throws InvalidActivityException {
+        Board board = singleInteriorBomb();
+        int bomb = firstBomb(board);
+        int row = bomb / COLUMNS;
+        int column = bomb % COLUMNS;
+
+        // Everything starts covered
+        assertEquals(Board.VISIBLE_COVERED, board.visibleCell(row, column));
+        board.toggleCellFlag(row + 1, column);
+        assertEquals(Board.VISIBLE_FLAGGED, board.visibleCell(row + 1, column));
+
+        // Uncovered cells show their counters, and the bomb once the game is lost
+        board.uncoverCell(row, column + 1);
+        assertEquals(1, board.visibleCell(row, column + 1));
+        board.uncoverCell(row, column);
+        assertEquals(Board.VISIBLE_BOMB, board.visibleCell(row, column));
+        assertThrows(IllegalArgumentException.class, () -> board.visibleCell(ROWS, 0));
+    }
+
+    /**
+     * Uncovering into a buffer must report the same cells as the allocating
+     * version.
+     */
+    @Test
+    public void uncoverCellIntoBuffer() throws InvalidActivityException {
+        long seed = ThreadLocalRandom.current().nextLong();
+        Board first = new Board(ROWS, COLUMNS, 10, seed);
+        Board second = new Board(ROWS, COLUMNS, 10, seed);
+        int[] buffer = new int[ROWS * COLUMNS];
+
+        for (int i = 0; i < ROWS && !first.isGameOver(); i += 7) {
+            int[] expected = first.uncoverCell(i, i);
+            int amount = second.uncoverCell(i, i, buffer);
+            assertArrayEquals(expected, Arrays.copyOf(buffer, amount));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Board(ROWS, COLUMNS, 1).uncoverCell(0, 0, new int[1]));
+    }
+
+    /**
+     * Boards built from explicit bomb locations must hold exactly those bombs.
+     */
+    @Test
+    public void constructorBombLocations() {
+        Board board = new Board(3, 4, new int[] { 0, 11 });
+
+        assertEquals(2, board.getBombs());
+        assertEquals(0, board.getSeed());
+        assertEquals(Board.BOMB, board.cellAt(0, 0));
+        assertEquals(Board.BOMB, board.cellAt(2, 3));
+        assertEquals(1, board.cellAt(1, 1));
+        assertEquals(1, board.cellAt(1, 2));
+        assertEquals(0, board.cellAt(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 4, new int[] { 1, 1 }));
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 4, new int[] { 12 }));
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 4, new int[] {}));
+    }
+
+    /**
+     * First-click-safe boards must not place any bomb until the first click, and
+     * then keep them away from it and its neighbours.
+     */
+    @RepeatedTest(20)
+    public void firstClickSafe() throws InvalidActivityException {
+        Board board = Board.firstClickSafe(ROWS, COLUMNS, ROWS * COLUMNS / 2);
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                assertEquals(0, board.cellAt(i, j));
+
+        // The first click opens up its neighbours
+        int row = ThreadLocalRandom.current().nextInt(ROWS);
+        int column = ThreadLocalRandom.current().nextInt(COLUMNS);
+        board.uncoverCell(row, column);
+        assertFalse(board.isGameOver());
+        assertEquals(0, board.visibleCell(row, column));
+        int bombs = 0;
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                if ((board.cellAt(i, j) & Board.BOMB) != 0) {
+                    assertTrue(Math.abs(i - row) > 1 || Math.abs(j - column) > 1);
+                    ++bombs;
+                }
+        assertEquals(ROWS * COLUMNS / 2, bombs);
+    }
+
+    /**
+     * The same seed and first click must produce the same board, and a crowded
+     * board must still keep the first click itself safe.
+     */
+    @Test
+    public void firstClickSafeSeeded() throws InvalidActivityException {
+        long seed = ThreadLocalRandom.current().nextLong();
+        Board first = Board.firstClickSafe(ROWS, COLUMNS, 100, seed);
+        Board second = Board.firstClickSafe(ROWS, COLUMNS, 100, seed);
+        first.uncoverCell(5, 7);
+        second.uncoverCell(5, 7);
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                assertEquals(first.cellAt(i, j), second.cellAt(i, j));
+
+        Board crowded = Board.firstClickSafe(3, 3, 8, seed);
+        crowded.uncoverCell(1, 1);
+        assertTrue(crowded.isGameWon());
+    }
+
+    /**
+     * Flags placed before the bombs must count once the bombs are placed.
+     */
+    @Test
+    public void firstClickSafeFlagsBeforePlacement() throws InvalidActivityException {
+        Board board = Board.firstClickSafe(3, 3, 1, ThreadLocalRandom.current().nextLong());
+        for (int i = 0; i < 3; ++i)
+            board.toggleCellFlag(0, i);
+        board.uncoverCell(2, 2);
+
+        // Unflag everything but the bomb, which wins the game if it was flagged
+        int[] bomb = { -1 };
+        for (int i = 0; i < 3; ++i)
+            if ((board.cellAt(0, i) & Board.BOMB) != 0)
+                bomb[0] = i;
+        for (int i = 0; i < 3 && !board.isGameOver(); ++i)
+            if (i != bomb[0])
+                board.toggleCellFlag(0, i);
+        assertEquals(bomb[0] >= 0, board.isGameWon());
+    }
+
+    /**
+     * Resetting a board must start a game identical to a new board's, whatever
+     * the board held before.
+     */
+    @Test
+    public void reset() throws InvalidActivityException {
+        long seed = ThreadLocalRandom.current().nextLong();
+        Board board = new Board(ROWS, COLUMNS, ROWS * COLUMNS / 2);
+        board.toggleCellFlag(0, 0);
+        board.uncoverCell(ROWS / 2, COLUMNS / 2);
+
+        board.reset(ROWS, COLUMNS, 10, seed);
+        assertFalse(board.isGameOver());
+        assertEquals(10, board.getBombs());
+        assertEquals(new Board(ROWS, COLUMNS, 10, seed).toString(), board.toString());
+
+        // Other dimensions, and first-click safety is kept
+        Board safe = Board.firstClickSafe(ROWS, COLUMNS, 10, seed);
+        safe.uncoverCell(0, 0);
+        safe.reset(9, 9, 10, seed);
+        Board fresh = Board.firstClickSafe(9, 9, 10, seed);
+        safe.uncoverCell(4, 4);
+        fresh.uncoverCell(4, 4);
+        assertEquals(9, safe.getRows());
+        assertEquals(fresh.toString(), safe.toString());
+
+        assertThrows(IllegalArgumentException.class, () -> board.reset(ROWS, COLUMNS, 0));
+    }
+
+    /**
+     * Chording a number with its flags right must uncover the same cells as
+     * uncovering each of its other covered neighbours, in one move.
+     */
+    @RepeatedTest(20)
+    public void chordCellMatchesUncovering() throws InvalidActivityException {
+        long seed = ThreadLocalRandom.current().nextLong();
+        Board chorded = new Board(16, 30, 99, seed);
+        Board uncovered = new Board(16, 30, 99, seed);
+        int[] buffer = new int[16 * 30];
+        for (int move = 0; move < 200 && !chorded.isGameOver(); ++move) {
+            int row = ThreadLocalRandom.current().nextInt(16);
+            int column = ThreadLocalRandom.current().nextInt(30);
+            int cell = chorded.cellAt(row, column);
+            if ((cell & Board.UNCOVERED) == 0) {
+                // Flag the bombs and uncover the rest
+                if ((cell & Board.BOMB) != 0) {
+                    if ((cell & Board.FLAGGED) == 0) {
+                        chorded.toggleCellFlag(row, column);
+                        uncovered.toggleCellFlag(row, column);
+                    }
+                } else {
+                    chorded.uncoverCell(row, column);
+                    uncovered.uncoverCell(row, column);
+                }
+                continue;
+            }
+
+            // Chord once every bomb around is flagged
+            int flags = 0;
+            int bombs = 0;
+            for (int i = Math.max(0, row - 1); i <= Math.min(15, row + 1); ++i)
+                for (int j = Math.max(0, column - 1); j <= Math.min(29, column + 1); ++j) {
+                    bombs += (chorded.cellAt(i, j) & Board.BOMB) != 0 ? 1 : 0;
+                    flags += (chorded.cellAt(i, j) & Board.FLAGGED) != 0 ? 1 : 0;
+                }
+            int amount = chorded.chordCell(row, column, buffer);
+            if (bombs != flags || bombs == 0) {
+                assertEquals(0, amount);
+                continue;
+            }
+            int expected = 0;
+            for (int i = Math.max(0, row - 1); i <= Math.min(15, row + 1); ++i)
+                for (int j = Math.max(0, column - 1); j <= Math.min(29, column + 1); ++j)
+                    if (!uncovered.isGameOver())
+                        expected += uncovered.uncoverCell(i, j).length;
+            assertEquals(expected, amount);
+            for (int location = 0; location < 16 * 30; ++location)
+                assertEquals(uncovered.cellAt(location / 30, location % 30), chorded.cellAt(location / 30, location % 30));
+            assertEquals(uncovered.isGameWon(), chorded.isGameWon());
+        }
+    }
+
+    /**
+     * Chording a number around a wrong flag must uncover the bomb it hides and
+     * lose the game.
+     */
+    @Test
+    public void chordCellWrongFlagLoses() throws InvalidActivityException {
+        Board board = new Board(3, 3, new int[] { 0 });
+        board.uncoverCell(1, 1);
+        board.toggleCellFlag(0, 1);
+        assertArrayEquals(new int[] { 0 }, board.chordCell(1, 1));
+        assertTrue(board.isGameOver());
+        assertFalse(board.isGameWon());
+        assertThrows(InvalidActivityException.class, () -> board.chordCell(1, 1));
+    }
+
+    /**
+     * Chording anything but an uncovered number with as many flags around must do
+     * nothing.
+     */
+    @Test
+    public void chordCellNothingToDo() throws InvalidActivityException {
+        Board board = new Board(4, 4, new int[] { 0, 15 });
+        assertEquals(0, board.chordCell(1, 1).length);
+        board.uncoverCell(1, 1);
+        assertEquals(0, board.chordCell(1, 1).length);
+        board.toggleCellFlag(0, 0);
+        board.toggleCellFlag(0, 1);
+        assertEquals(0, board.chordCell(1, 1).length);
+        board.toggleCellFlag(0, 1);
+        assertFalse(board.isGameOver());
+        assertThrows(IllegalArgumentException.class, () -> board.chordCell(4, 0));
+        assertThrows(IllegalArgumentException.class, () -> board.chordCell(0, 0, new int[1]));
+
+        // The flags around are right now
+        assertTrue(board.chordCell(1, 1).length > 0);
+    }
+
+    /**
+     * On every topology, the counters must match the bombs among the neighbours
+     * the topology lists, flood fills must stop exactly at the numbers, and
+     * uncovering every safe cell must win.
+     */
+    @RepeatedTest(5)
+    public void topologies() throws InvalidActivityException {
+        Topology[] topologies = { Topology.torus(16, 30), Topology.hexagonal(16, 30), Topology.layered(4, 6, 6) };
+        for (Topology topology : topologies) {
+            Board board = Board.firstClickSafe(topology, topology.getRows() * topology.getColumns() / 8,
+                    ThreadLocalRandom.current().nextLong());
+            assertEquals(topology, board.getTopology());
+            int columns = board.getColumns();
+            int cells = board.getRows() * columns;
+            board.uncoverCell(board.getRows() / 2, columns / 2);
+            for (int location = 0; location < cells; ++location) {
+                int cell = board.cellAt(location / columns, location % columns);
+                int bombs = 0;
+                boolean covered = false;
+                for (int i = 0; i < topology.degree(location); ++i) {
+                    int neighbour = topology.neighbour(location, i);
+                    bombs += (board.cellAt(neighbour / columns, neighbour % columns) & Board.BOMB) != 0 ? 1 : 0;
+                    covered |= (board.cellAt(neighbour / columns, neighbour % columns) & Board.UNCOVERED) == 0;
+                }
+                assertEquals(bombs, cell & Board.COUNT_MASK);
+                if ((cell & Board.UNCOVERED) != 0 && bombs == 0)
+                    assertFalse(covered);
+            }
+
+            // Uncover the rest of the safe cells
+            for (int location = 0; location < cells; ++location)
+                if ((board.cellAt(location / columns, location % columns) & Board.BOMB) == 0 && !board.isGameOver())
+                    board.uncoverCell(location / columns, location % columns);
+            assertTrue(board.isGameWon());
+        }
+    }
+
+    /**
+     * Resetting must keep the kind of topology, reshaped to the new size.
+     */
+    @Test
+    public void resetKeepsTopology() {
+        Board board = new Board(Topology.torus(9, 9), 10, 1);
+        board.reset(16, 30, 99, 2);
+        assertEquals(Topology.torus(16, 30), board.getTopology());
+        assertEquals(Topology.grid(9, 9), new Board(9, 9, 10).getTopology());
+        Board layered = new Board(Topology.layered(3, 3, 3), 3, 1);
+        assertThrows(IllegalArgumentException.class, () -> layered.reset(10, 3, 3));
+    }
 }
+
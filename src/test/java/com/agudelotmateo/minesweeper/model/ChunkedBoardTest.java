@@ -0,0 +1,110 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the chunked board.
+ */
+public class ChunkedBoardTest {
+    private static final int HUGE = 100_000;
+
+    /**
+     * Finds a cell without adjacent bombs, scanning from the given row.
+     *
+     * @param board the board to look into
+     * @param row   row to start scanning from
+     * @return the location (row * columns + column) of the cell
+     */
+    private static long findEmptyCell(ChunkedBoard board, int row) {
+        for (int i = row;; ++i)
+            for (int j = 0; j < ChunkedBoard.CHUNK_SIZE; ++j)
+                if ((board.cellAt(i, j) & (Board.BOMB | Board.COUNT_MASK)) == 0)
+                    return (long) i * board.getColumns() + j;
+    }
+
+    /**
+     * Check trying to create a board with an invalid density is forbidden.
+     */
+    @Test
+    public void constructorInvalidDensity() {
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedBoard(HUGE, HUGE, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedBoard(HUGE, HUGE, 1, 1));
+    }
+
+    /**
+     * Check trying to create a board whose density rounds to no bombs at all is
+     * forbidden, since it would be won by toggling any flag.
+     */
+    @Test
+    public void constructorNoBombs() {
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedBoard(2, 2, 0.1, 1));
+    }
+
+    /**
+     * The bombs must be counted without allocating any chunk.
+     */
+    @Test
+    public void constructorAllocatesNothing() {
+        ChunkedBoard board = new ChunkedBoard(HUGE, HUGE, 0.15, 1);
+
+        assertEquals(0, board.loadedChunks());
+        assertTrue(board.getBombs() > 0.14 * HUGE * HUGE && board.getBombs() < 0.16 * HUGE * HUGE);
+    }
+
+    /**
+     * Boards with the same seed must have the same bombs no matter the order in
+     * which their chunks are touched.
+     */
+    @Test
+    public void layoutIsDeterministic() {
+        ChunkedBoard first = new ChunkedBoard(HUGE, HUGE, 0.2, 42);
+        ChunkedBoard second = new ChunkedBoard(HUGE, HUGE, 0.2, 42);
+
+        // Touch the chunks in opposite orders
+        for (int i = 0; i < 4 * ChunkedBoard.CHUNK_SIZE; ++i)
+            first.cellAt(i, i);
+        for (int i = 4 * ChunkedBoard.CHUNK_SIZE - 1; i >= 0; --i)
+            assertEquals(first.cellAt(i, i), second.cellAt(i, i));
+    }
+
+    /**
+     * Uncovering must flood across chunk boundaries while only allocating the
+     * chunks around the explored area.
+     */
+    @Test
+    public void uncoverCellCrossesChunks() throws InvalidActivityException {
+        ChunkedBoard board = new ChunkedBoard(HUGE, HUGE, 0.15, 7);
+        long start = findEmptyCell(board, ChunkedBoard.CHUNK_SIZE - 1);
+        long[] uncovered = board.uncoverCell((int) (start / HUGE), (int) (start % HUGE));
+
+        // The region must span more than one chunk
+        assertTrue(Arrays.stream(uncovered).map(location -> location / HUGE / ChunkedBoard.CHUNK_SIZE).distinct()
+                .count() > 1);
+        assertEquals(uncovered.length, Arrays.stream(uncovered).distinct().count());
+
+        // Every uncovered cell without adjacent bombs must have its neighbours uncovered
+        for (long location : uncovered) {
+            int row = (int) (location / HUGE);
+            int column = (int) (location % HUGE);
+            int cell = board.cellAt(row, column);
+            assertEquals(0, cell & Board.BOMB);
+            if ((cell & Board.COUNT_MASK) != 0)
+                continue;
+            for (int i = Math.max(0, row - 1); i <= row + 1; ++i)
+                for (int j = Math.max(0, column - 1); j <= column + 1; ++j)
+                    assertTrue((board.cellAt(i, j) & Board.UNCOVERED) != 0);
+        }
+
+        // Memory must be proportional to the explored area, not the board
+        assertTrue(board.loadedChunks() < 1000);
+        assertEquals(false, board.isGameOver());
+    }
+}
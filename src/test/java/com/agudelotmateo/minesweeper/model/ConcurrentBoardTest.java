@@ -0,0 +1,205 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the board shared by many players.
+ */
+public class ConcurrentBoardTest {
+    private static final int THREADS = 8;
+
+    /**
+     * A move made by every thread.
+     */
+    @FunctionalInterface
+    private interface Player {
+        void play(int thread) throws InvalidActivityException;
+    }
+
+    /**
+     * Runs a player on every thread, all starting at the same time.
+     */
+    private static void runPlayers(Player player) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < THREADS; ++t) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    player.play(thread);
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertNull(failure[0]);
+    }
+
+    /**
+     * A shared board must be laid out and played exactly like a board with the
+     * same seed.
+     */
+    @Test
+    public void matchesBoard() throws InvalidActivityException {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int game = 0; game < 100; ++game) {
+            long seed = random.nextLong();
+            Board board = new Board(16, 30, 99, seed);
+            ConcurrentBoard shared = new ConcurrentBoard(16, 30, 99, seed);
+            while (!board.isGameOver()) {
+                int row = random.nextInt(16);
+                int column = random.nextInt(30);
+                if (random.nextInt(4) == 0) {
+                    board.toggleCellFlag(row, column);
+                    shared.toggleCellFlag(row, column);
+                } else
+                    assertEquals(board.uncoverCell(row, column).length, shared.uncoverCell(row, column));
+                for (int r = 0; r < 16; ++r)
+                    for (int c = 0; c < 30; ++c)
+                        assertEquals(board.visibleCell(r, c), shared.visibleCell(r, c));
+                assertEquals(board.isGameOver(), shared.isGameOver());
+                assertEquals(board.isGameWon(), shared.isGameWon());
+            }
+        }
+    }
+
+    /**
+     * Players racing to uncover every safe cell of a large board must uncover each
+     * one exactly once, and win exactly once.
+     */
+    @Test
+    public void concurrentUncoverNoLostUpdates() throws InterruptedException {
+        ConcurrentBoard board = new ConcurrentBoard(500, 500, 40_000, 2);
+        int cells = board.getRows() * board.getColumns();
+        AtomicLong uncovered = new AtomicLong();
+        runPlayers(thread -> {
+            // Every thread goes through the cells in its own order
+            int[] order = new int[cells];
+            for (int i = 0; i < cells; ++i)
+                order[i] = i;
+            Random.shuffle(order, new SplittableRandom(thread));
+            long mine = 0;
+            for (int location : order)
+                if ((board.cellAt(location) & Board.BOMB) == 0 && !board.isGameOver())
+                    try {
+                        mine += board.uncoverCell(location / board.getColumns(), location % board.getColumns());
+                    } catch (InvalidActivityException e) {
+                        // Someone else won in the meantime
+                    }
+            uncovered.addAndGet(mine);
+        });
+
+        assertTrue(board.isGameWon());
+        assertEquals(0, board.getCoveredSafeCells());
+        assertEquals(cells, uncovered.get());
+    }
+
+    /**
+     * Flags toggled by many players at once must all be counted, so flagging
+     * exactly the bombs afterwards wins on the last one.
+     */
+    @Test
+    public void concurrentFlagsNoLostUpdates() throws InterruptedException, InvalidActivityException {
+        ConcurrentBoard board = new ConcurrentBoard(64, 64, 1000, 3);
+        int columns = board.getColumns();
+        AtomicIntegerArray toggles = new AtomicIntegerArray(board.getRows() * columns);
+        runPlayers(thread -> {
+            SplittableRandom random = new SplittableRandom(thread);
+            for (int i = 0; i < 100_000; ++i) {
+                int location = random.nextInt(toggles.length());
+                board.toggleCellFlag(location / columns, location % columns);
+                toggles.incrementAndGet(location);
+            }
+        });
+
+        // Leave flags on the bombs only
+        assertFalse(board.isGameOver());
+        for (int location = 0; location < toggles.length(); ++location) {
+            boolean flagged = toggles.get(location) % 2 == 1;
+            assertEquals(flagged ? Board.VISIBLE_FLAGGED : Board.VISIBLE_COVERED,
+                    board.visibleCell(location / columns, location % columns));
+            boolean bomb = (board.cellAt(location) & Board.BOMB) != 0;
+            if (flagged && !bomb)
+                board.toggleCellFlag(location / columns, location % columns);
+        }
+        for (int location = 0; location < toggles.length(); ++location)
+            if ((board.cellAt(location) & (Board.BOMB | Board.FLAGGED)) == Board.BOMB) {
+                assertFalse(board.isGameOver());
+                board.toggleCellFlag(location / columns, location % columns);
+            }
+        assertTrue(board.isGameWon());
+    }
+
+    /**
+     * Players hitting different bombs at once must lose the game exactly once.
+     */
+    @Test
+    public void concurrentLossEndsOnce() throws InterruptedException {
+        for (int round = 0; round < 50; ++round) {
+            int[] bombs = new int[THREADS];
+            for (int i = 0; i < THREADS; ++i)
+                bombs[i] = 10 * i;
+            ConcurrentBoard board = new ConcurrentBoard(10, 10, bombs);
+            AtomicInteger losses = new AtomicInteger();
+            AtomicInteger refused = new AtomicInteger();
+            AtomicLong uncovered = new AtomicLong();
+            runPlayers(thread -> {
+                try {
+                    uncovered.addAndGet(board.uncoverCell(thread, 0));
+                    losses.incrementAndGet();
+                } catch (InvalidActivityException e) {
+                    refused.incrementAndGet();
+                }
+            });
+            assertEquals(1, losses.get());
+            assertEquals(THREADS - 1, refused.get());
+            assertEquals(THREADS, uncovered.get());
+            assertTrue(board.isGameOver());
+            assertFalse(board.isGameWon());
+        }
+    }
+
+    /**
+     * Invalid specifications and moves must be refused.
+     */
+    @Test
+    public void invalidArguments() throws InvalidActivityException {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(0, 10, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(10, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(10, 10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(10, 10, 101, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(1 << 16, 1 << 16, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(2, 2, new int[] { 1, 1 }));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBoard(2, 2, new int[] { 4 }));
+
+        ConcurrentBoard board = new ConcurrentBoard(200, 200, new int[] { 100 * 200 + 100 });
+        assertThrows(IllegalArgumentException.class, () -> board.uncoverCell(200, 0));
+        assertThrows(IllegalArgumentException.class, () -> board.toggleCellFlag(0, -1));
+        assertEquals(200 * 200, board.uncoverCell(0, 0));
+        assertTrue(board.isGameWon());
+        assertThrows(InvalidActivityException.class, () -> board.uncoverCell(0, 0));
+        assertThrows(InvalidActivityException.class, () -> board.toggleCellFlag(0, 0));
+    }
+}
@@ -0,0 +1,159 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.activity.InvalidActivityException;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the move log.
+ */
+public class MoveLogTest {
+    private static final int ROWS = Board.MAX_ROWS_EXCLUSIVE - 1;
+    private static final int COLUMNS = Board.MAX_COLUMNS_EXCLUSIVE - 1;
+
+    /**
+     * Plays random moves on a board until the game ends or the moves run out,
+     * recording them.
+     *
+     * @param board the board to play on
+     * @param log   the log to record the moves in
+     */
+    private static void playRandomly(Board board, MoveLog log) throws InvalidActivityException {
+        for (int i = 0; i < 200 && !board.isGameOver(); ++i) {
+            int row = ThreadLocalRandom.current().nextInt(ROWS);
+            int column = ThreadLocalRandom.current().nextInt(COLUMNS);
+            int draw = ThreadLocalRandom.current().nextInt(4);
+            int operation = draw == 0 ? MoveLog.FLAG : draw == 1 ? MoveLog.CHORD : MoveLog.UNCOVER;
+            log.record(row, column, operation);
+            if (operation == MoveLog.FLAG)
+                board.toggleCellFlag(row, column);
+            else if (operation == MoveLog.CHORD)
+                board.chordCell(row, column);
+            else
+                board.uncoverCell(row, column);
+        }
+    }
+
+    /**
+     * Replaying a decoded log must reproduce the exact same board.
+     */
+    @RepeatedTest(10)
+    public void replayAfterRoundTrip() throws InvalidActivityException {
+        Board board = new Board(ROWS, COLUMNS, ROWS * COLUMNS / 10, ThreadLocalRandom.current().nextLong());
+        MoveLog log = new MoveLog(board);
+        playRandomly(board, log);
+
+        // Decode the log and replay it
+        MoveLog decoded = MoveLog.fromByteArray(log.toByteArray());
+        Board replayed = decoded.replay();
+
+        // Both boards must match cell by cell
+        assertEquals(log.size(), decoded.size());
+        assertEquals(board.isGameOver(), replayed.isGameOver());
+        assertEquals(board.isGameWon(), replayed.isGameWon());
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                assertEquals(board.cellAt(i, j), replayed.cellAt(i, j));
+    }
+
+    /**
+     * Replaying a first-click-safe game must place the bombs the same way.
+     */
+    @RepeatedTest(10)
+    public void replayFirstClickSafe() throws InvalidActivityException {
+        Board board = Board.firstClickSafe(ROWS, COLUMNS, ROWS * COLUMNS / 10, ThreadLocalRandom.current().nextLong());
+        MoveLog log = new MoveLog(board);
+        playRandomly(board, log);
+
+        Board replayed = MoveLog.fromByteArray(log.toByteArray()).replay();
+        assertTrue(replayed.isFirstClickSafe());
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                assertEquals(board.cellAt(i, j), replayed.cellAt(i, j));
+    }
+
+    /**
+     * Logs in any other version of the format must be refused.
+     */
+    @Test
+    public void fromByteArrayOtherVersion() {
+        byte[] bytes = new MoveLog(ROWS, COLUMNS, 10, 1).toByteArray();
+        for (byte version : new byte[] { 0, 1, 2, 4 }) {
+            bytes[0] = version;
+            assertThrows(IllegalArgumentException.class, () -> MoveLog.fromByteArray(bytes));
+        }
+    }
+
+    /**
+     * Chords must be replayed as chords, uncovering every neighbour of the number
+     * around its flag.
+     */
+    @Test
+    public void replayChord() throws InvalidActivityException {
+        Board board = new Board(ROWS, COLUMNS, ROWS * COLUMNS / 10, 2);
+        MoveLog log = new MoveLog(board);
+        int location = 0;
+        while ((board.cellAt(location / COLUMNS, location % COLUMNS) & Board.COUNT_MASK) != 1
+                || (board.cellAt(location / COLUMNS, location % COLUMNS) & Board.BOMB) != 0)
+            ++location;
+        int row = location / COLUMNS;
+        int column = location % COLUMNS;
+        log.record(row, column, MoveLog.UNCOVER);
+        board.uncoverCell(row, column);
+        for (int i = Math.max(0, row - 1); i <= Math.min(ROWS - 1, row + 1); ++i)
+            for (int j = Math.max(0, column - 1); j <= Math.min(COLUMNS - 1, column + 1); ++j)
+                if ((board.cellAt(i, j) & Board.BOMB) != 0) {
+                    log.record(i, j, MoveLog.FLAG);
+                    board.toggleCellFlag(i, j);
+                }
+        log.record(row, column, MoveLog.CHORD);
+        assertTrue(board.chordCell(row, column).length > 0);
+
+        Board replayed = MoveLog.fromByteArray(log.toByteArray()).replay();
+        for (int i = 0; i < ROWS; ++i)
+            for (int j = 0; j < COLUMNS; ++j)
+                assertEquals(board.cellAt(i, j), replayed.cellAt(i, j));
+    }
+
+    /**
+     * Every move must take four bytes on top of a fixed header.
+     */
+    @Test
+    public void toByteArrayIsCompact() {
+        MoveLog log = new MoveLog(ROWS, COLUMNS, 10, 1);
+        for (int i = 0; i < 100; ++i)
+            log.record(i % ROWS, i % COLUMNS, MoveLog.UNCOVER);
+        assertEquals(new MoveLog(ROWS, COLUMNS, 10, 1).toByteArray().length + 400, log.toByteArray().length);
+    }
+
+    /**
+     * Invalid moves and encodings must be rejected.
+     */
+    @Test
+    public void invalidInput() {
+        MoveLog log = new MoveLog(ROWS, COLUMNS, 10, 1);
+        assertThrows(IllegalArgumentException.class, () -> log.record(ROWS, 0, MoveLog.UNCOVER));
+        assertThrows(IllegalArgumentException.class, () -> log.record(0, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> MoveLog.fromByteArray(new byte[] { 1, 0, 0 }));
+
+        // Boards that cannot be replayed
+        assertThrows(IllegalArgumentException.class, () -> new MoveLog(new Board(ROWS, COLUMNS, new int[] { 0 })));
+        assertThrows(IllegalArgumentException.class, () -> new MoveLog(new Board(Topology.torus(3, 3), 1, 5)));
+
+        // Trailing bytes that do not make up a whole move
+        log.record(0, 0, MoveLog.UNCOVER);
+        byte[] bytes = log.toByteArray();
+        for (int extra = 1; extra < Integer.BYTES; ++extra) {
+            byte[] padded = Arrays.copyOf(bytes, bytes.length + extra);
+            assertThrows(IllegalArgumentException.class, () -> MoveLog.fromByteArray(padded));
+        }
+    }
+}
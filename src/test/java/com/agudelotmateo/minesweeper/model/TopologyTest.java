@@ -0,0 +1,157 @@
+package com.agudelotmateo.minesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the neighbour tables of the board topologies.
+ */
+public class TopologyTest {
+    /**
+     * Checks that every cell is listed in ascending order among the neighbours of
+     * its neighbours, and never among its own.
+     */
+    private static void assertSymmetric(Topology topology) {
+        int cells = topology.getRows() * topology.getColumns();
+        for (int location = 0; location < cells; ++location)
+            for (int i = 0; i < topology.degree(location); ++i) {
+                int neighbour = topology.neighbour(location, i);
+                assertNotEquals(location, neighbour);
+                if (i > 0)
+                    assertTrue(topology.neighbour(location, i - 1) < neighbour);
+                boolean found = false;
+                for (int j = 0; j < topology.degree(neighbour); ++j)
+                    found |= topology.neighbour(neighbour, j) == location;
+                assertTrue(found, location + " is not a neighbour of " + neighbour);
+            }
+    }
+
+    /**
+     * The grid must list the same neighbours as the displacements around a cell.
+     */
+    @Test
+    public void grid() {
+        Topology topology = Topology.grid(4, 5);
+        assertSymmetric(topology);
+        assertEquals(3, topology.degree(0));
+        assertEquals(5, topology.degree(2));
+        assertEquals(8, topology.degree(6));
+        assertEquals(8, topology.getMaxDegree());
+        int[] expected = { 0, 1, 2, 5, 7, 10, 11, 12 };
+        for (int i = 0; i < expected.length; ++i)
+            assertEquals(expected[i], topology.neighbour(6, i));
+    }
+
+    /**
+     * Every cell of a torus must have 8 neighbours, unless a side is too short to
+     * tell them apart.
+     */
+    @Test
+    public void torus() {
+        Topology topology = Topology.torus(4, 5);
+        assertSymmetric(topology);
+        for (int location = 0; location < 20; ++location)
+            assertEquals(8, topology.degree(location));
+        int[] expected = { 1, 4, 5, 6, 9, 15, 16, 19 };
+        for (int i = 0; i < expected.length; ++i)
+            assertEquals(expected[i], topology.neighbour(0, i));
+
+        Topology narrow = Topology.torus(2, 1);
+        assertSymmetric(narrow);
+        assertEquals(1, narrow.degree(0));
+    }
+
+    /**
+     * Hexagonal cells must touch up to 6 cells, shifted by the parity of the row.
+     */
+    @Test
+    public void hexagonal() {
+        Topology topology = Topology.hexagonal(5, 5);
+        assertSymmetric(topology);
+        assertEquals(6, topology.getMaxDegree());
+        int[] even = { 6, 7, 11, 13, 16, 17 };
+        for (int i = 0; i < even.length; ++i)
+            assertEquals(even[i], topology.neighbour(12, i));
+        int[] odd = { 2, 3, 6, 8, 12, 13 };
+        for (int i = 0; i < odd.length; ++i)
+            assertEquals(odd[i], topology.neighbour(7, i));
+    }
+
+    /**
+     * Cells of a 3D board must touch the cells sharing a face with them, across
+     * the layers too.
+     */
+    @Test
+    public void layered() {
+        Topology topology = Topology.layered(3, 3, 3);
+        assertSymmetric(topology);
+        assertEquals(9, topology.getRows());
+        assertEquals(6, topology.getMaxDegree());
+        assertEquals(3, topology.degree(0));
+
+        // The center of the middle layer
+        int[] expected = { 4, 10, 12, 14, 16, 22 };
+        for (int i = 0; i < expected.length; ++i)
+            assertEquals(expected[i], topology.neighbour(13, i));
+
+        // The last row of a layer does not touch the first row of the next one
+        for (int i = 0; i < topology.degree(6); ++i)
+            assertNotEquals(9, topology.neighbour(6, i));
+    }
+
+    /**
+     * Tables must be shared by every board of the same shape, and kept when
+     * reshaping to the same size.
+     */
+    @Test
+    public void shared() {
+        Topology topology = Topology.hexagonal(9, 9);
+        assertSame(topology, Topology.hexagonal(9, 9));
+        assertSame(topology, topology.withShape(9, 9));
+        assertSame(Topology.hexagonal(16, 30), topology.withShape(16, 30));
+        assertNotEquals(Topology.grid(9, 9), topology);
+        assertSame(Topology.layered(3, 8, 30), Topology.layered(3, 3, 30).withShape(24, 30));
+
+        // Only shapes a board can hold are shared
+        assertSame(Topology.grid(99, 99), Topology.grid(99, 99));
+        assertNotSame(Topology.grid(100, 99), Topology.grid(100, 99));
+        assertNotSame(Topology.torus(5, 100), Topology.torus(5, 100));
+        assertEquals(8, Topology.torus(5, 100).degree(0));
+    }
+
+    /**
+     * The grid's displacements must reach every neighbour of an inner cell, and
+     * changing the copies handed out must not change the topology.
+     */
+    @Test
+    public void gridDisplacements() {
+        int[] rows = Topology.gridRowDisplacements();
+        int[] columns = Topology.gridColumnDisplacements();
+        Topology grid = Topology.grid(5, 5);
+        assertEquals(grid.degree(12), rows.length);
+        for (int i = 0; i < rows.length; ++i)
+            assertEquals((2 + rows[i]) * 5 + 2 + columns[i], grid.neighbour(12, i));
+
+        rows[0] = 0;
+        columns[0] = 0;
+        assertEquals(-1, Topology.gridRowDisplacements()[0]);
+        assertEquals(-1, Topology.gridColumnDisplacements()[0]);
+    }
+
+    /**
+     * Invalid shapes must be rejected.
+     */
+    @Test
+    public void invalidShapes() {
+        assertThrows(IllegalArgumentException.class, () -> Topology.grid(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> Topology.torus(5, 0));
+        assertThrows(IllegalArgumentException.class, () -> Topology.layered(0, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> Topology.layered(2, 3, 3).withShape(7, 3));
+    }
+}
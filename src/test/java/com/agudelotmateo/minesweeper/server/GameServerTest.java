@@ -0,0 +1,126 @@
+package com.agudelotmateo.minesweeper.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import com.agudelotmateo.minesweeper.controller.Session;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the game server.
+ */
+public class GameServerTest {
+
+    /**
+     * Reads lines until the given one, returning false if the connection closes
+     * before.
+     */
+    private static boolean readUntil(BufferedReader in, String expected) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null)
+            if (line.equals(expected))
+                return true;
+        return false;
+    }
+
+    /**
+     * Waits until the registry holds the given amount of sessions.
+     */
+    private static void awaitSessions(SessionRegistry registry, int sessions) throws InterruptedException {
+        for (int i = 0; i < 500 && registry.size() != sessions; ++i)
+            Thread.sleep(10);
+        assertEquals(sessions, registry.size());
+    }
+
+    /**
+     * A whole game must be playable over a connection, which is closed once the
+     * game is over.
+     */
+    @Test
+    public void playGame() throws IOException, InterruptedException {
+        try (GameServer server = new GameServer(0)) {
+            new Thread(server).start();
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                assertTrue(readUntil(in, Session.INSTRUCTIONS));
+                awaitSessions(server.getRegistry(), 1);
+
+                // Both lines arrive together, each one gets its own response
+                out.write("3 3 1\r\n2 2 M\n".getBytes(StandardCharsets.US_ASCII));
+                assertTrue(readUntil(in, Session.PROMPT));
+                assertTrue(readUntil(in, Session.PROMPT));
+
+                // Uncover every cell until the server says bye
+                for (int i = 1; i <= 3; ++i)
+                    for (int j = 1; j <= 3; ++j)
+                        out.write((i + " " + j + " U\n").getBytes(StandardCharsets.US_ASCII));
+                assertTrue(readUntil(in, Session.THANKS));
+                assertNull(in.readLine());
+            }
+            awaitSessions(server.getRegistry(), 0);
+        }
+    }
+
+    /**
+     * Sessions that stay quiet longer than the idle timeout must be closed.
+     */
+    @Test
+    public void evictIdle() throws IOException, InterruptedException {
+        try (GameServer server = new GameServer(0, 100)) {
+            new Thread(server).start();
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                assertTrue(readUntil(in, Session.INSTRUCTIONS));
+                assertNull(in.readLine());
+            }
+            awaitSessions(server.getRegistry(), 0);
+            assertEquals(1, server.getRegistry().getEvicted());
+        }
+    }
+
+    /**
+     * Lines longer than allowed must close the connection.
+     */
+    @Test
+    public void lineTooLong() throws IOException, InterruptedException {
+        try (GameServer server = new GameServer(0)) {
+            new Thread(server).start();
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                assertTrue(readUntil(in, Session.INSTRUCTIONS));
+                socket.getOutputStream().write(new byte[1024]);
+                assertNull(in.readLine());
+            }
+            awaitSessions(server.getRegistry(), 0);
+        }
+    }
+
+    /**
+     * The load generator must play every game it was asked to.
+     */
+    @Test
+    public void loadGenerator() throws IOException, InterruptedException {
+        try (GameServer server = new GameServer(0)) {
+            new Thread(server).start();
+            LoadGenerator generator = new LoadGenerator("localhost", server.getPort(), 4, 5);
+            generator.run();
+
+            assertEquals(20, generator.getGames());
+            assertTrue(generator.getCommands() >= 20);
+            assertTrue(generator.latencyPercentile(50) <= generator.latencyPercentile(99));
+        }
+    }
+}
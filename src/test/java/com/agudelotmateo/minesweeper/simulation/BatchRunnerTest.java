@@ -0,0 +1,78 @@
+package com.agudelotmateo.minesweeper.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the batch runner.
+ */
+public class BatchRunnerTest {
+
+    /**
+     * Plays a batch on a pool of the given size.
+     */
+    private static BatchResult run(int threads, long games, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new BatchRunner(pool, 9, 9, 10, SolverStrategy::new).run(games, seed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A batch must play out the same regardless of the amount of threads.
+     */
+    @Test
+    public void reproducibleAcrossParallelism() {
+        BatchResult single = run(1, 1000, 42);
+        BatchResult parallel = run(4, 1000, 42);
+
+        assertEquals(1000, single.getGames());
+        assertTrue(single.sameGames(parallel), single + " vs " + parallel);
+        assertFalse(single.sameGames(run(4, 1000, 43)));
+    }
+
+    /**
+     * The totals must add up.
+     */
+    @Test
+    public void totals() {
+        BatchResult result = run(2, 500, 7);
+
+        assertEquals(500, result.getGames());
+        assertTrue(result.getWins() > 0 && result.getWins() < 500);
+        assertTrue(result.getMoves() >= 500);
+        assertTrue(result.getReveals() <= 500L * (81 - 10));
+        assertTrue(result.getReveals() >= result.getWins() * (81 - 10));
+        assertTrue(result.getGameNanos() > 0);
+    }
+
+    /**
+     * The random strategy must lose far more often than the solver.
+     */
+    @Test
+    public void randomStrategy() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        BatchResult random = new BatchRunner(pool, 9, 9, 10, RandomStrategy::new).run(500, 1);
+        pool.shutdown();
+
+        assertEquals(500, random.getGames());
+        assertTrue(random.winRate() < run(2, 500, 1).winRate());
+    }
+
+    /**
+     * Negative amounts of games are invalid, while empty batches are fine.
+     */
+    @Test
+    public void runInvalidGames() {
+        assertThrows(IllegalArgumentException.class, () -> run(1, -1, 0));
+        assertEquals(0, run(1, 0, 0).getGames());
+    }
+}
@@ -0,0 +1,96 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the no-guess generator and its pool.
+ */
+public class NoGuessGeneratorTest {
+
+    /**
+     * Every generated board must start with an opening around the first click and
+     * be cleared by deductions alone.
+     */
+    @Test
+    public void generateIsSolvableWithoutGuessing() throws InvalidActivityException {
+        NoGuessGenerator generator = new NoGuessGenerator();
+        Solver solver = new Solver();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 200; ++i) {
+            Board board = generator.generate(16, 30, 99, random);
+            assertFalse(board.isGameOver());
+            assertEquals(99, board.getBombs());
+            assertTrue(solver.solveWithoutGuessing(board));
+        }
+        assertTrue(generator.getLayouts() >= 200);
+    }
+
+    /**
+     * The first click must land wherever asked, on an opening.
+     */
+    @Test
+    public void generateFromStart() {
+        Board board = new NoGuessGenerator().generate(9, 9, 10, 0, 8, new SplittableRandom(1));
+
+        assertEquals(0, board.visibleCell(0, 8));
+        assertEquals(0, board.visibleCell(1, 7));
+    }
+
+    /**
+     * The same randomness must produce the same board.
+     */
+    @Test
+    public void generateIsReproducible() throws InvalidActivityException {
+        Board first = new NoGuessGenerator().generate(16, 16, 40, new SplittableRandom(11));
+        Board second = new NoGuessGenerator().generate(16, 16, 40, new SplittableRandom(11));
+        new Solver().solveWithoutGuessing(first);
+        new Solver().solveWithoutGuessing(second);
+
+        assertEquals(first.toString(), second.toString());
+    }
+
+    /**
+     * Layouts that cannot leave the first click free, or first clicks outside of
+     * the board, must be refused.
+     */
+    @Test
+    public void generateInvalid() {
+        NoGuessGenerator generator = new NoGuessGenerator();
+        SplittableRandom random = new SplittableRandom();
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(3, 3, 1, 1, 1, random));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(9, 9, 10, 9, 0, random));
+    }
+
+    /**
+     * The pool must serve boards, and keep its shelves full in the background
+     * even after giving up on a specification that is too dense.
+     */
+    @Test
+    public void pool() throws InterruptedException, InvalidActivityException {
+        try (NoGuessPool pool = new NoGuessPool(2, 8)) {
+            pool.prefill(5, 5, 22);
+            pool.prefill(9, 9, 10);
+            for (int i = 0; i < 100 && pool.available(9, 9, 10) < 8; ++i)
+                Thread.sleep(20);
+            assertEquals(8, pool.available(9, 9, 10));
+
+            Board board = pool.take(9, 9, 10);
+            assertTrue(new Solver().solveWithoutGuessing(board));
+            assertEquals(0, pool.available(16, 30, 99));
+            assertEquals(0, pool.available(5, 5, 22));
+            assertThrows(IllegalArgumentException.class, () -> pool.take(5, 5, 22));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.Topology;
+import com.agudelotmateo.minesweeper.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the mine-probability engine.
+ */
+public class ProbabilityEngineTest {
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Computes the probabilities by trying every placement of the bombs not shown
+     * over the cells not uncovered, keeping the ones matching every number.
+     */
+    private static double[] bruteForce(Board board) {
+        int rows = board.getRows();
+        int columns = board.getColumns();
+        int[] view = new int[rows * columns];
+        int[] unknown = new int[rows * columns];
+        int unknowns = 0;
+        int remaining = board.getBombs();
+        for (int location = 0; location < view.length; ++location) {
+            view[location] = board.visibleCell(location / columns, location % columns);
+            if (view[location] == Board.VISIBLE_BOMB)
+                --remaining;
+            else if (view[location] < 0)
+                unknown[unknowns++] = location;
+        }
+
+        // Go through every combination of unknown cells in lexicographic order
+        double[] bombs = new double[view.length];
+        long placements = 0;
+        int[] chosen = new int[remaining];
+        for (int i = 0; i < remaining; ++i)
+            chosen[i] = i;
+        boolean[] bomb = new boolean[view.length];
+        while (true) {
+            for (int location = 0; location < view.length; ++location)
+                bomb[location] = view[location] == Board.VISIBLE_BOMB;
+            for (int i : chosen)
+                bomb[unknown[i]] = true;
+            if (matches(view, bomb, rows, columns)) {
+                ++placements;
+                for (int location = 0; location < view.length; ++location)
+                    if (bomb[location])
+                        ++bombs[location];
+            }
+            int i = remaining - 1;
+            while (i >= 0 && chosen[i] == unknowns - remaining + i)
+                --i;
+            if (i < 0)
+                break;
+            ++chosen[i];
+            for (int j = i + 1; j < remaining; ++j)
+                chosen[j] = chosen[j - 1] + 1;
+        }
+        for (int location = 0; location < view.length; ++location)
+            bombs[location] /= placements;
+        return bombs;
+    }
+
+    /**
+     * Checks if a placement of the bombs matches every uncovered number.
+     */
+    private static boolean matches(int[] view, boolean[] bomb, int rows, int columns) {
+        for (int location = 0; location < view.length; ++location) {
+            if (view[location] < 0)
+                continue;
+            int row = location / columns;
+            int column = location % columns;
+            int count = 0;
+            for (int i = Math.max(0, row - 1); i <= Math.min(rows - 1, row + 1); ++i)
+                for (int j = Math.max(0, column - 1); j <= Math.min(columns - 1, column + 1); ++j)
+                    if (bomb[i * columns + j])
+                        ++count;
+            if (count != view[location])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Uncovers random safe cells of a board, without ending the game.
+     */
+    private static void uncoverSome(Board board, int[] bombLocations, int moves, SplittableRandom random)
+            throws InvalidActivityException {
+        boolean[] bomb = new boolean[board.getRows() * board.getColumns()];
+        for (int location : bombLocations)
+            bomb[location] = true;
+        for (int i = 0; i < moves && !board.isGameOver(); ++i) {
+            int location = random.nextInt(bomb.length);
+            if (bomb[location])
+                board.toggleCellFlag(location / board.getColumns(), location % board.getColumns());
+            else
+                board.uncoverCell(location / board.getColumns(), location % board.getColumns());
+        }
+    }
+
+    /**
+     * The probabilities of small boards must match the ones found by trying every
+     * placement of the bombs, whatever the flags say.
+     */
+    @Test
+    public void matchesBruteForce() throws InvalidActivityException {
+        ProbabilityEngine engine = new ProbabilityEngine();
+        SplittableRandom random = new SplittableRandom(5);
+        int checked = 0;
+        for (int game = 0; game < 300; ++game) {
+            int rows = 3 + random.nextInt(3);
+            int columns = 3 + random.nextInt(4);
+            int bombs = 1 + random.nextInt(rows * columns / 3);
+            int[] bombLocations = Random.sampleUniqueInts(bombs, 0, rows * columns, random);
+            Board board = new Board(rows, columns, bombLocations);
+            uncoverSome(board, bombLocations, random.nextInt(4), random);
+            if (board.isGameWon())
+                continue;
+
+            double[] expected = bruteForce(board);
+            double[] actual = engine.probabilities(board);
+            for (int location = 0; location < expected.length; ++location)
+                assertEquals(expected[location], actual[location], EPSILON, "game " + game + ", cell " + location);
+            ++checked;
+        }
+        assertTrue(checked > 200);
+    }
+
+    /**
+     * Once the game is lost every bomb is certain.
+     */
+    @Test
+    public void lostBoardIsCertain() throws InvalidActivityException {
+        Board board = new Board(4, 4, new int[] { 0, 5, 15 });
+        board.uncoverCell(0, 0);
+        double[] probabilities = new ProbabilityEngine().probabilities(board);
+        for (int location = 0; location < probabilities.length; ++location)
+            assertEquals(location == 0 || location == 5 || location == 15 ? 1 : 0, probabilities[location], EPSILON);
+    }
+
+    /**
+     * On large boards halfway solved the probabilities must add up to the bombs,
+     * and the hint must always be safe while some cell is certainly safe.
+     */
+    @Test
+    public void expertBoards() throws InvalidActivityException {
+        ProbabilityEngine engine = new ProbabilityEngine();
+        Solver solver = new Solver();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int game = 0; game < 3; ++game) {
+            Board board = Board.firstClickSafe(99, 99, 1960, random.nextLong());
+            board.uncoverCell(49, 49);
+            solver.solveWithoutGuessing(board);
+            while (!board.isGameOver()) {
+                double[] probabilities = engine.probabilities(board);
+                double total = 0;
+                for (double probability : probabilities)
+                    total += probability;
+                assertEquals(board.getBombs(), total, 1e-6);
+
+                // Play the hint, which must be safe if it is certain
+                int hint = engine.hint(board);
+                board.uncoverCell(hint / 99, hint % 99);
+                if (probabilities[hint] < EPSILON)
+                    assertFalse(board.isGameOver() && !board.isGameWon());
+                if (!board.isGameOver())
+                    solver.solveWithoutGuessing(board);
+            }
+        }
+    }
+
+    /**
+     * Hints skip flagged cells, even wrongly flagged ones, and there is no hint
+     * once every cell is uncovered or flagged.
+     */
+    @Test
+    public void hintSkipsFlags() throws InvalidActivityException {
+        ProbabilityEngine engine = new ProbabilityEngine();
+        Board board = new Board(2, 2, new int[] { 3 });
+        board.uncoverCell(0, 1);
+        board.uncoverCell(1, 0);
+        assertEquals(0, engine.hint(board));
+        board.toggleCellFlag(0, 0);
+        assertEquals(3, engine.hint(board));
+        board.toggleCellFlag(1, 1);
+        assertEquals(-1, engine.hint(board));
+    }
+
+    /**
+     * Boards whose cells do not touch like a grid's must be rejected.
+     */
+    @Test
+    public void otherTopologies() throws InvalidActivityException {
+        ProbabilityEngine engine = new ProbabilityEngine();
+        Board board = Board.firstClickSafe(Topology.layered(3, 3, 3), 2, 1);
+        board.uncoverCell(4, 1);
+        assertThrows(IllegalArgumentException.class, () -> engine.probabilities(board));
+        assertThrows(IllegalArgumentException.class, () -> engine.hint(new Board(Topology.torus(4, 4), 2, 1)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.agudelotmateo.minesweeper.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import javax.activity.InvalidActivityException;
+
+import com.agudelotmateo.minesweeper.model.Board;
+import com.agudelotmateo.minesweeper.model.Topology;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the solver.
+ */
+public class SolverTest {
+
+    /**
+     * Every game must end, and most beginner games must be won.
+     */
+    @Test
+    public void solveBeginnerBoards() throws InvalidActivityException {
+        Solver solver = new Solver();
+        SplittableRandom random = new SplittableRandom(42);
+        int wins = 0;
+        for (int i = 0; i < 1000; ++i) {
+            Board board = new Board(9, 9, 10, random.nextLong());
+            boolean won = solver.solve(board, random);
+            assertTrue(board.isGameOver());
+            assertEquals(board.isGameWon(), won);
+            assertTrue(solver.getGuesses() >= 1 && solver.getGuesses() <= solver.getMoves());
+            if (won)
+                ++wins;
+        }
+        assertTrue(wins > 600, "won " + wins + " out of 1000");
+    }
+
+    /**
+     * A board with a single bomb needs no more than the guesses until the first
+     * number shows up, after which everything can be deduced.
+     */
+    @Test
+    public void solveSingleBomb() throws InvalidActivityException {
+        Solver solver = new Solver();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100; ++i) {
+            Board board = new Board(20, 20, 1, random.nextLong());
+            if (solver.solve(board, random))
+                assertTrue(solver.getGuesses() <= 2);
+        }
+    }
+
+    /**
+     * Finished games cannot be solved.
+     */
+    @Test
+    public void solveFinishedBoard() throws InvalidActivityException {
+        Board board = new Board(3, 3, 9);
+        board.uncoverCell(0, 0);
+        assertThrows(InvalidActivityException.class, () -> new Solver().solve(board, new SplittableRandom()));
+    }
+
+    /**
+     * Boards whose cells do not touch like a grid's cannot be solved.
+     */
+    @Test
+    public void solveOtherTopologies() throws InvalidActivityException {
+        Solver solver = new Solver();
+        Board torus = new Board(Topology.torus(9, 9), 10, 1);
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(torus, new SplittableRandom()));
+        Board hexagonal = Board.firstClickSafe(Topology.hexagonal(9, 9), 10, 1);
+        hexagonal.uncoverCell(4, 4);
+        assertThrows(IllegalArgumentException.class, () -> solver.solveWithoutGuessing(hexagonal));
+        assertEquals(Board.VISIBLE_COVERED, hexagonal.visibleCell(0, 0));
+    }
+
+    /**
+     * Flags left by the player must be read as unknown cells and left on the
+     * board, even a wrong one keeping the game from being won.
+     */
+    @Test
+    public void solveKeepsFlags() throws InvalidActivityException {
+        Board board = new Board(5, 5, new int[] { 0, 24 });
+        board.toggleCellFlag(0, 0);
+        board.toggleCellFlag(0, 4);
+        board.uncoverCell(2, 2);
+
+        assertEquals(false, new Solver().solve(board, new SplittableRandom(1)));
+        assertEquals(false, board.isGameOver());
+        assertEquals(Board.VISIBLE_FLAGGED, board.visibleCell(0, 0));
+        assertEquals(Board.VISIBLE_FLAGGED, board.visibleCell(0, 4));
+        for (int location = 1; location < 24; ++location)
+            if (location != 4)
+                assertTrue(board.visibleCell(location / 5, location % 5) >= 0);
+    }
+
+    /**
+     * Once its buffers are in place, the solver itself must not allocate: all that
+     * is left is the work queue the board allocates on its first move.
+     */
+    @Test
+    public void solveDoesNotAllocate() throws InvalidActivityException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        // Warm up, then measure a single game
+        Solver solver = new Solver();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; ++i)
+            solver.solve(new Board(16, 30, 99, random.nextLong()), random);
+        Board board = new Board(16, 30, 99, random.nextLong());
+        long before = threads.getThreadAllocatedBytes(thread);
+        solver.solve(board, random);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated <= 16 * 30 * Integer.BYTES + 64, "allocated " + allocated + " bytes");
+    }
+}
@@ -1,10 +1,15 @@
 package com.agudelotmateo.minesweeper.util;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -101,4 +106,175 @@ public class RandomTest {
     public void nUniqueIntsInRangeInvalid() {
         assertThrows(IllegalArgumentException.class, () -> Random.nUniqueIntsInRange(5, 10, -10));
     }
+
+    /**
+     * The sampleUniqueInts method must return the whole range if the range's size
+     * is n.
+     */
+    @RepeatedTest(10)
+    public void sampleUniqueIntsWholeRange() {
+        // Generate a random range specification
+        int origin = ThreadLocalRandom.current().nextInt(-100, 100);
+        int n = ThreadLocalRandom.current().nextInt(50, 100);
+        int bound = origin + n;
+
+        // Check if the method fails to reproduce the exact same numbers
+        int[] sample = Random.sampleUniqueInts(n, origin, bound);
+        Arrays.sort(sample);
+        assertArrayEquals(IntStream.range(origin, bound).toArray(), sample);
+    }
+
+    /**
+     * The sampleUniqueInts method must return exactly n unique items within the
+     * range [origin, bound).
+     */
+    @RepeatedTest(10)
+    public void sampleUniqueIntsValidNumbers() {
+        // Generate a random range specification much wider than n
+        int origin = ThreadLocalRandom.current().nextInt(-100, 100);
+        int n = ThreadLocalRandom.current().nextInt(50, 100);
+        int bound = origin + 100 * n;
+
+        // Check the amount, uniqueness and range of the produced values
+        int[] sample = Random.sampleUniqueInts(n, origin, bound);
+        assertEquals(n, sample.length);
+        assertEquals(n, Arrays.stream(sample).distinct().count());
+        assertEquals(false, Arrays.stream(sample).anyMatch(x -> x < origin || x >= bound));
+    }
+
+    /**
+     * The sampleUniqueInts method must return n unique items both when n is most
+     * of the range, where the values taken are kept in a bit set, and when many
+     * values are taken from the widest range, where they are kept in a table.
+     */
+    @Test
+    public void sampleUniqueIntsDense() {
+        int[] sample = Random.sampleUniqueInts(900, -10, 990);
+        assertEquals(900, Arrays.stream(sample).distinct().count());
+        assertEquals(false, Arrays.stream(sample).anyMatch(x -> x < -10 || x >= 990));
+
+        sample = Random.sampleUniqueInts(1 << 20, 0, Integer.MAX_VALUE);
+        assertEquals(1 << 20, Arrays.stream(sample).distinct().count());
+        assertEquals(false, Arrays.stream(sample).anyMatch(x -> x < 0));
+    }
+
+    /**
+     * The sampleUniqueInts method must reject invalid ranges and amounts.
+     */
+    @Test
+    public void sampleUniqueIntsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Random.sampleUniqueInts(5, 10, -10));
+        assertThrows(IllegalArgumentException.class, () -> Random.sampleUniqueInts(21, -10, 10));
+        assertThrows(IllegalArgumentException.class, () -> Random.sampleUniqueInts(-1, -10, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> Random.sampleUniqueInts(1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Samples n values from [0, size) many times and computes the chi-squared
+     * statistic of how often each value was sampled.
+     *
+     * @param n      the amount of values sampled each time
+     * @param size   the amount of values in the range
+     * @param trials the amount of samples taken
+     * @param random the generator to draw from
+     * @return the chi-squared statistic, with size - 1 degrees of freedom
+     */
+    private static double chiSquared(int n, int size, int trials, SplittableRandom random) {
+        // Count how many times each value is sampled
+        long[] counts = new long[size];
+        for (int i = 0; i < trials; ++i)
+            for (int value : Random.sampleUniqueInts(n, 0, size, random))
+                ++counts[value];
+
+        // Compare against the expected frequency
+        double expected = (double) trials * n / size;
+        double chiSquared = 0;
+        for (long count : counts)
+            chiSquared += (count - expected) * (count - expected) / expected;
+        return chiSquared;
+    }
+
+    /**
+     * Every value of the range must be equally likely to be sampled, both when
+     * the values taken are marked in a bit set (a range not much larger than n)
+     * and in the hash table (a range much larger than n): chi-squared tests with
+     * 19 and 2047 degrees of freedom at a 0.001 significance level.
+     */
+    @Test
+    public void sampleUniqueIntsUniform() {
+        SplittableRandom random = new SplittableRandom(6);
+        double dense = chiSquared(5, 20, 200_000, random);
+        assertTrue(dense < 43.82, "chi-squared statistic too large: " + dense);
+        double sparse = chiSquared(5, 2048, 400_000, random);
+        assertTrue(sparse < 2250.45, "chi-squared statistic too large: " + sparse);
+    }
+
+    /**
+     * Sampling a few values from a wide range must cost a tiny fraction of what
+     * shuffling the whole range does.
+     */
+    @Test
+    public void sampleUniqueIntsCostDependsOnN() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+        int n = 10;
+        int bound = 1_000_000;
+
+        // Measure shuffling the whole range
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long time = System.nanoTime();
+        Random.nUniqueIntsInRange(n, 0, bound);
+        long shuffleTime = System.nanoTime() - time;
+        long shuffleBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+        // Measure Floyd's sampling
+        bytes = threads.getThreadAllocatedBytes(thread);
+        time = System.nanoTime();
+        Random.sampleUniqueInts(n, 0, bound);
+        long sampleTime = System.nanoTime() - time;
+        long sampleBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+        // Compare
+        assertTrue(sampleBytes < 1024, "sampleUniqueInts allocated " + sampleBytes + " bytes in " + sampleTime
+                + " ns");
+        assertTrue(sampleBytes * 1000 < shuffleBytes, "nUniqueIntsInRange allocated " + shuffleBytes
+                + " bytes in " + shuffleTime + " ns");
+    }
+
+    /**
+     * Generators with the same seed must produce the same shuffles and samples.
+     */
+    @RepeatedTest(10)
+    public void seededIsReproducible() {
+        long seed = ThreadLocalRandom.current().nextLong();
+
+        // Shuffles
+        int[] first = IntStream.range(0, 100).toArray();
+        int[] second = IntStream.range(0, 100).toArray();
+        Random.shuffle(first, new SplittableRandom(seed));
+        Random.shuffle(second, new SplittableRandom(seed));
+        assertArrayEquals(first, second);
+
+        // Samples
+        assertArrayEquals(Random.sampleUniqueInts(10, 0, 1000, new SplittableRandom(seed)),
+                Random.sampleUniqueInts(10, 0, 1000, new SplittableRandom(seed)));
+        assertEquals(Random.nUniqueIntsInRange(10, 0, 1000, new SplittableRandom(seed)),
+                Random.nUniqueIntsInRange(10, 0, 1000, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Derived seeds must only depend on the base seed and the index, and differ
+     * between neighbouring indices.
+     */
+    @Test
+    public void derivedSeed() {
+        long seed = ThreadLocalRandom.current().nextLong();
+        assertEquals(Random.derivedSeed(seed, 5), Random.derivedSeed(seed, 5));
+        assertEquals(1000, IntStream.range(0, 1000).mapToLong(i -> Random.derivedSeed(seed, i)).distinct().count());
+    }
 }